@@ -0,0 +1,399 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * End to end benchmark of a packaged kuflowctl, executable jar or native executable, against the local stand-in for
+ * the KuFlow API in etc/stub. It runs offline and reports, for each scenario, the latency histogram and percentiles,
+ * the operations per second and the peak resident memory:
+ * <ul>
+ *   <li>Cold start: each operation is a new kuflowctl process, as in shell scripts.</li>
+ *   <li>Batch: a single kuflowctl process executes many operations with the batch command.</li>
+ * </ul>
+ * <pre>
+ * java etc/benchmark/KuFlowCtlBenchmark.java [options] -- &lt;kuflowctl command&gt;
+ *
+ *   --runs N        measured invocations of each cold start scenario, 20 by default
+ *   --warmup N      invocations of each cold start scenario before measuring, 2 by default
+ *   --batch-size N  operations of each batch scenario, 500 by default
+ *   --output DIR    directory of the report, target/benchmark by default
+ *   --stub FILE     source of the KuFlow API stand-in, etc/stub/KuFlowApiStub.java by default
+ * </pre>
+ * For example: {@code java etc/benchmark/KuFlowCtlBenchmark.java -- target/kuflow-cli-0.0.1-beta2.jar}.
+ * <p>
+ *   The peak resident memory is the high water mark of the process, sampled from /proc while it runs, so it is only
+ *   available on Linux. Invocations use an empty home directory, so the configuration and the daemon of the user are
+ *   never used. The exit code is 1 if any invocation fails.
+ * </p>
+ */
+public class KuFlowCtlBenchmark {
+
+    private static final String TASK_ID = "00000000-0000-4000-8000-000000000001";
+
+    private static final int HISTOGRAM_BUCKETS = 10;
+
+    private static final int HISTOGRAM_WIDTH = 40;
+
+    private static final long RSS_SAMPLE_MILLIS = 2;
+
+    private int runs = 20;
+
+    private int warmup = 2;
+
+    private int batchSize = 500;
+
+    private Path output = Paths.get("target", "benchmark");
+
+    private Path stub = Paths.get("etc", "stub", "KuFlowApiStub.java");
+
+    private List<String> kuflowctl = new ArrayList<>();
+
+    private Path workDirectory;
+
+    private List<String> connectionOptions;
+
+    private int failures = 0;
+
+    public static void main(String[] args) throws Exception {
+        KuFlowCtlBenchmark benchmark = new KuFlowCtlBenchmark();
+        benchmark.parseArguments(args);
+        System.exit(benchmark.run());
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--runs":
+                    this.runs = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    this.warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "--batch-size":
+                    this.batchSize = Integer.parseInt(args[++i]);
+                    break;
+                case "--output":
+                    this.output = Paths.get(args[++i]);
+                    break;
+                case "--stub":
+                    this.stub = Paths.get(args[++i]);
+                    break;
+                case "--":
+                    this.kuflowctl = Arrays.asList(Arrays.copyOfRange(args, i + 1, args.length));
+                    i = args.length;
+                    break;
+                default:
+                    throw new IllegalArgumentException(String.format("Unknown option %s", args[i]));
+            }
+        }
+
+        if (this.kuflowctl.isEmpty()) {
+            throw new IllegalArgumentException("Missing kuflowctl command after '--'");
+        }
+    }
+
+    private int run() throws Exception {
+        this.workDirectory = Files.createTempDirectory("kuflowctl-benchmark");
+        Process stubProcess = this.startStub();
+        try {
+            Path document = Files.write(this.workDirectory.resolve("document.txt"), new byte[1024]);
+            Map<String, List<String>> operations = new LinkedHashMap<>();
+            operations.put("append-log", List.of("append-log", "-t", TASK_ID, "-lv", "INFO", "Benchmark"));
+            operations.put("save-element-field", List.of("save-element-field", "-t", TASK_ID, "-e", "FIELD", "value"));
+            String documentUri = String.format("ku:task/%s/element-value/%s", TASK_ID, TASK_ID);
+            operations.put("save-element-principal", List.of("save-element-principal", "-t", TASK_ID, "-e", "USER", "USER=" + TASK_ID));
+            operations.put(
+                "save-element-document-by-reference",
+                List.of("save-element-document-by-reference", "-t", TASK_ID, "-e", "DOC", documentUri)
+            );
+            operations.put("save-element-document", List.of("save-element-document", "-t", TASK_ID, "-e", "DOC", document.toString()));
+
+            List<Result> results = new ArrayList<>();
+            results.add(this.coldStart("help", List.of("--help"), false));
+            for (Map.Entry<String, List<String>> operation : operations.entrySet()) {
+                results.add(this.coldStart(operation.getKey(), operation.getValue(), true));
+            }
+            for (Map.Entry<String, List<String>> operation : operations.entrySet()) {
+                results.add(this.batch(operation.getKey(), operation.getValue()));
+            }
+
+            this.writeReport(results);
+        } finally {
+            stubProcess.destroy();
+            try (Stream<Path> files = Files.walk(this.workDirectory)) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+
+        return this.failures > 0 ? 1 : 0;
+    }
+
+    private Process startStub() throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(java, this.stub.toString()).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String port = reader.readLine();
+        if (port == null) {
+            process.destroy();
+            throw new IOException(String.format("The stub %s did not start", this.stub));
+        }
+
+        String endpoint = "http://127.0.0.1:" + port.trim();
+        this.connectionOptions = List.of("--endpoint", endpoint, "--client-id", "benchmark", "--client-secret", "benchmark");
+
+        return process;
+    }
+
+    private Result coldStart(String name, List<String> operation, boolean connected) throws Exception {
+        List<String> args = new ArrayList<>();
+        if (connected) {
+            args.addAll(this.connectionOptions);
+        }
+        args.addAll(operation);
+
+        for (int i = 0; i < this.warmup; i++) {
+            this.execute(args);
+        }
+
+        Result result = new Result("cold start", name, this.runs);
+        for (int i = 0; i < this.runs; i++) {
+            Execution execution = this.execute(args);
+            result.add(execution);
+        }
+
+        return result;
+    }
+
+    private Result batch(String name, List<String> operation) throws Exception {
+        String line = operation.stream().map(arg -> "'" + arg + "'").collect(Collectors.joining(" "));
+        Path file = this.workDirectory.resolve(name + ".operations");
+        Files.write(file, Collections.nCopies(this.batchSize, line), StandardCharsets.UTF_8);
+
+        List<String> args = new ArrayList<>(this.connectionOptions);
+        args.addAll(List.of("batch", "--file", file.toString()));
+
+        Result result = new Result("batch", name, this.batchSize);
+        result.add(this.execute(args));
+
+        return result;
+    }
+
+    private Execution execute(List<String> args) throws Exception {
+        List<String> command = new ArrayList<>(this.kuflowctl);
+        command.addAll(args);
+
+        Path errorFile = this.workDirectory.resolve("error.log");
+        ProcessBuilder processBuilder = new ProcessBuilder(command)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(errorFile.toFile());
+        processBuilder.environment().put("HOME", this.workDirectory.toString());
+        processBuilder.environment().put("JAVA_TOOL_OPTIONS", "-Duser.home=" + this.workDirectory);
+
+        long start = System.nanoTime();
+        Process process = processBuilder.start();
+        Path status = Paths.get("/proc", String.valueOf(process.pid()), "status");
+        long peakRss = -1;
+        while (process.isAlive()) {
+            peakRss = Math.max(peakRss, readPeakRss(status));
+            Thread.sleep(RSS_SAMPLE_MILLIS);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (process.exitValue() != 0) {
+            this.failures++;
+            System.err.printf("Failed with exit code %d: %s%n", process.exitValue(), String.join(" ", command));
+            Files.lines(errorFile).limit(20).forEach(System.err::println);
+        }
+
+        return new Execution(elapsed / 1_000_000.0, peakRss);
+    }
+
+    private static long readPeakRss(Path status) {
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines
+                .filter(line -> line.startsWith("VmHWM:"))
+                .map(line -> Long.parseLong(line.replaceAll("[^0-9]", "")))
+                .findFirst()
+                .orElse(-1L);
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private void writeReport(List<Result> results) throws IOException {
+        Files.createDirectories(this.output);
+
+        StringBuilder json = new StringBuilder("[\n");
+        try (PrintStream report = new PrintStream(Files.newOutputStream(this.output.resolve("report.txt")), true, "UTF-8")) {
+            for (Result result : results) {
+                for (PrintStream stream : List.of(System.out, report)) {
+                    result.print(stream);
+                }
+                json.append(json.length() > 2 ? ",\n" : "").append(result.toJson());
+            }
+        }
+        json.append("\n]\n");
+        Files.write(this.output.resolve("report.json"), json.toString().getBytes(StandardCharsets.UTF_8));
+
+        System.out.printf("Report written to %s%n", this.output.toAbsolutePath());
+    }
+
+    private static class Execution {
+
+        private final double millis;
+
+        private final long peakRssKb;
+
+        Execution(double millis, long peakRssKb) {
+            this.millis = millis;
+            this.peakRssKb = peakRssKb;
+        }
+    }
+
+    private static class Result {
+
+        private final String mode;
+
+        private final String name;
+
+        private final int operations;
+
+        private final List<Execution> executions = new ArrayList<>();
+
+        Result(String mode, String name, int operations) {
+            this.mode = mode;
+            this.name = name;
+            this.operations = operations;
+        }
+
+        void add(Execution execution) {
+            this.executions.add(execution);
+        }
+
+        double totalMillis() {
+            return this.executions.stream().mapToDouble(execution -> execution.millis).sum();
+        }
+
+        double operationsPerSecond() {
+            return this.operations * 1000 / this.totalMillis();
+        }
+
+        long peakRssKb() {
+            return this.executions.stream().mapToLong(execution -> execution.peakRssKb).max().orElse(-1);
+        }
+
+        double percentile(double percentile) {
+            double[] sorted = this.executions.stream().mapToDouble(execution -> execution.millis).sorted().toArray();
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        void print(PrintStream stream) {
+            stream.printf(Locale.ROOT, "%s: %s%n", this.mode, this.name);
+            stream.printf(
+                Locale.ROOT,
+                "  %d operations, %.1f ops/s, peak RSS %s%n",
+                this.operations,
+                this.operationsPerSecond(),
+                this.peakRssKb() < 0 ? "n/a" : (this.peakRssKb() / 1024) + " MB"
+            );
+
+            if (this.executions.size() == 1) {
+                stream.printf(Locale.ROOT, "  elapsed %.1f ms%n%n", this.totalMillis());
+                return;
+            }
+
+            stream.printf(
+                Locale.ROOT,
+                "  latency ms: min %.1f, p50 %.1f, p90 %.1f, p95 %.1f, p99 %.1f, max %.1f%n",
+                this.percentile(0),
+                this.percentile(50),
+                this.percentile(90),
+                this.percentile(95),
+                this.percentile(99),
+                this.percentile(100)
+            );
+
+            double min = this.percentile(0);
+            double width = Math.max((this.percentile(100) - min) / HISTOGRAM_BUCKETS, 0.1);
+            int[] buckets = new int[HISTOGRAM_BUCKETS];
+            for (Execution execution : this.executions) {
+                buckets[Math.min(HISTOGRAM_BUCKETS - 1, (int) ((execution.millis - min) / width))]++;
+            }
+            int highest = Arrays.stream(buckets).max().orElse(1);
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                stream.printf(
+                    Locale.ROOT,
+                    "  %8.1f - %8.1f | %-" + HISTOGRAM_WIDTH + "s %d%n",
+                    min + i * width,
+                    min + (i + 1) * width,
+                    "#".repeat(buckets[i] * HISTOGRAM_WIDTH / highest),
+                    buckets[i]
+                );
+            }
+            stream.println();
+        }
+
+        String toJson() {
+            String latencies = this.executions
+                .stream()
+                .map(execution -> String.format(Locale.ROOT, "%.3f", execution.millis))
+                .collect(Collectors.joining(","));
+
+            return String.format(
+                Locale.ROOT,
+                "  {\"mode\":\"%s\",\"name\":\"%s\",\"operations\":%d,\"operationsPerSecond\":%.3f,\"peakRssKb\":%d," +
+                "\"p50Ms\":%.3f,\"p95Ms\":%.3f,\"p99Ms\":%.3f,\"latenciesMs\":[%s]}",
+                this.mode,
+                this.name,
+                this.operations,
+                this.operationsPerSecond(),
+                this.peakRssKb(),
+                this.percentile(50),
+                this.percentile(95),
+                this.percentile(99),
+                latencies
+            );
+        }
+    }
+}
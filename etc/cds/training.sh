@@ -0,0 +1,117 @@
+#!/usr/bin/env bash
+#
+# The MIT License
+# Copyright © 2021-present KuFlow S.L.
+#
+# Permission is hereby granted, free of charge, to any person obtaining a copy
+# of this software and associated documentation files (the "Software"), to deal
+# in the Software without restriction, including without limitation the rights
+# to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+# copies of the Software, and to permit persons to whom the Software is
+# furnished to do so, subject to the following conditions:
+#
+# The above copyright notice and this permission notice shall be included in
+# all copies or substantial portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+# THE SOFTWARE.
+#
+
+#
+# Create the class list used to build the Class Data Sharing (AppCDS) archive of kuflowctl, with a training run of
+# representative commands against a local stub of the KuFlow API, and report the startup time with and without the
+# archive.
+#
+#   etc/cds/training.sh <kuflowctl jar> <output directory>
+#
+set -euo pipefail
+
+JAR="$1"
+OUTPUT_DIR="$2"
+BASE_DIR="$(cd "$(dirname "$0")/../.." && pwd)"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+MEASURE_RUNS=5
+TASK_ID="00000000-0000-4000-8000-000000000001"
+
+WORK_DIR="$(mktemp -d)"
+STUB_PID=""
+
+cleanup() {
+  if [ -n "$STUB_PID" ]; then
+    kill "$STUB_PID" 2> /dev/null || true
+  fi
+  rm -rf "$WORK_DIR"
+}
+trap cleanup EXIT
+
+now_ms() {
+  if [ -n "${EPOCHREALTIME:-}" ]; then
+    local now="${EPOCHREALTIME/[.,]/}"
+    echo $((now / 1000))
+  else
+    perl -MTime::HiRes=time -e 'printf "%d\n", time * 1000'
+  fi
+}
+
+# Isolated home, so a running daemon or the user's configuration are never used
+kuflowctl() {
+  "$JAVA" -Duser.home="$WORK_DIR" "$@"
+}
+
+"$JAVA" "$BASE_DIR/etc/stub/KuFlowApiStub.java" > "$WORK_DIR/stub.port" &
+STUB_PID=$!
+for _ in $(seq 1 60); do
+  [ -s "$WORK_DIR/stub.port" ] && break
+  sleep 0.5
+done
+OPTIONS=(--endpoint "http://127.0.0.1:$(cat "$WORK_DIR/stub.port")" --client-id training --client-secret training)
+
+echo "kuflowctl training document" > "$WORK_DIR/document.txt"
+cat > "$WORK_DIR/operations.txt" << OPERATIONS
+append-log -t $TASK_ID -lv INFO "Training"
+save-element-field -t $TASK_ID -e FIELD value
+save-element-principal -t $TASK_ID -e PRINCIPAL USER=$TASK_ID
+save-element-document-by-reference -t $TASK_ID -e DOCUMENT ku:task/$TASK_ID/element-value/$TASK_ID
+save-element-document -t $TASK_ID -e DOCUMENT $WORK_DIR/document.txt
+OPERATIONS
+
+echo "Training kuflowctl class list"
+kuflowctl -XX:DumpLoadedClassList="$WORK_DIR/help.classlist" -jar "$JAR" --help > /dev/null
+kuflowctl -XX:DumpLoadedClassList="$WORK_DIR/single.classlist" -jar "$JAR" "${OPTIONS[@]}" \
+  append-log -t "$TASK_ID" -lv INFO "Training" > /dev/null
+kuflowctl -XX:DumpLoadedClassList="$WORK_DIR/batch.classlist" -jar "$JAR" "${OPTIONS[@]}" \
+  batch --file "$WORK_DIR/operations.txt" > /dev/null
+
+# Keep only class names, so the list can be used by any JVM version to create its own archive
+mkdir -p "$OUTPUT_DIR"
+cat "$WORK_DIR"/*.classlist \
+  | grep -v -e '^#' -e '^@' -e 'source:' \
+  | sed 's/ id: .*$//' \
+  | awk 'NF && !seen[$0]++' > "$OUTPUT_DIR/kuflowctl.classlist"
+
+echo "Measuring startup time with $(wc -l < "$OUTPUT_DIR/kuflowctl.classlist" | tr -d ' ') archived classes"
+kuflowctl -Xshare:dump -XX:SharedClassListFile="$OUTPUT_DIR/kuflowctl.classlist" \
+  -XX:SharedArchiveFile="$WORK_DIR/kuflowctl.jsa" -cp "$JAR" > "$WORK_DIR/dump.log" 2>&1
+
+measure() {
+  local start end
+  start="$(now_ms)"
+  for _ in $(seq 1 "$MEASURE_RUNS"); do
+    kuflowctl "$@" -jar "$JAR" "${OPTIONS[@]}" append-log -t "$TASK_ID" -lv INFO "Measure" > /dev/null
+  done
+  end="$(now_ms)"
+  echo $(((end - start) / MEASURE_RUNS))
+}
+
+WITHOUT_ARCHIVE="$(measure -Xshare:auto)"
+WITH_ARCHIVE="$(measure -Xshare:auto -XX:SharedArchiveFile="$WORK_DIR/kuflowctl.jsa")"
+
+{
+  echo "append-log startup without AppCDS: ${WITHOUT_ARCHIVE} ms"
+  echo "append-log startup with AppCDS: ${WITH_ARCHIVE} ms"
+} | tee "$OUTPUT_DIR/startup.txt"
@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the KuFlow API, used to exercise kuflowctl offline in training and benchmark runs.
+ * <p>
+ *   It answers the retrieval of a task, and the task actions invoked by kuflowctl, with a minimal task. Request bodies
+ *   are consumed and discarded.
+ * </p>
+ * <pre>
+ * java etc/stub/KuFlowApiStub.java [port]
+ * </pre>
+ * The port, random by default, is written to the standard output once the server is listening.
+ */
+public class KuFlowApiStub {
+
+    private static final Pattern TASK_PATH = Pattern.compile(".*/tasks/([0-9a-fA-F-]{36})$");
+
+    private static final Pattern TASK_ACTION_PATH = Pattern.compile(".*/tasks/([0-9a-fA-F-]{36})/~actions/([a-z-]+)$");
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 100);
+        server.createContext("/", KuFlowApiStub::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        System.out.println(server.getAddress().getPort());
+        System.out.flush();
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try {
+            long requestBytes = drain(exchange.getRequestBody());
+
+            Matcher taskMatcher = TASK_PATH.matcher(exchange.getRequestURI().getPath());
+            if ("GET".equals(exchange.getRequestMethod()) && taskMatcher.matches()) {
+                respond(exchange, 200, taskJson(taskMatcher.group(1), null, 0));
+                return;
+            }
+
+            Matcher matcher = TASK_ACTION_PATH.matcher(exchange.getRequestURI().getPath());
+            if (!"POST".equals(exchange.getRequestMethod()) || !matcher.matches()) {
+                respond(exchange, 404, "{\"status\":404,\"message\":\"Not found\"}");
+                return;
+            }
+
+            respond(exchange, 200, taskJson(matcher.group(1), matcher.group(2), requestBytes));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String taskJson(String taskId, String action, long requestBytes) {
+        String elementValues = "{}";
+        if ("save-element-value-document".equals(action)) {
+            String elementValueId = UUID.randomUUID().toString();
+            String uri = String.format("ku:task/%s/element-value/%s", taskId, elementValueId);
+            elementValues =
+                String.format(
+                    "{\"DOCUMENT\":[{\"type\":\"DOCUMENT\",\"valid\":true,\"value\":{\"id\":\"%s\",\"uri\":\"%s\",\"contentLength\":%d}}]}",
+                    elementValueId,
+                    uri,
+                    requestBytes
+                );
+        }
+
+        return String.format("{\"objectType\":\"TASK\",\"id\":\"%s\",\"state\":\"CLAIMED\",\"elementValues\":%s}", taskId, elementValues);
+    }
+
+    private static long drain(InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ((read = inputStream.read(buffer)) >= 0) {
+            total += read;
+        }
+
+        return total;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
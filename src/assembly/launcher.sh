@@ -0,0 +1,67 @@
+#!/bin/sh
+#
+# The MIT License
+# Copyright © 2021-present KuFlow S.L.
+#
+# Permission is hereby granted, free of charge, to any person obtaining a copy
+# of this software and associated documentation files (the "Software"), to deal
+# in the Software without restriction, including without limitation the rights
+# to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+# copies of the Software, and to permit persons to whom the Software is
+# furnished to do so, subject to the following conditions:
+#
+# The above copyright notice and this permission notice shall be included in
+# all copies or substantial portions of the Software.
+#
+# THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+# IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+# FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+# AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+# LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+# OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+# THE SOFTWARE.
+#
+
+#
+# kuflowctl launcher, prepended to the executable jar.
+#
+# When the class list created at build time is installed next to kuflowctl, a Class Data Sharing archive is created
+# on first use for the installed JVM, and used by the following executions to reduce the startup time. An archive is
+# only valid for the JVM that created it, so its name includes the JAVA version and a new one is created after a JAVA
+# upgrade. Set KUFLOWCTL_CDS=false to disable it.
+#
+CLASS_LIST="$0.classlist"
+
+java_version() {
+  # The release file of the JAVA installation avoids starting a JVM, "java -version" is the fallback
+  JAVA_PATH=$(command -v java)
+  JAVA_PATH=$(readlink -f "$JAVA_PATH" 2> /dev/null || echo "$JAVA_PATH")
+  VERSION=$(sed -n 's/^JAVA_VERSION="\(.*\)"$/\1/p' "$(dirname "$(dirname "$JAVA_PATH")")/release" 2> /dev/null)
+  if [ -z "$VERSION" ]; then
+    VERSION=$(java -version 2>&1 | sed -n '1s/^[^"]*"\([^"]*\)".*$/\1/p')
+  fi
+  echo "$VERSION" | tr -c 'A-Za-z0-9._+\n-' '_'
+}
+
+if [ "$KUFLOWCTL_CDS" != "false" ] && [ -f "$CLASS_LIST" ]; then
+  ARCHIVE="$0-$(java_version).jsa"
+  if { [ ! -e "$ARCHIVE" ] || [ "$0" -nt "$ARCHIVE" ]; } && [ -w "$(dirname "$0")" ]; then
+    if java -Xshare:dump -XX:SharedClassListFile="$CLASS_LIST" -XX:SharedArchiveFile="$ARCHIVE.$$" -cp "$0" > /dev/null 2>&1; then
+      # Archives of previous JAVA versions are no longer used
+      for OLD_ARCHIVE in "$0"-*.jsa "$0.jsa"; do
+        [ "$OLD_ARCHIVE" != "$ARCHIVE" ] && rm -f "$OLD_ARCHIVE"
+      done
+      mv -f "$ARCHIVE.$$" "$ARCHIVE"
+    else
+      # Empty archive, so the creation is not retried on every execution
+      rm -f "$ARCHIVE.$$"
+      : > "$ARCHIVE"
+    fi
+  fi
+
+  if [ -s "$ARCHIVE" ]; then
+    exec java -Xmx1G -Xshare:auto -XX:SharedArchiveFile="$ARCHIVE" -jar "$0" "$@"
+  fi
+fi
+
+exec java -Xmx1G -jar "$0" "$@"
@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.mixin.command;
+
+import com.kuflow.cli.core.model.EnvironmentProperties;
+import com.kuflow.cli.core.util.EnvironmentFileParser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import picocli.CommandLine;
+
+/**
+ * Resolution of the configuration from an environment file, found in the cache of environment files, parsing of the
+ * file, with the property names translated from kebab-case to camel-case, and merging of the loaded properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnvironmentPropertiesBenchmark {
+
+    private static final String ENVIRONMENT_FILE_CONTENT = String.join(
+        "\n",
+        "kuflow:",
+        "    endpoint: https://api.kuflow.com",
+        "    client-id: 3fa85f64-5717-4562-b3fc-2c963f66afa6",
+        "    client-secret: benchmark-secret",
+        "    timeout: 60000",
+        "    log-body-limit: 4096",
+        "    retry:",
+        "        max-retries: 5",
+        "        base-delay: 800",
+        "        max-delay: 30000",
+        "    circuit-breaker:",
+        "        failure-threshold: 5",
+        "        open-duration: 30000",
+        "    http:",
+        "        client: JDK",
+        "        version: HTTP_2",
+        "        max-connections: 16",
+        ""
+    );
+
+    private Path userHome;
+
+    private String originalUserHome;
+
+    private Path environmentFile;
+
+    private MainCommand mainCommand;
+
+    private EnvironmentProperties loadedProperties;
+
+    @Setup
+    public void setup() throws IOException {
+        // The cache of environment files is kept in the user directory
+        this.userHome = Files.createTempDirectory("kuflow-benchmark");
+        this.originalUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", this.userHome.toString());
+
+        // Recently modified files are not cached
+        this.environmentFile = this.userHome.resolve("environment.yml");
+        Files.writeString(this.environmentFile, ENVIRONMENT_FILE_CONTENT);
+        Files.setLastModifiedTime(this.environmentFile, FileTime.from(Instant.now().minus(1, ChronoUnit.MINUTES)));
+
+        this.mainCommand = new MainCommand();
+        new CommandLine(this.mainCommand).parseArgs("--environment-file", this.environmentFile.toString());
+        this.loadedProperties = this.mainCommand.getEnvironmentProperties();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setProperty("user.home", this.originalUserHome);
+        try (Stream<Path> files = Files.walk(this.userHome)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public EnvironmentProperties loadEnvironmentFile() {
+        this.mainCommand.setEnvironmentProperties(null);
+
+        return this.mainCommand.getEnvironmentProperties();
+    }
+
+    @Benchmark
+    public EnvironmentProperties parseEnvironmentFile() throws IOException {
+        return EnvironmentFileParser.parse(this.environmentFile);
+    }
+
+    @Benchmark
+    public EnvironmentProperties mergeEnvironmentProperties() {
+        return new EnvironmentProperties().merge(this.loadedProperties);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.mixin.command;
+
+import com.kuflow.cli.core.mixin.command.SaveElementPrincipalCommand.TaskElementValuePrincipalItemConverter;
+import java.util.Stack;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import picocli.CommandLine;
+import picocli.CommandLine.Model.ArgSpec;
+import picocli.CommandLine.Model.CommandSpec;
+
+/**
+ * Conversion of the 'PrincipalType=Value' arguments of {@code save-element-principal}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrincipalConverterBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    private int size;
+
+    private Stack<String> arguments;
+
+    private CommandSpec commandSpec;
+
+    private ArgSpec argSpec;
+
+    private TaskElementValuePrincipalItemConverter converter;
+
+    @Setup
+    public void setup() {
+        this.arguments = new Stack<>();
+        for (int i = 0; i < this.size; i++) {
+            this.arguments.push("USER=" + UUID.randomUUID());
+        }
+
+        this.commandSpec = new CommandLine(new SaveElementPrincipalCommand()).getCommandSpec();
+        this.argSpec = this.commandSpec.positionalParameters().get(0);
+        this.converter = new TaskElementValuePrincipalItemConverter();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object convert() {
+        this.argSpec.setValue(null);
+        this.converter.consumeParameters((Stack<String>) this.arguments.clone(), this.argSpec, this.commandSpec);
+
+        return this.argSpec.getValue();
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.util.BinaryData;
+import com.kuflow.cli.core.enumeration.HttpClientType;
+import com.kuflow.cli.core.enumeration.HttpVersion;
+import com.kuflow.cli.core.model.EnvironmentProperties.KuFlowProperties;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.net.ssl.KeyManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Requests to a local stub of KuFlow with each HTTP client and version: bursts of small concurrent requests, like the
+ * ones of batch runs or of saving an element in many tasks, and document uploads. The stub is served with TLS, where
+ * HTTP/2 is negotiated, using a self-signed certificate, and answers after a delay that simulates the latency of the
+ * network, so the cost of opening connections and the benefit of multiplexing them show.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpClientBenchmark {
+
+    private static final int REQUESTS = 64;
+
+    private static final BinaryData SMALL_BODY = BinaryData.fromBytes(new byte[1024]);
+
+    private static final BinaryData DOCUMENT_BODY = BinaryData.fromBytes(new byte[4 * 1024 * 1024]);
+
+    private static final String RESPONSE = "{\"id\":\"3fa85f64-5717-4562-b3fc-2c963f66afa6\",\"state\":\"CLAIMED\"}";
+
+    private static final String KEY_STORE_PASSWORD = "benchmark";
+
+    /**
+     * HTTP client and version, the Netty client only supports HTTP/1.1.
+     */
+    @Param({ "NETTY/HTTP_1_1", "JDK/HTTP_1_1", "JDK/HTTP_2" })
+    private String transport;
+
+    @Param({ "1", "16" })
+    private int concurrency;
+
+    @Param({ "2" })
+    private long latencyMillis;
+
+    private Path directory;
+
+    private DisposableServer server;
+
+    private HttpClient httpClient;
+
+    private String url;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException, GeneralSecurityException {
+        // Certificate of the stub, trusted by the clients of this process
+        this.directory = Files.createTempDirectory("kuflow-benchmark");
+        Path keyStore = this.directory.resolve("stub.p12");
+        createKeyStore(keyStore);
+        System.setProperty("javax.net.ssl.trustStore", keyStore.toString());
+        System.setProperty("javax.net.ssl.trustStorePassword", KEY_STORE_PASSWORD);
+        System.setProperty("javax.net.ssl.trustStoreType", "PKCS12");
+
+        KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        KeyStore keys = KeyStore.getInstance("PKCS12");
+        try (InputStream inputStream = Files.newInputStream(keyStore)) {
+            keys.load(inputStream, KEY_STORE_PASSWORD.toCharArray());
+        }
+        keyManagerFactory.init(keys, KEY_STORE_PASSWORD.toCharArray());
+
+        Duration latency = Duration.ofMillis(this.latencyMillis);
+        this.server =
+            HttpServer
+                .create()
+                .host("127.0.0.1")
+                .port(0)
+                .secure(spec -> spec.sslContext(Http2SslContextSpec.forServer(keyManagerFactory)))
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2)
+                .handle((request, response) ->
+                    request
+                        .receive()
+                        .then()
+                        .then(Mono.delay(latency))
+                        .then(response.header("Content-Type", "application/json").sendString(Mono.just(RESPONSE)).then())
+                )
+                .bindNow();
+        this.url = String.format("https://localhost:%d/v2022-10-08/tasks", this.server.port());
+
+        String[] transport = this.transport.split("/");
+        KuFlowProperties kuflow = new KuFlowProperties();
+        kuflow.setEndpoint(this.url);
+        kuflow.getHttp().setClient(HttpClientType.valueOf(transport[0]));
+        kuflow.getHttp().setVersion(HttpVersion.valueOf(transport[1]));
+        kuflow.getHttp().setMaxConnections(this.concurrency);
+        this.httpClient = HttpClientFactory.create(kuflow);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.server.disposeNow();
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public Long smallRequests() {
+        return Flux.range(0, REQUESTS).flatMap(i -> this.send(SMALL_BODY), this.concurrency).count().block();
+    }
+
+    @Benchmark
+    public Long documentUploads() {
+        return Flux.range(0, this.concurrency).flatMap(i -> this.send(DOCUMENT_BODY), this.concurrency).count().block();
+    }
+
+    private static void createKeyStore(Path keyStore) throws IOException, InterruptedException {
+        Process keytool = new ProcessBuilder(
+            Paths.get(System.getProperty("java.home"), "bin", "keytool").toString(),
+            "-genkeypair",
+            "-alias",
+            "stub",
+            "-keyalg",
+            "RSA",
+            "-dname",
+            "CN=localhost",
+            "-ext",
+            "SAN=dns:localhost,ip:127.0.0.1",
+            "-validity",
+            "1",
+            "-storetype",
+            "PKCS12",
+            "-keystore",
+            keyStore.toString(),
+            "-storepass",
+            KEY_STORE_PASSWORD
+        )
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .start();
+
+        if (keytool.waitFor() != 0) {
+            throw new IOException("Unable to create the key store of the stub");
+        }
+    }
+
+    private Mono<Integer> send(BinaryData body) {
+        HttpRequest request = new HttpRequest(HttpMethod.POST, this.url)
+            .setHeader("Content-Type", "application/octet-stream")
+            .setHeader("Content-Length", String.valueOf(body.getLength()))
+            .setBody(body);
+
+        return this.httpClient.send(request).flatMap(response -> response.getBodyAsByteArray().map(bytes -> bytes.length));
+    }
+}
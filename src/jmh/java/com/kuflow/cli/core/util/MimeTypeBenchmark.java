@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * MIME type detection over a corpus of files, with and without a known extension, and of the same contents as streams.
+ * The detection previous to {@link MimeTypeDetector}, that could access each file three times, is kept as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MimeTypeBenchmark {
+
+    private static final byte[] PNG = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 0, 0, 0, 0x0d, 'I', 'H', 'D', 'R' };
+
+    private static final byte[] JPEG = { (byte) 0xff, (byte) 0xd8, (byte) 0xff, (byte) 0xe0, 0, 0x10, 'J', 'F', 'I', 'F', 0 };
+
+    private static final byte[] ZIP = { 'P', 'K', 3, 4, 0x14, 0, 0, 0, 8, 0 };
+
+    private static final byte[] PDF = "%PDF-1.7\n%âãÏÓ\n".getBytes(StandardCharsets.ISO_8859_1);
+
+    private static final byte[] TEXT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit.\n".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] HTML = "<!DOCTYPE html>\n<html><body>Report</body></html>\n".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] JSON = "{\"status\":\"OK\",\"items\":[1,2,3]}\n".getBytes(StandardCharsets.UTF_8);
+
+    private Path directory;
+
+    private final Map<String, byte[]> corpus = new LinkedHashMap<>();
+
+    private final List<Path> files = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+        this.corpus.put("report.pdf", PDF);
+        this.corpus.put("image.png", PNG);
+        this.corpus.put("photo.jpg", JPEG);
+        this.corpus.put("evidences.zip", ZIP);
+        this.corpus.put("contract.docx", ZIP);
+        this.corpus.put("notes.txt", TEXT);
+        this.corpus.put("index.html", HTML);
+        this.corpus.put("result.json", JSON);
+        this.corpus.put("scan", PNG);
+        this.corpus.put("capture.dat", JPEG);
+        this.corpus.put("page", HTML);
+        this.corpus.put("output.log.1", TEXT);
+
+        this.directory = Files.createTempDirectory("kuflow-benchmark");
+        for (Map.Entry<String, byte[]> entry : this.corpus.entrySet()) {
+            this.files.add(Files.write(this.directory.resolve(entry.getKey()), entry.getValue()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        for (Path file : this.files) {
+            Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(this.directory);
+    }
+
+    @Benchmark
+    public void guessMimeTypeOfFiles(Blackhole blackhole) {
+        for (Path file : this.files) {
+            blackhole.consume(FileUtils.guessMimeType(file));
+        }
+    }
+
+    @Benchmark
+    public void guessMimeTypeOfFilesBaseline(Blackhole blackhole) {
+        for (Path file : this.files) {
+            blackhole.consume(probeMimeType(file));
+        }
+    }
+
+    @Benchmark
+    public void guessMimeTypeOfStreams(Blackhole blackhole) {
+        for (Map.Entry<String, byte[]> entry : this.corpus.entrySet()) {
+            BufferedInputStream inputStream = new BufferedInputStream(new ByteArrayInputStream(entry.getValue()));
+            blackhole.consume(FileUtils.guessMimeType(entry.getKey(), inputStream));
+        }
+    }
+
+    private static String probeMimeType(Path file) {
+        String mimeType = null;
+
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try {
+            mimeType = Files.probeContentType(file);
+        } catch (IOException e) {}
+
+        if (mimeType != null) {
+            return mimeType;
+        }
+
+        mimeType = URLConnection.guessContentTypeFromName(file.getFileName().toString());
+
+        if (mimeType != null) {
+            return mimeType;
+        }
+
+        try (InputStream inputStream = new FileInputStream(file.toFile())) {
+            mimeType = URLConnection.guessContentTypeFromStream(inputStream);
+        } catch (IOException e) {}
+
+        if (mimeType != null) {
+            return mimeType;
+        }
+
+        return "application/octet-stream";
+    }
+}
@@ -24,16 +24,23 @@ package com.kuflow.cli;
 
 import com.kuflow.cli.core.mixin.command.LoggingMixin;
 import com.kuflow.cli.core.mixin.command.MainCommand;
+import com.kuflow.cli.core.util.DaemonUtils;
+import com.kuflow.cli.core.util.Metrics;
 import picocli.CommandLine;
 
 public class KuFlowCLi {
-    static {
-        LoggingMixin.initializeLog4j();
-    }
-
     public static void main(String[] args) {
-        CommandLine cmd = new CommandLine(new MainCommand());
-        int exitCode = cmd.setExecutionStrategy(LoggingMixin::executionStrategy).execute(args);
+        Metrics.time(Metrics.PHASE_LOGGING, () -> LoggingMixin.initializeLogging(args));
+
+        Integer forwardedExitCode = DaemonUtils.forward(args);
+        if (forwardedExitCode != null) {
+            System.exit(forwardedExitCode);
+        }
+
+        MainCommand mainCommand = new MainCommand();
+        CommandLine cmd = new CommandLine(mainCommand);
+        int exitCode = Metrics.time(Metrics.PHASE_EXECUTION, () -> cmd.setExecutionStrategy(LoggingMixin::executionStrategy).execute(args));
+        mainCommand.writeMetrics(cmd.getParseResult(), exitCode);
         System.exit(exitCode);
     }
 }
@@ -24,10 +24,13 @@ package com.kuflow.cli.core.enumeration;
 
 public enum CommandType {
     SAVE_ELEMENT_FIELD(Key.SAVE_ELEMENT_FIELD),
+    SAVE_ELEMENT_FIELD_BULK(Key.SAVE_ELEMENT_FIELD_BULK),
     SAVE_ELEMENT_DOCUMENT(Key.SAVE_ELEMENT_DOCUMENT),
     SAVE_ELEMENT_DOCUMENT_BY_REFERENCE(Key.SAVE_ELEMENT_DOCUMENT_BY_REFERENCE),
     APPEND_LOG(Key.APPEND_LOG),
-    SAVE_ELEMENT_PRINCIPAL(Key.SAVE_ELEMENT_PRINCIPAL);
+    SAVE_ELEMENT_PRINCIPAL(Key.SAVE_ELEMENT_PRINCIPAL),
+    BATCH(Key.BATCH),
+    DAEMON(Key.DAEMON);
 
     private final String name;
 
@@ -44,7 +47,10 @@ public enum CommandType {
         public static final String SAVE_ELEMENT_DOCUMENT = "save-element-document";
         public static final String SAVE_ELEMENT_DOCUMENT_BY_REFERENCE = "save-element-document-by-reference";
         public static final String SAVE_ELEMENT_FIELD = "save-element-field";
+        public static final String SAVE_ELEMENT_FIELD_BULK = "save-element-field-bulk";
         public static final String SAVE_ELEMENT_PRINCIPAL = "save-element-principal";
         public static final String APPEND_LOG = "append-log";
+        public static final String BATCH = "batch";
+        public static final String DAEMON = "daemon";
     }
 }
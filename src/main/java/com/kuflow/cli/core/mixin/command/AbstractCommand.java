@@ -23,6 +23,7 @@
 package com.kuflow.cli.core.mixin.command;
 
 import com.kuflow.cli.core.model.EnvironmentProperties;
+import com.kuflow.cli.core.util.Metrics;
 import com.kuflow.cli.core.util.RestClientFactory;
 import com.kuflow.rest.KuFlowRestClient;
 
@@ -30,11 +31,29 @@ public abstract class AbstractCommand {
 
     private KuFlowRestClient kuFlowRestClient;
 
+    private KuFlowRestClient singleAttemptKuFlowRestClient;
+
     protected KuFlowRestClient getKuFlowRestClient(EnvironmentProperties properties) {
         if (this.kuFlowRestClient == null) {
-            this.kuFlowRestClient = RestClientFactory.kuFlowRestClient(properties);
+            this.kuFlowRestClient = Metrics.time(Metrics.PHASE_CLIENT, () -> RestClientFactory.kuFlowRestClient(properties));
         }
 
         return this.kuFlowRestClient;
     }
+
+    /**
+     * Client that does not retry failed requests, for requests whose body can only be read once, like streams.
+     */
+    protected synchronized KuFlowRestClient getSingleAttemptKuFlowRestClient(EnvironmentProperties properties) {
+        if (this.singleAttemptKuFlowRestClient == null) {
+            this.singleAttemptKuFlowRestClient =
+                Metrics.time(Metrics.PHASE_CLIENT, () -> RestClientFactory.kuFlowRestClient(properties, false));
+        }
+
+        return this.singleAttemptKuFlowRestClient;
+    }
+
+    void setKuFlowRestClient(KuFlowRestClient kuFlowRestClient) {
+        this.kuFlowRestClient = kuFlowRestClient;
+    }
 }
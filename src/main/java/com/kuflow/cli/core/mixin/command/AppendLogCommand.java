@@ -23,39 +23,171 @@
 package com.kuflow.cli.core.mixin.command;
 
 import com.kuflow.cli.core.enumeration.CommandType;
+import com.kuflow.cli.core.util.LogStreamer;
+import com.kuflow.cli.core.util.StringUtils;
+import com.kuflow.rest.KuFlowRestClient;
 import com.kuflow.rest.model.Log;
 import com.kuflow.rest.model.LogLevel;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.regex.Pattern;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 import picocli.CommandLine.ParentCommand;
+import picocli.CommandLine.Spec;
 
 @Command(name = CommandType.Key.APPEND_LOG, mixinStandardHelpOptions = true)
 public class AppendLogCommand extends AbstractCommand implements Runnable {
 
+    private static final Map<LogLevel, Pattern> DEFAULT_LEVEL_PATTERNS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_LEVEL_PATTERNS.put(LogLevel.ERROR, Pattern.compile("(?i)\\b(error|fatal|failed|failure)\\b"));
+        DEFAULT_LEVEL_PATTERNS.put(LogLevel.WARN, Pattern.compile("(?i)\\bwarn(ing)?\\b"));
+    }
+
+    @Spec
+    private CommandSpec spec;
+
     @ParentCommand
     private MainCommand mainCommand;
 
     @Mixin
     public LoggingMixin loggingMixin;
 
-    @Option(names = { "-t", "--task-id" }, description = "Task identifier", required = true)
-    public UUID taskId;
+    @Mixin
+    public TaskIdsMixin taskIdsMixin;
 
-    @Option(names = { "-lv", "--log-level" }, description = "Log level", required = true)
+    @Option(
+        names = { "-lv", "--log-level" },
+        description = "Log level. Required unless streaming, where it is the level of the lines not matching any pattern, INFO by default."
+    )
     private LogLevel logLevel;
 
-    @Parameters(description = "value", arity = "1..1")
+    @Option(names = "--stream", description = "Read the log lines from the standard input and append them until it is closed.")
+    private boolean stream;
+
+    @Option(
+        names = "--level-pattern",
+        description = "Level of the streamed lines matching a regular expression, evaluated in order. For example, " +
+        "--level-pattern ERROR='(?i)error'. By default lines with error or failure words are errors, and with warn words are warnings."
+    )
+    private Map<LogLevel, Pattern> levelPatterns;
+
+    @Option(
+        names = "--batch-size",
+        description = "Maximum number of streamed lines joined in a single log. 100 by default.",
+        defaultValue = "100"
+    )
+    private int batchSize = 100;
+
+    @Option(
+        names = "--flush-interval",
+        description = "Maximum time in milliseconds a streamed line waits before being sent. 1000 by default.",
+        defaultValue = "1000"
+    )
+    private long flushInterval = 1000;
+
+    @Option(
+        names = "--buffer-size",
+        description = "Maximum number of streamed lines waiting to be sent, further lines are dropped. 10000 by default.",
+        defaultValue = "10000"
+    )
+    private int bufferSize = 10_000;
+
+    @Parameters(description = "value", arity = "0..1")
     private String value;
 
     @Override
     public void run() {
+        if (this.stream) {
+            this.runStream();
+
+            return;
+        }
+
+        if (this.logLevel == null || this.value == null) {
+            throw new RuntimeException("A log level and a value are required unless the log is streamed.");
+        }
+
         Log log = new Log();
         log.setLevel(this.logLevel);
         log.setMessage(this.value);
 
-        super.getKuFlowRestClient(this.mainCommand.getEnvironmentProperties()).getTaskOperations().actionsTaskAppendLog(this.taskId, log);
+        KuFlowRestClient kuFlowRestClient = super.getKuFlowRestClient(this.mainCommand.getEnvironmentProperties());
+
+        this.taskIdsMixin.forEachTask(taskId -> kuFlowRestClient.getTaskOperations().actionsTaskAppendLog(taskId, log));
+    }
+
+    private void runStream() {
+        if (this.value != null) {
+            throw new RuntimeException("A value can not be specified when the log is streamed.");
+        }
+
+        List<UUID> taskIds = this.taskIdsMixin.resolveTaskIds();
+        if (taskIds.size() > 1) {
+            throw new RuntimeException("A single task identifier is supported when the log is streamed.");
+        }
+        UUID taskId = taskIds.get(0);
+
+        Map<LogLevel, Pattern> patterns = this.levelPatterns != null ? this.levelPatterns : DEFAULT_LEVEL_PATTERNS;
+        LogLevel defaultLevel = this.logLevel != null ? this.logLevel : LogLevel.INFO;
+        KuFlowRestClient kuFlowRestClient = super.getKuFlowRestClient(this.mainCommand.getEnvironmentProperties());
+
+        LogStreamer logStreamer;
+        try {
+            logStreamer =
+                new LogStreamer(
+                    log -> kuFlowRestClient.getTaskOperations().actionsTaskAppendLog(taskId, log),
+                    this.bufferSize,
+                    this.batchSize,
+                    Duration.ofMillis(this.flushInterval)
+                );
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        try (logStreamer; BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!StringUtils.isBlank(line)) {
+                    logStreamer.offer(resolveLevel(line, patterns, defaultLevel), line);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read the standard input", e);
+        }
+
+        if (logStreamer.getDroppedLines() > 0) {
+            this.spec.commandLine()
+                .getErr()
+                .println(String.format("%d of %d log lines were dropped", logStreamer.getDroppedLines(), logStreamer.getOfferedLines()));
+        }
+
+        if (logStreamer.getFailedLines() > 0) {
+            throw new RuntimeException(
+                String.format("Unable to append %d of %d log lines", logStreamer.getFailedLines(), logStreamer.getOfferedLines())
+            );
+        }
+    }
+
+    private static LogLevel resolveLevel(String line, Map<LogLevel, Pattern> patterns, LogLevel defaultLevel) {
+        for (Map.Entry<LogLevel, Pattern> entry : patterns.entrySet()) {
+            if (entry.getValue().matcher(line).find()) {
+                return entry.getKey();
+            }
+        }
+
+        return defaultLevel;
     }
 }
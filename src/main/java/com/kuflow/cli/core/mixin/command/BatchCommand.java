@@ -0,0 +1,226 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.mixin.command;
+
+import com.azure.core.util.serializer.JacksonAdapter;
+import com.azure.core.util.serializer.SerializerAdapter;
+import com.azure.core.util.serializer.SerializerEncoding;
+import com.kuflow.cli.core.enumeration.BatchFormat;
+import com.kuflow.cli.core.enumeration.CommandType;
+import com.kuflow.cli.core.mixin.command.OperationRunner.OperationResult;
+import com.kuflow.cli.core.model.EnvironmentProperties;
+import com.kuflow.cli.core.util.BoundedExecutor;
+import com.kuflow.cli.core.util.DaemonUtils;
+import com.kuflow.cli.core.util.StringUtils;
+import com.kuflow.rest.KuFlowRestClient;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.IExitCodeGenerator;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParentCommand;
+import picocli.CommandLine.Spec;
+
+@Command(
+    name = CommandType.Key.BATCH,
+    mixinStandardHelpOptions = true,
+    description = {
+        "Execute many operations with a single connection to KuFlow.",
+        "Each input line is an operation using the syntax of the other commands, for example: append-log -t <id> -lv INFO 'Message'.",
+        "With NDJSON format, each line is a JSON array of arguments, for example: " +
+        "[\"append-log\", \"-t\", \"<id>\", \"-lv\", \"INFO\", \"Message\"].",
+        "A result line is written per operation: <line number> <OK|ERROR> <operation> [<error message>].",
+    }
+)
+public class BatchCommand extends AbstractCommand implements Runnable, IExitCodeGenerator {
+
+    private static final String RESULT_SEPARATOR = "\t";
+
+    @Spec
+    private CommandSpec spec;
+
+    @ParentCommand
+    private MainCommand mainCommand;
+
+    @Mixin
+    public LoggingMixin loggingMixin;
+
+    @Option(names = { "-f", "--file" }, description = "File with the operations. Standard input by default.")
+    private Path file;
+
+    @Option(
+        names = "--format",
+        description = "Input format, one of: ${COMPLETION-CANDIDATES}. '" + BatchFormat.Key.LINE + "' by default.",
+        defaultValue = BatchFormat.Key.LINE
+    )
+    private BatchFormat format = BatchFormat.LINE;
+
+    @Option(names = "--fail-fast", description = "Stop at the first failed operation. False by default.")
+    private boolean failFast = false;
+
+    @Option(
+        names = { "-p", "--parallelism" },
+        description = "Maximum number of operations executed concurrently, results are written as they complete. 1 by default.",
+        defaultValue = "1"
+    )
+    private int parallelism = 1;
+
+    private final AtomicInteger failedOperations = new AtomicInteger();
+
+    /**
+     * Runners not in use, each concurrent operation needs its own because they are not thread safe.
+     */
+    private final Queue<OperationRunner> operationRunners = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void run() {
+        if (this.parallelism < 1) {
+            throw new RuntimeException(String.format("Parallelism must be greater than zero. [%d]", this.parallelism));
+        }
+
+        EnvironmentProperties environmentProperties = this.mainCommand.getEnvironmentProperties();
+        KuFlowRestClient kuFlowRestClient = super.getKuFlowRestClient(environmentProperties);
+
+        try (BoundedExecutor executor = new BoundedExecutor(this.parallelism); BufferedReader reader = this.openReader()) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null && !executor.isCancelled()) {
+                lineNumber++;
+                if (StringUtils.isBlank(line) || (this.format == BatchFormat.LINE && line.trim().startsWith("#"))) {
+                    continue;
+                }
+
+                List<String> arguments;
+                try {
+                    arguments = this.parseArguments(line);
+                } catch (IOException | IllegalArgumentException e) {
+                    OperationResult result = new OperationResult("", 1, String.format("Invalid operation: %s", e.getMessage()));
+                    this.completeOperation(executor, lineNumber, result);
+                    continue;
+                }
+
+                // The standard input carries the operations of the batch, and the operations run concurrently
+                if (DaemonUtils.readsStandardInput(arguments)) {
+                    String message = "The standard input can not be read by batch operations";
+                    this.completeOperation(executor, lineNumber, new OperationResult(arguments.get(0), 1, message));
+                    continue;
+                }
+
+                int operationLineNumber = lineNumber;
+                executor.submit(() -> {
+                    OperationResult result = this.runOperation(environmentProperties, kuFlowRestClient, arguments);
+                    this.completeOperation(executor, operationLineNumber, result);
+                    return result;
+                });
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading batch operations", e);
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return this.failedOperations.get() > 0 ? 1 : 0;
+    }
+
+    private OperationResult runOperation(
+        EnvironmentProperties environmentProperties,
+        KuFlowRestClient kuFlowRestClient,
+        List<String> arguments
+    ) {
+        OperationRunner operationRunner = this.operationRunners.poll();
+        if (operationRunner == null) {
+            operationRunner = new OperationRunner(environmentProperties, kuFlowRestClient);
+            // The standard output only has the result line of each operation, their own results go to the error output
+            PrintWriter err = this.spec.commandLine().getErr();
+            operationRunner.setOutput(err, err);
+        }
+
+        try {
+            return operationRunner.run(arguments);
+        } finally {
+            this.operationRunners.offer(operationRunner);
+        }
+    }
+
+    private void completeOperation(BoundedExecutor executor, int lineNumber, OperationResult result) {
+        this.printResult(lineNumber, result);
+
+        if (!result.isSuccess()) {
+            this.failedOperations.incrementAndGet();
+            if (this.failFast) {
+                // Operations in flight are interrupted, and the pending ones are not executed
+                executor.cancel();
+            }
+        }
+    }
+
+    private BufferedReader openReader() throws IOException {
+        if (this.file == null) {
+            return new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        }
+
+        return Files.newBufferedReader(this.file, StandardCharsets.UTF_8);
+    }
+
+    private List<String> parseArguments(String line) throws IOException {
+        if (this.format == BatchFormat.NDJSON) {
+            SerializerAdapter serializerAdapter = JacksonAdapter.createDefaultSerializerAdapter();
+            String[] arguments = serializerAdapter.deserialize(line, String[].class, SerializerEncoding.JSON);
+            if (arguments == null) {
+                throw new IllegalArgumentException("expected a JSON array of arguments");
+            }
+
+            return Arrays.asList(arguments);
+        }
+
+        return StringUtils.splitArguments(line);
+    }
+
+    private synchronized void printResult(int lineNumber, OperationResult result) {
+        StringBuilder output = new StringBuilder()
+            .append(lineNumber)
+            .append(RESULT_SEPARATOR)
+            .append(result.isSuccess() ? "OK" : "ERROR")
+            .append(RESULT_SEPARATOR)
+            .append(result.getOperation());
+
+        if (result.getMessage() != null) {
+            output.append(RESULT_SEPARATOR).append(result.getMessage().replaceAll("\\s+", " "));
+        }
+
+        this.spec.commandLine().getOut().println(output);
+    }
+}
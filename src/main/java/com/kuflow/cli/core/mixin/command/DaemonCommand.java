@@ -0,0 +1,229 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.mixin.command;
+
+import com.kuflow.cli.core.enumeration.CommandType;
+import com.kuflow.cli.core.mixin.command.OperationRunner.OperationResult;
+import com.kuflow.cli.core.model.EnvironmentProperties;
+import com.kuflow.cli.core.util.DaemonUtils;
+import com.kuflow.cli.core.util.ExecutorFactory;
+import com.kuflow.rest.KuFlowRestClient;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParentCommand;
+
+@Command(
+    name = CommandType.Key.DAEMON,
+    mixinStandardHelpOptions = true,
+    description = {
+        "Keep a resident process, connected to KuFlow, that executes the operations of other kuflowctl invocations.",
+        "While the daemon is running, the commands append-log and save-element-* are forwarded to it and use its configuration.",
+    }
+)
+public class DaemonCommand extends AbstractCommand implements Runnable {
+
+    private static final Logger LOGGER = LogManager.getLogger(DaemonCommand.class);
+
+    private static final int REQUEST_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * Maximum number of operations executed concurrently, further connections wait for one of them to finish.
+     */
+    private static final int MAX_CONCURRENT_OPERATIONS = 64;
+
+    @ParentCommand
+    private MainCommand mainCommand;
+
+    @Mixin
+    public LoggingMixin loggingMixin;
+
+    @Option(
+        names = "--idle-timeout",
+        description = "Minutes without operations before the daemon stops, 0 to never stop. 60 by default.",
+        defaultValue = "60"
+    )
+    private long idleTimeout = 60;
+
+    private final Queue<OperationRunner> operationRunners = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger activeConnections = new AtomicInteger();
+
+    /**
+     * Permits of the operations in flight. The executor does not bound its threads when they are virtual.
+     */
+    private final Semaphore operationPermits = new Semaphore(MAX_CONCURRENT_OPERATIONS);
+
+    @Override
+    public void run() {
+        EnvironmentProperties environmentProperties = this.mainCommand.getEnvironmentProperties();
+        KuFlowRestClient kuFlowRestClient = super.getKuFlowRestClient(environmentProperties);
+
+        String token = generateToken();
+        ExecutorService executorService = ExecutorFactory.newExecutor(MAX_CONCURRENT_OPERATIONS);
+        try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            serverSocket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, TimeUnit.MINUTES.toMillis(this.idleTimeout)));
+            DaemonUtils.writeDescriptor(serverSocket.getLocalPort(), token);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> DaemonUtils.deleteDescriptor(token)));
+
+            LOGGER.info("Daemon listening on port {}", serverSocket.getLocalPort());
+
+            while (true) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketTimeoutException e) {
+                    if (this.activeConnections.get() > 0) {
+                        // Long operations, like large uploads, keep the daemon alive
+                        continue;
+                    }
+                    LOGGER.info("Daemon idle for {} minutes, stopping", this.idleTimeout);
+                    break;
+                }
+
+                // Further connections wait in the backlog while the maximum number of operations are in flight
+                try {
+                    this.operationPermits.acquire();
+                } catch (InterruptedException e) {
+                    socket.close();
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+
+                // Each connection is handled on its own thread, so a long operation does not delay the others
+                this.activeConnections.incrementAndGet();
+                executorService.execute(() -> {
+                        try (socket) {
+                            this.handle(socket, token, environmentProperties, kuFlowRestClient);
+                        } catch (IOException e) {
+                            LOGGER.debug("Error closing a daemon connection", e);
+                        } finally {
+                            this.activeConnections.decrementAndGet();
+                            this.operationPermits.release();
+                        }
+                    });
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error running kuflowctl daemon", e);
+        } finally {
+            DaemonUtils.deleteDescriptor(token);
+            executorService.shutdown();
+            try {
+                executorService.awaitTermination(REQUEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void handle(Socket socket, String token, EnvironmentProperties environmentProperties, KuFlowRestClient kuFlowRestClient) {
+        try {
+            socket.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            output.writeInt(DaemonUtils.PROTOCOL_MAGIC);
+            output.flush();
+
+            byte[] requestToken = DaemonUtils.readString(input).getBytes(StandardCharsets.UTF_8);
+            if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), requestToken)) {
+                LOGGER.warn("Rejected connection with an invalid token");
+                return;
+            }
+
+            String workingDirectory = DaemonUtils.readString(input);
+            int argsCount = input.readInt();
+            if (argsCount < 0 || argsCount > DaemonUtils.MAX_ARGUMENTS) {
+                throw new IOException(String.format("Invalid number of arguments %d", argsCount));
+            }
+
+            List<String> args = new ArrayList<>(argsCount);
+            for (int i = 0; i < argsCount; i++) {
+                args.add(DaemonUtils.readString(input));
+            }
+
+            StringWriter out = new StringWriter();
+            StringWriter err = new StringWriter();
+            PrintWriter errWriter = new PrintWriter(err, true);
+
+            OperationRunner operationRunner = this.operationRunners.poll();
+            if (operationRunner == null) {
+                operationRunner = new OperationRunner(environmentProperties, kuFlowRestClient);
+            }
+
+            OperationResult result;
+            try {
+                operationRunner.setOutput(new PrintWriter(out, true), errWriter);
+                operationRunner.setWorkingDirectory(Paths.get(workingDirectory));
+                result = operationRunner.run(args);
+            } finally {
+                this.operationRunners.offer(operationRunner);
+            }
+            if (result.getMessage() != null) {
+                errWriter.println(result.getMessage());
+            }
+
+            LOGGER.debug("Executed {} with exit code {}", result.getOperation(), result.getExitCode());
+
+            output.writeInt(result.getExitCode());
+            DaemonUtils.writeString(output, out.toString());
+            DaemonUtils.writeString(output, err.toString());
+            output.flush();
+        } catch (IOException e) {
+            LOGGER.warn("Error handling a daemon request", e);
+        }
+    }
+
+    private static String generateToken() {
+        byte[] token = new byte[32];
+        new SecureRandom().nextBytes(token);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+}
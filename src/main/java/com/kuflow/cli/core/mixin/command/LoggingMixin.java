@@ -25,6 +25,7 @@ package com.kuflow.cli.core.mixin.command;
 import static picocli.CommandLine.Spec.Target.MIXEE;
 
 import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.core.Appender;
 import org.apache.logging.log4j.core.LoggerContext;
 import org.apache.logging.log4j.core.appender.ConsoleAppender;
@@ -36,6 +37,7 @@ import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFact
 import org.apache.logging.log4j.core.config.builder.api.LayoutComponentBuilder;
 import org.apache.logging.log4j.core.config.builder.api.RootLoggerComponentBuilder;
 import org.apache.logging.log4j.core.config.builder.impl.BuiltConfiguration;
+import org.apache.logging.log4j.simple.SimpleLoggerContextFactory;
 import picocli.CommandLine;
 import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
@@ -46,17 +48,19 @@ import picocli.CommandLine.Spec;
  * This is a mixin that adds a {@code --verbose} option to a command.
  * This class will configure Log4j2, using the specified verbosity:
  * <ul>
- *   <li>{@code -vvv} : TRACE level is enabled</li>
- *   <li>{@code -vv} : DEBUG level is enabled</li>
+ *   <li>{@code -vvv} : TRACE level is enabled, HTTP requests are logged with their textual bodies</li>
+ *   <li>{@code -vv} : DEBUG level is enabled, HTTP requests are logged with their headers</li>
  *   <li>{@code -v} : INFO level is enabled</li>
  *   <li>(not specified) : WARN level is enabled</li>
  * </ul>
  * With {@code ---silent} not logs are shown.
  * <p>
- *   Make sure that {@link #configureLoggers} is called before executing any command.
+ *   Make sure that {@link #initializeLogging} is called before any logger is created, and that {@link #configureLoggers}
+ *   is called before executing any command.
  *   This can be accomplished with:
  * </p><pre>
  * public static void main(String... args) {
+ *     LoggingMixin.initializeLogging(args);
  *     new CommandLine(new MyApp())
  *             .setExecutionStrategy(LoggingMixin::executionStrategy))
  *             .execute(args);
@@ -65,6 +69,12 @@ import picocli.CommandLine.Spec;
  */
 public class LoggingMixin {
 
+    private static final String LOGGER_CONTEXT_FACTORY_PROPERTY = "log4j2.loggerContextFactory";
+
+    private static final String SIMPLE_LOGGER_PROPERTY_PREFIX = "org.apache.logging.log4j.simplelog.";
+
+    private static final int ASYNC_BUFFER_SIZE = 8192;
+
     /**
      * This mixin is able to climb the command hierarchy because the
      * {@code @Spec(Target.MIXEE)}-annotated field gets a reference to the command where it is used.
@@ -138,15 +148,18 @@ public class LoggingMixin {
      * </ul>
      */
     public void configureLoggers() {
+        if (LogManager.getFactory() instanceof SimpleLoggerContextFactory) {
+            // Initialized with the level of the command line arguments, and nothing else to configure
+            return;
+        }
+
         Level level = getTopLevelCommandLoggingMixin(this.mixee).calculateLogLevel();
 
         LoggerContext loggerContext = LoggerContext.getContext(false);
         LoggerConfig rootConfig = loggerContext.getConfiguration().getRootLogger();
         for (Appender appender : rootConfig.getAppenders().values()) {
-            if (appender instanceof ConsoleAppender) {
-                rootConfig.removeAppender(appender.getName());
-                rootConfig.addAppender(appender, level, null);
-            }
+            rootConfig.removeAppender(appender.getName());
+            rootConfig.addAppender(appender, level, null);
         }
 
         if (rootConfig.getLevel().isMoreSpecificThan(level)) {
@@ -162,11 +175,15 @@ public class LoggingMixin {
      * @return the Log Level for the current options
      */
     private Level calculateLogLevel() {
-        if (this.getSilent()) {
+        return toLogLevel(this.getSilent(), this.getVerbosity().length);
+    }
+
+    private static Level toLogLevel(boolean silent, int verbosity) {
+        if (silent) {
             return Level.OFF;
         }
 
-        switch (this.getVerbosity().length) {
+        switch (verbosity) {
             case 0:
                 return Level.WARN;
             case 1:
@@ -179,7 +196,44 @@ public class LoggingMixin {
     }
 
     /**
-     * Reconfigure Log4j Using ConfigurationBuilder with the Configurator
+     * Initialize logging before any logger is created, with the verbosity found in the command line arguments, that are
+     * not parsed yet. When at most warnings are shown, the simple logger of the Log4j API is used, so Log4j2 and its
+     * configuration are never initialized. Otherwise Log4j2 is initialized with {@link #initializeLog4j}.
+     *
+     * @param args command line arguments
+     */
+    public static void initializeLogging(String[] args) {
+        boolean silent = false;
+        int verbosity = 0;
+        for (String arg : args) {
+            if ("-s".equals(arg) || "--silent".equals(arg)) {
+                silent = true;
+            } else if ("--no-silent".equals(arg)) {
+                silent = false;
+            } else if ("--verbose".equals(arg)) {
+                verbosity++;
+            } else if (arg.matches("-v+")) {
+                verbosity += arg.length() - 1;
+            }
+        }
+
+        Level level = toLogLevel(silent, verbosity);
+        if (level.isMoreSpecificThan(Level.WARN)) {
+            System.setProperty(LOGGER_CONTEXT_FACTORY_PROPERTY, SimpleLoggerContextFactory.class.getName());
+            System.setProperty(SIMPLE_LOGGER_PROPERTY_PREFIX + "level", level.name());
+            System.setProperty(SIMPLE_LOGGER_PROPERTY_PREFIX + "logFile", "system.out");
+            System.setProperty(SIMPLE_LOGGER_PROPERTY_PREFIX + "showdatetime", "true");
+            System.setProperty(SIMPLE_LOGGER_PROPERTY_PREFIX + "dateTimeFormat", "yyyy-MM-dd HH:mm:ss,SSS");
+            System.setProperty(SIMPLE_LOGGER_PROPERTY_PREFIX + "showShortLogname", "false");
+        } else {
+            initializeLog4j();
+        }
+    }
+
+    /**
+     * Reconfigure Log4j Using ConfigurationBuilder with the Configurator.
+     * Events are written to the console by a background thread, through a bounded ring buffer, so tracing does not
+     * slow down the requests. When the buffer is full, the threads logging wait for space, no event is lost.
      *
      * @return Initialized LoggerContext
      */
@@ -198,10 +252,16 @@ public class LoggingMixin {
             .add(layoutBuilder);
         builder.add(appenderBuilder);
 
+        AppenderComponentBuilder asyncAppenderBuilder = builder
+            .newAppender("AsyncAppender", "Async")
+            .addAttribute("bufferSize", ASYNC_BUFFER_SIZE)
+            .addComponent(builder.newAppenderRef("ConsoleAppender"));
+        builder.add(asyncAppenderBuilder);
+
         RootLoggerComponentBuilder rootLogerBuilder = builder
             .newRootLogger(Level.ERROR)
             .addAttribute("additivity", false)
-            .add(builder.newAppenderRef("ConsoleAppender").addAttribute("level", Level.WARN));
+            .add(builder.newAppenderRef("AsyncAppender").addAttribute("level", Level.WARN));
 
         builder.add(rootLogerBuilder);
 
@@ -22,28 +22,32 @@
  */
 package com.kuflow.cli.core.mixin.command;
 
-import static java.util.stream.Collectors.joining;
-
+import com.kuflow.cli.core.enumeration.HttpClientType;
+import com.kuflow.cli.core.enumeration.HttpVersion;
+import com.kuflow.cli.core.enumeration.MetricsFormat;
 import com.kuflow.cli.core.model.EnvironmentProperties;
+import com.kuflow.cli.core.model.EnvironmentProperties.CircuitBreakerProperties;
+import com.kuflow.cli.core.model.EnvironmentProperties.HttpProperties;
+import com.kuflow.cli.core.model.EnvironmentProperties.KuFlowProperties;
+import com.kuflow.cli.core.model.EnvironmentProperties.RetryProperties;
+import com.kuflow.cli.core.util.AdaptiveConcurrencyLimiter;
 import com.kuflow.cli.core.util.Constants;
+import com.kuflow.cli.core.util.EnvironmentFileCache;
+import com.kuflow.cli.core.util.Metrics;
 import com.kuflow.cli.core.util.StringUtils;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Path;
-import java.util.Arrays;
-import org.yaml.snakeyaml.Yaml;
-import org.yaml.snakeyaml.constructor.Constructor;
-import org.yaml.snakeyaml.introspector.Property;
-import org.yaml.snakeyaml.introspector.PropertyUtils;
+import java.nio.file.Paths;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import picocli.CommandLine;
 import picocli.CommandLine.ArgGroup;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.IExitCodeGenerator;
 import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.ParseResult;
 
 @Command(
     name = "kuflowctl",
@@ -53,11 +57,16 @@ import picocli.CommandLine.Option;
         SaveElementDocumentCommand.class,
         SaveElementDocumentByReferenceCommand.class,
         SaveElementFieldCommand.class,
+        SaveElementFieldBulkCommand.class,
         SaveElementPrincipalCommand.class,
+        BatchCommand.class,
+        DaemonCommand.class,
     }
 )
 public class MainCommand implements Runnable, IExitCodeGenerator {
 
+    private static final Logger LOGGER = LogManager.getLogger(MainCommand.class);
+
     @Mixin
     public LoggingMixin loggingMixin;
 
@@ -71,6 +80,96 @@ public class MainCommand implements Runnable, IExitCodeGenerator {
     )
     private URL endpoint;
 
+    @Option(names = "--max-retries", description = "Maximum number of retries of a failed request. 3 by default.")
+    private Integer maxRetries;
+
+    @Option(
+        names = "--retry-delay",
+        description = "Base delay in milliseconds of the exponential backoff between retries, half of each delay is random. " +
+        "A delay requested by KuFlow with Retry-After is honored. 800 by default."
+    )
+    private Long retryDelay;
+
+    @Option(names = "--retry-max-delay", description = "Maximum delay in milliseconds between retries. 30000 by default.")
+    private Long retryMaxDelay;
+
+    @Option(
+        names = "--timeout",
+        description = "Timeout in milliseconds of connecting, and of waiting for data while sending a request or receiving its response."
+    )
+    private Long timeout;
+
+    @Option(
+        names = "--circuit-breaker-threshold",
+        description = "Number of consecutive failed requests after which requests fail immediately for a while. Disabled by default."
+    )
+    private Integer circuitBreakerThreshold;
+
+    @Option(
+        names = "--circuit-breaker-duration",
+        description = "Time in milliseconds requests fail immediately once the circuit breaker opens. 30000 by default."
+    )
+    private Long circuitBreakerDuration;
+
+    @Option(
+        names = "--log-body-limit",
+        description = "Maximum number of bytes of the textual HTTP bodies logged with -vvv, binary bodies are never logged. " +
+        "4096 by default."
+    )
+    private Integer logBodyLimit;
+
+    @Option(
+        names = "--http-client",
+        description = "HTTP client used to connect to KuFlow, one of: ${COMPLETION-CANDIDATES}. NETTY pools HTTP/1.1 connections, " +
+        "JDK multiplexes the requests over a single HTTP/2 connection when KuFlow supports it. NETTY by default."
+    )
+    private HttpClientType httpClient;
+
+    @Option(
+        names = "--http-version",
+        description = "Preferred HTTP version with the JDK client, one of: ${COMPLETION-CANDIDATES}. HTTP_2 by default, negotiated with " +
+        "https endpoints. The NETTY client only supports HTTP_1_1."
+    )
+    private HttpVersion httpVersion;
+
+    @Option(
+        names = "--max-connections",
+        description = "Maximum number of connections to KuFlow. With the JDK client, maximum number of idle connections kept open."
+    )
+    private Integer maxConnections;
+
+    @Option(names = "--connection-idle-timeout", description = "Time in milliseconds an unused connection to KuFlow is kept open.")
+    private Long connectionIdleTimeout;
+
+    @Option(
+        names = "--socket-buffer-size",
+        description = "Size in bytes of the send and receive buffers of the sockets. Chosen by the operating system by default."
+    )
+    private Integer socketBufferSize;
+
+    private Path metricsFile;
+
+    @Option(
+        names = "--metrics-format",
+        description = "Format of the metrics file, one of: ${COMPLETION-CANDIDATES}. " +
+        "PROMETHEUS, for the node_exporter textfile collector, when the file name ends with .prom, JSON otherwise."
+    )
+    private MetricsFormat metricsFormat;
+
+    private EnvironmentProperties environmentProperties;
+
+    @Option(
+        names = "--adaptive-concurrency",
+        description = "Adapt the number of concurrent requests of the commands executing many operations to the load of KuFlow: it " +
+        "grows while the latency stays flat, and decreases with 429 or 503 responses, timeouts or a rising latency. Their parallelism " +
+        "becomes the maximum. The limit and the latency are logged with -v."
+    )
+    public void setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+        if (adaptiveConcurrency) {
+            AdaptiveConcurrencyLimiter.enable();
+        }
+    }
+
     static class EnvFileOrEnvOptions {
 
         @Option(
@@ -92,6 +191,16 @@ public class MainCommand implements Runnable, IExitCodeGenerator {
         private String clientSecret;
     }
 
+    @Option(
+        names = "--metrics",
+        description = "File where the duration of each phase of the invocation, and the status, duration and bytes sent and " +
+        "received of each HTTP request, are written when it finishes."
+    )
+    public void setMetricsFile(Path metricsFile) {
+        this.metricsFile = metricsFile;
+        Metrics.enable();
+    }
+
     @Override
     public void run() {
         new CommandLine(this).usage(System.out);
@@ -110,9 +219,56 @@ public class MainCommand implements Runnable, IExitCodeGenerator {
      *    b) Specified EnvFile
      * - 2) Environment Vars
      * - 3) Default EnvFile location
+     * The resolved configuration is kept, so commands executing many operations only resolve it once.
      * @return
      */
     public EnvironmentProperties getEnvironmentProperties() {
+        if (this.environmentProperties == null) {
+            Metrics.time(
+                Metrics.PHASE_CONFIGURATION,
+                () -> {
+                    this.environmentProperties = this.resolveEnvironmentProperties();
+                    this.applyConnectionOptions(this.environmentProperties);
+                }
+            );
+        }
+
+        return this.environmentProperties;
+    }
+
+    void setEnvironmentProperties(EnvironmentProperties environmentProperties) {
+        this.environmentProperties = environmentProperties;
+    }
+
+    /**
+     * Write the metrics requested with {@code --metrics}. Failing to write them does not change the result of the command.
+     *
+     * @param parseResult result of parsing the command line, {@code null} if it could not be parsed
+     * @param exitCode exit code of the command
+     */
+    public void writeMetrics(ParseResult parseResult, int exitCode) {
+        if (this.metricsFile == null) {
+            return;
+        }
+
+        String command = "kuflowctl";
+        for (ParseResult current = parseResult; current != null; current = current.subcommand()) {
+            command = current.commandSpec().name();
+        }
+
+        MetricsFormat format = this.metricsFormat;
+        if (format == null) {
+            format = this.metricsFile.getFileName().toString().endsWith(".prom") ? MetricsFormat.PROMETHEUS : MetricsFormat.JSON;
+        }
+
+        try {
+            Metrics.write(this.metricsFile, format, command, exitCode);
+        } catch (IOException e) {
+            LOGGER.warn("Error writing metrics file {}", this.metricsFile, e);
+        }
+    }
+
+    private EnvironmentProperties resolveEnvironmentProperties() {
         EnvironmentProperties environmentProperties = new EnvironmentProperties();
 
         // Try to load from commandline options or command line specific configuration file
@@ -154,33 +310,66 @@ public class MainCommand implements Runnable, IExitCodeGenerator {
         return environmentProperties;
     }
 
-    private EnvironmentProperties loadFromEnvironmentFile(EnvironmentProperties currentProperties, String directory, String fileName) {
-        Constructor constructor = new Constructor(EnvironmentProperties.class);
-        constructor.setPropertyUtils(
-            new PropertyUtils() {
-                @Override
-                public Property getProperty(Class<?> type, String name) {
-                    // To Camel-case
-                    name =
-                        Arrays
-                            .stream(name.split("-"))
-                            .map(s -> Character.toUpperCase(s.charAt(0)) + s.substring(1).toLowerCase())
-                            .collect(joining());
-                    // First character in lower case
-                    name = Character.toLowerCase(name.charAt(0)) + name.substring(1);
-                    return super.getProperty(type, name);
-                }
-            }
-        );
+    /**
+     * Connection options given in the command line take precedence over the ones of the resolved configuration.
+     */
+    private void applyConnectionOptions(EnvironmentProperties environmentProperties) {
+        KuFlowProperties kuflow = environmentProperties.getKuflow();
+        if (kuflow.getRetry() == null) {
+            kuflow.setRetry(new RetryProperties());
+        }
+        if (kuflow.getCircuitBreaker() == null) {
+            kuflow.setCircuitBreaker(new CircuitBreakerProperties());
+        }
+        if (kuflow.getHttp() == null) {
+            kuflow.setHttp(new HttpProperties());
+        }
 
-        Yaml yaml = new Yaml(constructor);
+        if (this.maxRetries != null) {
+            kuflow.getRetry().setMaxRetries(this.maxRetries);
+        }
+        if (this.retryDelay != null) {
+            kuflow.getRetry().setBaseDelay(this.retryDelay);
+        }
+        if (this.retryMaxDelay != null) {
+            kuflow.getRetry().setMaxDelay(this.retryMaxDelay);
+        }
+        if (this.timeout != null) {
+            kuflow.setTimeout(this.timeout);
+        }
+        if (this.circuitBreakerThreshold != null) {
+            kuflow.getCircuitBreaker().setFailureThreshold(this.circuitBreakerThreshold);
+        }
+        if (this.circuitBreakerDuration != null) {
+            kuflow.getCircuitBreaker().setOpenDuration(this.circuitBreakerDuration);
+        }
+        if (this.logBodyLimit != null) {
+            kuflow.setLogBodyLimit(this.logBodyLimit);
+        }
+        if (this.httpClient != null) {
+            kuflow.getHttp().setClient(this.httpClient);
+        }
+        if (this.httpVersion != null) {
+            kuflow.getHttp().setVersion(this.httpVersion);
+        }
+        if (this.maxConnections != null) {
+            kuflow.getHttp().setMaxConnections(this.maxConnections);
+        }
+        if (this.connectionIdleTimeout != null) {
+            kuflow.getHttp().setConnectionIdleTimeout(this.connectionIdleTimeout);
+        }
+        if (this.socketBufferSize != null) {
+            kuflow.getHttp().setSocketBufferSize(this.socketBufferSize);
+        }
+    }
 
+    private EnvironmentProperties loadFromEnvironmentFile(EnvironmentProperties currentProperties, String directory, String fileName) {
         EnvironmentProperties result = null;
-        File file = new File(directory, fileName);
-        try (InputStream inputStream = new FileInputStream(file)) {
-            result = yaml.load(inputStream);
+        Path file = Paths.get(directory, fileName);
+        try {
+            result = EnvironmentFileCache.read(file);
         } catch (IOException e) {
-            throw new RuntimeException(String.format("Error reading file %s", file.getName()), e);
+            throw new RuntimeException(String.format("Error reading file %s", file.getFileName()), e);
         }
 
         if (currentProperties != null) {
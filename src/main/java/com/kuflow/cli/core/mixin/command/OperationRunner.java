@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.mixin.command;
+
+import com.kuflow.cli.core.enumeration.CommandType;
+import com.kuflow.cli.core.model.EnvironmentProperties;
+import com.kuflow.rest.KuFlowRestClient;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.List;
+import picocli.CommandLine;
+
+/**
+ * Executes operations, expressed with the same syntax as the subcommands of {@link MainCommand}, in the current JVM.
+ * All operations share the resolved {@link EnvironmentProperties} and a single {@link KuFlowRestClient}.
+ * <p>
+ *   Instances are not thread safe, the picocli model is reused between operations.
+ * </p>
+ */
+class OperationRunner {
+
+    private final CommandLine commandLine;
+
+    private Exception lastException;
+
+    OperationRunner(EnvironmentProperties environmentProperties, KuFlowRestClient kuFlowRestClient) {
+        MainCommand mainCommand = new MainCommand();
+        mainCommand.setEnvironmentProperties(environmentProperties);
+
+        this.commandLine = new CommandLine(mainCommand);
+        this.commandLine.getCommandSpec().removeSubcommand(CommandType.Key.BATCH);
+        this.commandLine.getCommandSpec().removeSubcommand(CommandType.Key.DAEMON);
+        this.commandLine.getCommandSpec().removeSubcommand(CommandType.Key.SAVE_ELEMENT_FIELD_BULK);
+        this.commandLine.getSubcommands()
+            .values()
+            .stream()
+            .map(CommandLine::getCommand)
+            .filter(AbstractCommand.class::isInstance)
+            .forEach(command -> ((AbstractCommand) command).setKuFlowRestClient(kuFlowRestClient));
+
+        this.commandLine.setExecutionExceptionHandler((exception, commandLine, parseResult) -> {
+                this.lastException = exception;
+                return commandLine.getCommandSpec().exitCodeOnExecutionException();
+            });
+        this.commandLine.setParameterExceptionHandler((exception, args) -> {
+                this.lastException = exception;
+                return exception.getCommandLine().getCommandSpec().exitCodeOnInvalidInput();
+            });
+    }
+
+    /**
+     * Redirect the output of the following operations.
+     *
+     * @param out writer for the standard output
+     * @param err writer for the error output
+     */
+    void setOutput(PrintWriter out, PrintWriter err) {
+        this.commandLine.setOut(out);
+        this.commandLine.setErr(err);
+    }
+
+    /**
+     * Resolve relative paths of the following operations against the given directory instead of the working directory
+     * of this process.
+     *
+     * @param workingDirectory directory used to resolve relative paths
+     */
+    void setWorkingDirectory(Path workingDirectory) {
+        this.commandLine.registerConverter(Path.class, value -> workingDirectory.resolve(value));
+    }
+
+    OperationResult run(List<String> args) {
+        if (args.isEmpty() || !this.commandLine.getSubcommands().containsKey(args.get(0))) {
+            String operation = args.isEmpty() ? "" : args.get(0);
+            return new OperationResult(operation, 1, String.format("Unknown operation '%s'", operation));
+        }
+
+        this.lastException = null;
+        int exitCode = this.commandLine.execute(args.toArray(new String[0]));
+
+        return new OperationResult(args.get(0), exitCode, this.lastException != null ? describe(this.lastException) : null);
+    }
+
+    private static String describe(Exception exception) {
+        StringBuilder message = new StringBuilder();
+        for (Throwable current = exception; current != null; current = current.getCause()) {
+            if (current.getMessage() != null) {
+                if (message.length() > 0) {
+                    message.append(": ");
+                }
+                message.append(current.getMessage());
+            }
+        }
+
+        return message.toString();
+    }
+
+    static class OperationResult {
+
+        private final String operation;
+
+        private final int exitCode;
+
+        private final String message;
+
+        OperationResult(String operation, int exitCode, String message) {
+            this.operation = operation;
+            this.exitCode = exitCode;
+            this.message = message;
+        }
+
+        public String getOperation() {
+            return this.operation;
+        }
+
+        public int getExitCode() {
+            return this.exitCode;
+        }
+
+        public String getMessage() {
+            return this.message;
+        }
+
+        public boolean isSuccess() {
+            return this.exitCode == 0;
+        }
+    }
+}
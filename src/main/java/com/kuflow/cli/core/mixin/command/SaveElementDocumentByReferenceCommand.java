@@ -23,6 +23,7 @@
 package com.kuflow.cli.core.mixin.command;
 
 import com.kuflow.cli.core.enumeration.CommandType;
+import com.kuflow.rest.KuFlowRestClient;
 import com.kuflow.rest.model.TaskElementValueDocumentItem;
 import com.kuflow.rest.model.TaskSaveElementCommand;
 import java.util.List;
@@ -41,6 +42,9 @@ public class SaveElementDocumentByReferenceCommand extends AbstractCommand imple
     @Mixin
     public LoggingMixin loggingMixin;
 
+    @Mixin
+    public TaskIdsMixin taskIdsMixin;
+
     @Mixin
     public SaveElementMixin saveElementMixin;
 
@@ -68,9 +72,10 @@ public class SaveElementDocumentByReferenceCommand extends AbstractCommand imple
 
         taskSaveElementCommand.setElementValueAsDocumentList(valueDocumentItems);
 
-        super
-            .getKuFlowRestClient(this.mainCommand.getEnvironmentProperties())
-            .getTaskOperations()
-            .actionsTaskSaveElement(this.saveElementMixin.taskId, taskSaveElementCommand);
+        KuFlowRestClient kuFlowRestClient = super.getKuFlowRestClient(this.mainCommand.getEnvironmentProperties());
+
+        this.taskIdsMixin.forEachTask(taskId ->
+            kuFlowRestClient.getTaskOperations().actionsTaskSaveElement(taskId, taskSaveElementCommand)
+        );
     }
 }
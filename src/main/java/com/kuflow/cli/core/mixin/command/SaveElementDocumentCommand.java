@@ -22,28 +22,75 @@
  */
 package com.kuflow.cli.core.mixin.command;
 
-import static java.util.stream.Collectors.joining;
-
 import com.azure.core.util.BinaryData;
+import com.kuflow.cli.core.enumeration.ArchiveFormat;
 import com.kuflow.cli.core.enumeration.CommandType;
+import com.kuflow.cli.core.enumeration.SymlinkPolicy;
+import com.kuflow.cli.core.util.ArchiveWriter;
+import com.kuflow.cli.core.util.BoundedExecutor;
+import com.kuflow.cli.core.util.DocumentIndex;
+import com.kuflow.cli.core.util.FileTreeWalker;
 import com.kuflow.cli.core.util.FileUtils;
+import com.kuflow.cli.core.util.StreamingPipe;
+import com.kuflow.cli.core.util.UploadJournal;
+import com.kuflow.rest.KuFlowRestClient;
 import com.kuflow.rest.model.Document;
+import com.kuflow.rest.model.Task;
+import com.kuflow.rest.model.TaskElementValue;
+import com.kuflow.rest.model.TaskElementValueDocument;
+import com.kuflow.rest.model.TaskElementValueDocumentItem;
+import com.kuflow.rest.model.TaskSaveElementCommand;
 import com.kuflow.rest.model.TaskSaveElementValueDocumentCommand;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 import picocli.CommandLine.ParentCommand;
+import picocli.CommandLine.Spec;
 
 @Command(name = CommandType.Key.SAVE_ELEMENT_DOCUMENT, mixinStandardHelpOptions = true)
 public class SaveElementDocumentCommand extends AbstractCommand implements Runnable {
 
+    private enum UploadResult {
+        UPLOADED,
+        SKIPPED,
+        REUSED,
+    }
+
+    private static final Logger LOGGER = LogManager.getLogger(SaveElementDocumentCommand.class);
+
+    private static final String STANDARD_INPUT = "-";
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private static final int ARCHIVE_BUFFER_CHUNKS = 16;
+
+    @Spec
+    private CommandSpec spec;
+
     @ParentCommand
     private MainCommand mainCommand;
 
@@ -53,47 +100,531 @@ public class SaveElementDocumentCommand extends AbstractCommand implements Runna
     @Mixin
     public SaveElementMixin saveElementMixin;
 
+    @Option(names = { "-t", "--task-id" }, description = "Task identifier", required = true)
+    public UUID taskId;
+
     @Option(names = { "-doi", "--document-id" }, description = "Document identifier. Can be optional.", arity = "0..1")
     private Optional<UUID> documentId;
 
-    @Parameters(description = "File path to upload", arity = "1..*")
+    @Option(
+        names = { "-p", "--parallelism" },
+        description = "Maximum number of files uploaded concurrently when several files are specified. 1 by default.",
+        defaultValue = "1"
+    )
+    private int parallelism = 1;
+
+    @Option(
+        names = "--resume",
+        description = "Record the completed uploads in a journal, and skip the files already uploaded to the task element by a previous " +
+        "invocation that did not complete. The journal is deleted when all the files are uploaded."
+    )
+    private boolean resume;
+
+    @Option(
+        names = "--reuse-uploads",
+        description = "Save by reference the documents whose content was already uploaded, instead of uploading them again. The " +
+        "uploaded documents are recorded in an index in the user's home."
+    )
+    private boolean reuseUploads;
+
+    @Option(
+        names = "--file-name",
+        description = "Name of the uploaded document. Required to upload the standard input, only allowed with a single file."
+    )
+    private String fileName;
+
+    @Option(names = "--content-type", description = "Content type of the uploaded documents. Guessed by default.")
+    private String contentType;
+
+    @Option(
+        names = "--include",
+        description = "Glob of the files uploaded from directories, matched against their path relative to the directory, or their " +
+        "name when it has no '/'. All files by default. Can be repeated."
+    )
+    private List<String> includes;
+
+    @Option(
+        names = "--exclude",
+        description = "Glob of the files and directories not uploaded from directories, matched like --include. Can be repeated."
+    )
+    private List<String> excludes;
+
+    @Option(
+        names = "--max-depth",
+        description = "Maximum depth of the files uploaded from directories, 1 for the files directly in them. Unlimited by default."
+    )
+    private int maxDepth = Integer.MAX_VALUE;
+
+    @Option(
+        names = "--symlinks",
+        description = "Symbolic links found in directories, one of: ${COMPLETION-CANDIDATES}. '" +
+        SymlinkPolicy.Key.FILES +
+        "', the default, uploads the linked files without walking the linked directories.",
+        defaultValue = SymlinkPolicy.Key.FILES
+    )
+    private SymlinkPolicy symlinkPolicy = SymlinkPolicy.FILES;
+
+    @Option(
+        names = "--archive",
+        description = "Upload a directory as a single archive, one of: ${COMPLETION-CANDIDATES}. The archive is compressed while it " +
+        "is uploaded, without a temporary file. Named after the directory unless --file-name is given."
+    )
+    private ArchiveFormat archive;
+
+    @Parameters(
+        description = "File path to upload. Use '" + STANDARD_INPUT + "' to upload the standard input. Named pipes are streamed. " +
+        "The files of directories are uploaded while their tree is walked.",
+        arity = "1..*"
+    )
     private List<Path> paths;
 
+    private UploadJournal journal;
+
+    private DocumentIndex documentIndex;
+
+    private final Map<Path, String> reusedHashes = new ConcurrentHashMap<>();
+
+    /**
+     * Document values of the element that existed before the uploads or that are already bound to an uploaded file.
+     */
+    private final Set<UUID> boundDocumentIds = new HashSet<>();
+
     @Override
     public void run() {
-        List<Path> invalidFiles = this.paths.stream().filter(p -> Files.isDirectory(p)).collect(Collectors.toList());
+        // Batch and the daemon run every operation with the same instance, the state of the previous one is discarded
+        this.journal = null;
+        this.documentIndex = null;
+        this.reusedHashes.clear();
+        this.boundDocumentIds.clear();
+
+        if (this.archive != null && (this.paths.size() > 1 || !isDirectory(this.paths.get(0)))) {
+            throw new RuntimeException("An archive can only be uploaded from a single directory.");
+        }
 
-        if (!invalidFiles.isEmpty()) {
-            String invalidPaths = invalidFiles.stream().map(p -> p.toString()).collect(joining(", "));
-            throw new RuntimeException(String.format("Directories are not supported, specify file paths. [%s]", invalidPaths));
+        if (this.archive != null && (this.resume || this.reuseUploads)) {
+            throw new RuntimeException("Resuming or reusing uploads is not supported with archives.");
         }
 
-        boolean isMultiple = this.paths.size() > 1;
+        boolean isMultiple =
+            this.archive == null && (this.paths.size() > 1 || this.paths.stream().anyMatch(SaveElementDocumentCommand::isDirectory));
+
+        if (this.fileName != null && isMultiple) {
+            throw new RuntimeException("A file name can only be specified when uploading a single file.");
+        }
+
+        if (this.fileName == null && this.paths.stream().anyMatch(SaveElementDocumentCommand::isStandardInput)) {
+            throw new RuntimeException("A file name must be specified to upload the standard input.");
+        }
+
+        if (this.parallelism < 1) {
+            throw new RuntimeException(String.format("Parallelism must be greater than zero. [%d]", this.parallelism));
+        }
+
+        if (this.maxDepth < 1) {
+            throw new RuntimeException(String.format("Max depth must be greater than zero. [%d]", this.maxDepth));
+        }
+
+        KuFlowRestClient kuFlowRestClient = super.getKuFlowRestClient(this.mainCommand.getEnvironmentProperties());
+        this.journal = this.openJournal();
+        this.documentIndex = this.openDocumentIndex();
+        if (this.documentIndex != null) {
+            Task task = kuFlowRestClient.getTaskOperations().retrieveTask(this.taskId);
+            this.getDocumentValues(task).forEach(documentValue -> this.boundDocumentIds.add(documentValue.getValue().getId()));
+        }
+
+        if (this.archive != null) {
+            Path path = this.paths.get(0);
+            try {
+                this.uploadArchive(path);
+            } catch (Exception e) {
+                throw new RuntimeException(String.format("Unable to upload directory: %s", path), e);
+            }
+
+            return;
+        }
 
-        this.paths.stream()
-            .forEach(p -> {
+        if (!isMultiple) {
+            Path path = this.paths.get(0);
+            try {
+                this.uploadFile(kuFlowRestClient, path, false);
+                this.saveReusedDocuments(kuFlowRestClient, false);
+            } catch (Exception e) {
+                throw new RuntimeException(String.format("Unable to upload file: %s", path), e);
+            }
+
+            this.deleteJournal();
+
+            return;
+        }
+
+        AtomicInteger files = new AtomicInteger();
+        AtomicInteger failedUploads = new AtomicInteger();
+        try (BoundedExecutor executor = new BoundedExecutor(this.parallelism)) {
+            Consumer<Path> uploader = path -> {
+                files.incrementAndGet();
+                executor
+                    .submit(() -> this.uploadFile(kuFlowRestClient, path, true))
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            failedUploads.incrementAndGet();
+                            this.printResult("ERROR", path, e.getMessage());
+                        } else if (result != UploadResult.REUSED) {
+                            // Reused documents are reported once they are saved by reference
+                            this.printResult(result == UploadResult.UPLOADED ? "OK" : "SKIPPED", path, null);
+                        }
+                    });
+            };
+            BiConsumer<Path, IOException> walkErrorHandler = (path, e) -> {
+                files.incrementAndGet();
+                failedUploads.incrementAndGet();
+                this.printResult("ERROR", path, String.format("Unable to read: %s", e.getMessage()));
+            };
+
+            FileTreeWalker walker = new FileTreeWalker(this.includes, this.excludes, this.maxDepth, this.symlinkPolicy);
+            for (Path path : this.paths) {
+                if (!isDirectory(path)) {
+                    uploader.accept(path);
+                    continue;
+                }
+
+                // Uploads start while the tree is walked, the walk waits while all the upload slots are busy
                 try {
-                    this.uploadFile(p, isMultiple);
-                } catch (Exception e) {
-                    throw new RuntimeException(String.format("Unable to upload file: %s", p), e);
+                    walker.walk(path, uploader, walkErrorHandler);
+                } catch (IOException e) {
+                    walkErrorHandler.accept(path, e);
                 }
-            });
+            }
+        }
+
+        try {
+            failedUploads.addAndGet(this.saveReusedDocuments(kuFlowRestClient, true));
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to save the reused documents", e);
+        }
+
+        if (failedUploads.get() > 0) {
+            throw new RuntimeException(String.format("Unable to upload %d of %d files", failedUploads.get(), files.get()));
+        }
+
+        this.deleteJournal();
+    }
+
+    private UploadJournal openJournal() {
+        if (!this.resume) {
+            return null;
+        }
+
+        try {
+            return UploadJournal.open(this.taskId, this.saveElementMixin.elementCode);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read the upload journal", e);
+        }
     }
 
-    private void uploadFile(Path fileToUpload, boolean isMultiple) throws Exception {
+    private void deleteJournal() {
+        if (this.journal == null) {
+            return;
+        }
+
+        try {
+            this.journal.delete();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete the upload journal", e);
+        }
+    }
+
+    private DocumentIndex openDocumentIndex() {
+        if (!this.reuseUploads) {
+            return null;
+        }
+
+        try {
+            return DocumentIndex.open(this.mainCommand.getEnvironmentProperties().getKuflow().getClientId());
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read the document index", e);
+        }
+    }
+
+    private void printResult(String status, Path path, String message) {
+        String line = message != null ? String.format("%s\t%s\t%s", status, path, message) : String.format("%s\t%s", status, path);
+        this.spec.commandLine().getOut().println(line);
+    }
+
+    /**
+     * Upload a file. Files already uploaded by a previous invocation are skipped when they are in the journal, and
+     * deferred to be saved by reference when they are in the document index. Transient errors are retried by the
+     * client, which sends the content of regular files again. Streams are sent once, by a client that does not retry.
+     */
+    private UploadResult uploadFile(KuFlowRestClient kuFlowRestClient, Path fileToUpload, boolean isMultiple) throws Exception {
         TaskSaveElementValueDocumentCommand command = new TaskSaveElementValueDocumentCommand();
         command.setElementDefinitionCode(this.saveElementMixin.elementCode);
         command.setElementValueId((isMultiple) ? null : this.documentId.orElse(null));
         command.setElementValueValid(this.saveElementMixin.valid);
 
-        BinaryData file = BinaryData.fromFile(fileToUpload);
-        Document document = new Document().setFileContent(file);
-        document.setFileName(fileToUpload.getFileName().toString());
-        document.setContentType(FileUtils.guessMimeType(fileToUpload));
+        if (Files.isRegularFile(fileToUpload)) {
+            String hash = this.journal != null || this.documentIndex != null ? FileUtils.sha256(fileToUpload) : null;
+            if (this.journal != null && this.journal.isCompleted(hash, fileToUpload)) {
+                return UploadResult.SKIPPED;
+            }
+
+            if (this.documentIndex != null && this.documentIndex.find(hash) != null) {
+                this.reusedHashes.put(fileToUpload, hash);
+
+                return UploadResult.REUSED;
+            }
+
+            String fileName = this.getFileName(fileToUpload);
+            String contentType = this.contentType != null ? this.contentType : FileUtils.guessMimeType(fileToUpload);
+            Task task = this.uploadDocument(kuFlowRestClient, command, BinaryData.fromFile(fileToUpload), fileName, contentType);
+
+            if (this.documentIndex != null) {
+                String uri = this.findUploadedUri(task, command.getElementValueId(), fileName, Files.size(fileToUpload));
+                if (uri != null) {
+                    this.documentIndex.put(hash, uri);
+                }
+            }
+
+            if (this.journal != null) {
+                this.journal.markCompleted(hash, fileToUpload);
+            }
+
+            return UploadResult.UPLOADED;
+        }
+
+        // Standard input and named pipes are streamed, they can be read only once and their size is unknown
+        KuFlowRestClient singleAttemptClient = super.getSingleAttemptKuFlowRestClient(this.mainCommand.getEnvironmentProperties());
+        try (InputStream inputStream = openStream(fileToUpload)) {
+            String fileName = this.getFileName(fileToUpload);
+            String contentType = this.contentType != null ? this.contentType : FileUtils.guessMimeType(fileName, inputStream);
+            this.uploadDocument(singleAttemptClient, command, BinaryData.fromStream(inputStream), fileName, contentType);
+        }
+
+        return UploadResult.UPLOADED;
+    }
+
+    /**
+     * Upload a directory as a single archive, written by another thread while it is sent, through a bounded pipe. The
+     * upload can not be retried, as the archive is not kept, so it is sent by a client that does not retry.
+     */
+    private void uploadArchive(Path directory) throws Exception {
+        TaskSaveElementValueDocumentCommand command = new TaskSaveElementValueDocumentCommand();
+        command.setElementDefinitionCode(this.saveElementMixin.elementCode);
+        command.setElementValueId(this.documentId.orElse(null));
+        command.setElementValueValid(this.saveElementMixin.valid);
+
+        String fileName = this.fileName != null ? this.fileName : getArchiveName(directory, this.archive);
+        String contentType = this.contentType != null ? this.contentType : ArchiveWriter.getContentType(this.archive);
+        FileTreeWalker walker = new FileTreeWalker(this.includes, this.excludes, this.maxDepth, this.symlinkPolicy);
+        ArchiveWriter archiveWriter = new ArchiveWriter(this.archive, walker);
+        StreamingPipe pipe = new StreamingPipe(STREAM_BUFFER_SIZE, ARCHIVE_BUFFER_CHUNKS);
+
+        try (BoundedExecutor executor = new BoundedExecutor(1)) {
+            CompletableFuture<Integer> archiving = executor.submit(() -> {
+                try {
+                    return archiveWriter.write(directory, pipe.getOutputStream());
+                } catch (Throwable e) {
+                    pipe.fail(e);
+                    throw e;
+                }
+            });
+
+            KuFlowRestClient kuFlowRestClient = super.getSingleAttemptKuFlowRestClient(this.mainCommand.getEnvironmentProperties());
+            try (InputStream inputStream = pipe.getInputStream()) {
+                this.uploadDocument(kuFlowRestClient, command, BinaryData.fromStream(inputStream), fileName, contentType);
+            } catch (RuntimeException e) {
+                // The upload fails when the archive can not be written, report why
+                if (pipe.getFailure() != null) {
+                    throw new RuntimeException(pipe.getFailure().getMessage(), pipe.getFailure());
+                }
+                throw e;
+            }
+
+            LOGGER.info("Uploaded {} files of {} as {}", archiving.join(), directory, fileName);
+        }
+    }
+
+    private static String getArchiveName(Path directory, ArchiveFormat format) {
+        Path name = directory.toAbsolutePath().normalize().getFileName();
+
+        return (name != null ? name.toString() : "archive") + ArchiveWriter.getExtension(format);
+    }
+
+    /**
+     * Save by reference the documents found in the index, with a single request that keeps the current documents of
+     * the element. If the references can not be saved, the documents are forgotten by the index and uploaded.
+     *
+     * @return the number of files that could not be uploaded, only when several files are uploaded
+     */
+    private int saveReusedDocuments(KuFlowRestClient kuFlowRestClient, boolean isMultiple) throws Exception {
+        List<Path> reusedPaths = this.reusedHashes.keySet().stream().sorted().collect(Collectors.toList());
+        if (reusedPaths.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            this.saveByReference(kuFlowRestClient, reusedPaths, isMultiple);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to save the documents by reference, uploading them: {}", e.getMessage());
+            this.documentIndex.remove(this.reusedHashes.values());
+            this.reusedHashes.clear();
+
+            int failedUploads = 0;
+            for (Path path : reusedPaths) {
+                if (!isMultiple) {
+                    this.uploadFile(kuFlowRestClient, path, false);
+                    continue;
+                }
+
+                try {
+                    this.uploadFile(kuFlowRestClient, path, true);
+                    this.printResult("OK", path, null);
+                } catch (Exception uploadException) {
+                    failedUploads++;
+                    this.printResult("ERROR", path, uploadException.getMessage());
+                }
+            }
+
+            return failedUploads;
+        }
+
+        for (Path path : reusedPaths) {
+            if (this.journal != null) {
+                this.journal.markCompleted(this.reusedHashes.get(path), path);
+            }
+            if (isMultiple) {
+                this.printResult("REUSED", path, null);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Save the reused documents by reference. KuFlow only saves the whole list of values of an element, so the current
+     * documents are read and sent back, each one with its own valid flag, followed by the reused documents.
+     * <p>
+     *   The read and the save are not atomic: a document saved to the element by another client in between, like
+     *   another kuflowctl invocation, is lost. The uploads of this invocation are completed before, so they are kept.
+     * </p>
+     */
+    private void saveByReference(KuFlowRestClient kuFlowRestClient, List<Path> reusedPaths, boolean isMultiple) {
+        Task task = kuFlowRestClient.getTaskOperations().retrieveTask(this.taskId);
+        UUID replacedId = (isMultiple) ? null : this.documentId.orElse(null);
+
+        List<TaskElementValue> elementValues = new ArrayList<>();
+        for (TaskElementValueDocument currentValue : this.getDocumentValues(task)) {
+            if (replacedId == null || !replacedId.equals(currentValue.getValue().getId())) {
+                elementValues.add(newDocumentValue(currentValue.getValue().getUri(), currentValue.getValid()));
+            }
+        }
+        for (Path path : reusedPaths) {
+            elementValues.add(newDocumentValue(this.documentIndex.find(this.reusedHashes.get(path)), this.saveElementMixin.valid));
+        }
+
+        TaskSaveElementCommand taskSaveElementCommand = new TaskSaveElementCommand();
+        taskSaveElementCommand.setElementDefinitionCode(this.saveElementMixin.elementCode);
+        taskSaveElementCommand.setElementValues(elementValues);
+
+        kuFlowRestClient.getTaskOperations().actionsTaskSaveElement(this.taskId, taskSaveElementCommand);
+    }
+
+    private static TaskElementValueDocument newDocumentValue(String uri, Boolean valid) {
+        TaskElementValueDocumentItem valueDocumentItem = new TaskElementValueDocumentItem();
+        valueDocumentItem.setUri(uri);
+
+        TaskElementValueDocument documentValue = new TaskElementValueDocument();
+        documentValue.setValue(valueDocumentItem);
+        documentValue.setValid(valid);
+
+        return documentValue;
+    }
+
+    /**
+     * Find the URI of an uploaded document in the task returned by the upload. A replaced document is found by its
+     * element value identifier. Otherwise the uploaded document is the only new element value, not bound to another
+     * upload, with the name and size of the file. When several of them match, like with concurrent uploads of files
+     * with the same name and size, none is bound and the document is not indexed.
+     */
+    private String findUploadedUri(Task task, UUID elementValueId, String fileName, long contentLength) {
+        List<TaskElementValueDocumentItem> candidates = new ArrayList<>();
+        synchronized (this.boundDocumentIds) {
+            for (TaskElementValueDocument documentValue : this.getDocumentValues(task)) {
+                TaskElementValueDocumentItem valueDocumentItem = documentValue.getValue();
+                if (elementValueId != null) {
+                    if (elementValueId.equals(valueDocumentItem.getId())) {
+                        candidates.add(valueDocumentItem);
+                    }
+                } else if (valueDocumentItem.getId() != null && !this.boundDocumentIds.contains(valueDocumentItem.getId())) {
+                    if (matchesUploadedFile(valueDocumentItem, fileName, contentLength)) {
+                        candidates.add(valueDocumentItem);
+                    }
+                }
+            }
+
+            if (candidates.size() != 1) {
+                LOGGER.debug("Uploaded document {} not indexed, {} element values match it", fileName, candidates.size());
+
+                return null;
+            }
+
+            this.boundDocumentIds.add(candidates.get(0).getId());
+        }
+
+        return candidates.get(0).getUri();
+    }
+
+    private static boolean matchesUploadedFile(TaskElementValueDocumentItem valueDocumentItem, String fileName, long contentLength) {
+        return fileName.equals(valueDocumentItem.getName()) && Long.valueOf(contentLength).equals(valueDocumentItem.getContentLength());
+    }
+
+    private List<TaskElementValueDocument> getDocumentValues(Task task) {
+        if (task == null || task.getElementValues() == null) {
+            return Collections.emptyList();
+        }
+
+        List<TaskElementValue> elementValues = task.getElementValues().get(this.saveElementMixin.elementCode);
+        if (elementValues == null) {
+            return Collections.emptyList();
+        }
+
+        return elementValues
+            .stream()
+            .filter(elementValue -> elementValue instanceof TaskElementValueDocument)
+            .map(elementValue -> (TaskElementValueDocument) elementValue)
+            .filter(documentValue -> documentValue.getValue() != null)
+            .collect(Collectors.toList());
+    }
+
+    private Task uploadDocument(
+        KuFlowRestClient kuFlowRestClient,
+        TaskSaveElementValueDocumentCommand command,
+        BinaryData content,
+        String fileName,
+        String contentType
+    ) {
+        Document document = new Document().setFileContent(content);
+        document.setFileName(fileName);
+        document.setContentType(contentType);
+
+        return kuFlowRestClient.getTaskOperations().actionsTaskSaveElementValueDocument(this.taskId, command, document);
+    }
+
+    private String getFileName(Path fileToUpload) {
+        return this.fileName != null ? this.fileName : fileToUpload.getFileName().toString();
+    }
+
+    private static InputStream openStream(Path fileToUpload) throws Exception {
+        // Channel based streams seek to compute the available bytes, which is not supported by pipes
+        InputStream inputStream = isStandardInput(fileToUpload) ? System.in : new FileInputStream(fileToUpload.toFile());
+
+        return new BufferedInputStream(inputStream, STREAM_BUFFER_SIZE);
+    }
+
+    private static boolean isDirectory(Path path) {
+        return !isStandardInput(path) && Files.isDirectory(path);
+    }
 
-        super
-            .getKuFlowRestClient(this.mainCommand.getEnvironmentProperties())
-            .getTaskOperations()
-            .actionsTaskSaveElementValueDocument(this.saveElementMixin.taskId, command, document);
+    private static boolean isStandardInput(Path path) {
+        return STANDARD_INPUT.equals(path.toString());
     }
 }
@@ -0,0 +1,451 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.mixin.command;
+
+import com.azure.core.util.serializer.JacksonAdapter;
+import com.azure.core.util.serializer.SerializerAdapter;
+import com.azure.core.util.serializer.SerializerEncoding;
+import com.kuflow.cli.core.enumeration.BulkFormat;
+import com.kuflow.cli.core.enumeration.CommandType;
+import com.kuflow.cli.core.model.ElementFieldRow;
+import com.kuflow.cli.core.util.BoundedExecutor;
+import com.kuflow.cli.core.util.CsvReader;
+import com.kuflow.cli.core.util.StringUtils;
+import com.kuflow.rest.KuFlowRestClient;
+import com.kuflow.rest.model.TaskSaveElementCommand;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.IExitCodeGenerator;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParentCommand;
+import picocli.CommandLine.Spec;
+
+@Command(
+    name = CommandType.Key.SAVE_ELEMENT_FIELD_BULK,
+    mixinStandardHelpOptions = true,
+    description = {
+        "Save the values of task element fields of many tasks, read from a CSV or NDJSON input with a row per field.",
+        "CSV input starts with a header naming its columns: task-id, element-code, valid (optional, true by default) and one or " +
+        "more value columns.",
+        "NDJSON rows are objects like: {\"taskId\": \"<id>\", \"elementCode\": \"<code>\", \"values\": [\"<value>\"], \"valid\": true}.",
+        "A result line is written per row: <line number> <OK|ERROR> <task id> <element code> [<error message>].",
+    }
+)
+public class SaveElementFieldBulkCommand extends AbstractCommand implements Runnable, IExitCodeGenerator {
+
+    private static final String RESULT_SEPARATOR = "\t";
+
+    private static final String COLUMN_TASK_ID = "task-id";
+
+    private static final String COLUMN_ELEMENT_CODE = "element-code";
+
+    private static final String COLUMN_VALID = "valid";
+
+    private static final String COLUMN_VALUE = "value";
+
+    @Spec
+    private CommandSpec spec;
+
+    @ParentCommand
+    private MainCommand mainCommand;
+
+    @Mixin
+    public LoggingMixin loggingMixin;
+
+    @Option(names = { "-f", "--file" }, description = "File with the rows. Standard input by default.")
+    private Path file;
+
+    @Option(
+        names = "--format",
+        description = "Input format, one of: ${COMPLETION-CANDIDATES}. '" + BulkFormat.Key.CSV + "' by default.",
+        defaultValue = BulkFormat.Key.CSV
+    )
+    private BulkFormat format = BulkFormat.CSV;
+
+    @Option(
+        names = { "-p", "--parallelism" },
+        description = "Maximum number of rows saved concurrently, results are written as they complete. Rows of the same task " +
+        "element may then be saved in any order. 1 by default.",
+        defaultValue = "1"
+    )
+    private int parallelism = 1;
+
+    @Option(names = { "-o", "--output" }, description = "File where the results are written. Standard output by default.")
+    private Path output;
+
+    @Option(
+        names = "--rejected",
+        description = "File where the rows that could not be saved are written, in the input format, to replay them once fixed."
+    )
+    private Path rejected;
+
+    private final AtomicInteger failedRows = new AtomicInteger();
+
+    @Override
+    public void run() {
+        if (this.parallelism < 1) {
+            throw new RuntimeException(String.format("Parallelism must be greater than zero. [%d]", this.parallelism));
+        }
+
+        KuFlowRestClient kuFlowRestClient = super.getKuFlowRestClient(this.mainCommand.getEnvironmentProperties());
+
+        // The executor is closed first, so the results of the rows in flight are written before closing the files
+        try (
+            RowReader rowReader = this.openRowReader();
+            Results results = new Results(rowReader.getHeader());
+            BoundedExecutor executor = new BoundedExecutor(this.parallelism)
+        ) {
+            Row row;
+            while ((row = rowReader.read()) != null) {
+                if (row.error != null) {
+                    results.complete(row, String.format("Invalid row: %s", row.error));
+                    continue;
+                }
+
+                TaskSaveElementCommand taskSaveElementCommand = new TaskSaveElementCommand();
+                taskSaveElementCommand.setElementDefinitionCode(row.elementCode);
+                taskSaveElementCommand.setElementValueAsStringList(row.values);
+                taskSaveElementCommand.setElementValueValid(row.valid);
+
+                Row savedRow = row;
+                executor
+                    .submit(() -> kuFlowRestClient.getTaskOperations().actionsTaskSaveElement(savedRow.taskId, taskSaveElementCommand))
+                    .whenComplete((task, e) -> results.complete(savedRow, e != null ? e.getMessage() : null));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Error processing bulk rows: %s", e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return this.failedRows.get() > 0 ? 1 : 0;
+    }
+
+    private RowReader openRowReader() throws IOException {
+        BufferedReader reader = (this.file == null)
+            ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+            : Files.newBufferedReader(this.file, StandardCharsets.UTF_8);
+
+        try {
+            return (this.format == BulkFormat.CSV) ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Validate the values of a row, the error of an invalid row is kept to report it.
+     */
+    private static Row toRow(int lineNumber, String source, ElementFieldRow fields) {
+        Row row = new Row(lineNumber, source);
+        if (fields == null) {
+            row.error = "expected an object";
+
+            return row;
+        }
+
+        row.elementCode = fields.getElementCode();
+        if (StringUtils.isBlank(fields.getTaskId())) {
+            row.error = "the task id is required";
+        } else if (StringUtils.isBlank(row.elementCode)) {
+            row.error = "the element code is required";
+        } else {
+            try {
+                row.taskId = UUID.fromString(fields.getTaskId().trim());
+            } catch (IllegalArgumentException e) {
+                row.error = String.format("invalid task id '%s'", fields.getTaskId());
+            }
+        }
+        row.values = fields.getValues() != null ? fields.getValues() : Collections.emptyList();
+        row.valid = fields.getValid() != null ? fields.getValid() : true;
+
+        return row;
+    }
+
+    private static final class Row {
+
+        private final int lineNumber;
+
+        /**
+         * Row as read, written again when the row is rejected.
+         */
+        private final String source;
+
+        private UUID taskId;
+
+        private String elementCode;
+
+        private List<String> values;
+
+        private boolean valid;
+
+        private String error;
+
+        private Row(int lineNumber, String source) {
+            this.lineNumber = lineNumber;
+            this.source = source;
+        }
+    }
+
+    private interface RowReader extends Closeable {
+        /**
+         * @return the next row, or null at the end of the input
+         */
+        Row read() throws IOException;
+
+        /**
+         * @return the header written before the rejected rows, or null
+         */
+        String getHeader();
+    }
+
+    private static final class CsvRowReader implements RowReader {
+
+        private final CsvReader csvReader;
+
+        private final String header;
+
+        private final List<Integer> valueColumns = new ArrayList<>();
+
+        private int taskIdColumn = -1;
+
+        private int elementCodeColumn = -1;
+
+        private int validColumn = -1;
+
+        private CsvRowReader(BufferedReader reader) throws IOException {
+            this.csvReader = new CsvReader(reader);
+
+            List<String> columns = this.csvReader.readRecord();
+            if (columns == null) {
+                throw new IOException("The CSV input is empty, a header is expected");
+            }
+
+            for (int i = 0; i < columns.size(); i++) {
+                String column = columns.get(i).trim().toLowerCase(Locale.ROOT);
+                if (column.equals(COLUMN_TASK_ID)) {
+                    this.taskIdColumn = i;
+                } else if (column.equals(COLUMN_ELEMENT_CODE)) {
+                    this.elementCodeColumn = i;
+                } else if (column.equals(COLUMN_VALID)) {
+                    this.validColumn = i;
+                } else if (column.equals(COLUMN_VALUE)) {
+                    this.valueColumns.add(i);
+                } else {
+                    throw new IOException(String.format("Unknown CSV column '%s'", columns.get(i)));
+                }
+            }
+
+            if (this.taskIdColumn < 0 || this.elementCodeColumn < 0) {
+                throw new IOException(String.format("The CSV header must have '%s' and '%s' columns", COLUMN_TASK_ID, COLUMN_ELEMENT_CODE));
+            }
+
+            this.header = CsvReader.formatRecord(columns);
+        }
+
+        @Override
+        public Row read() throws IOException {
+            List<String> record;
+            do {
+                record = this.csvReader.readRecord();
+            } while (record != null && record.stream().allMatch(StringUtils::isBlank));
+
+            if (record == null) {
+                return null;
+            }
+
+            ElementFieldRow fields = new ElementFieldRow();
+            fields.setTaskId(getField(record, this.taskIdColumn));
+            fields.setElementCode(getField(record, this.elementCodeColumn));
+            List<String> values = new ArrayList<>();
+            for (int valueColumn : this.valueColumns) {
+                String value = getField(record, valueColumn);
+                if (!StringUtils.isEmpty(value)) {
+                    values.add(value);
+                }
+            }
+            fields.setValues(values);
+
+            String valid = getField(record, this.validColumn);
+            boolean isValidBoolean = valid != null && (valid.trim().equalsIgnoreCase("true") || valid.trim().equalsIgnoreCase("false"));
+            fields.setValid(isValidBoolean ? Boolean.valueOf(valid.trim()) : null);
+
+            Row row = toRow(this.csvReader.getRecordLineNumber(), CsvReader.formatRecord(record), fields);
+            if (row.error == null && !isValidBoolean && !StringUtils.isBlank(valid)) {
+                row.error = String.format("invalid valid '%s', expected true or false", valid);
+            }
+
+            return row;
+        }
+
+        @Override
+        public String getHeader() {
+            return this.header;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.csvReader.close();
+        }
+
+        private static String getField(List<String> record, int column) {
+            return column >= 0 && column < record.size() ? record.get(column) : null;
+        }
+    }
+
+    private static final class NdjsonRowReader implements RowReader {
+
+        private final SerializerAdapter serializerAdapter = JacksonAdapter.createDefaultSerializerAdapter();
+
+        private final BufferedReader reader;
+
+        private int lineNumber;
+
+        private NdjsonRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row read() throws IOException {
+            String line;
+            do {
+                line = this.reader.readLine();
+                this.lineNumber++;
+            } while (line != null && StringUtils.isBlank(line));
+
+            if (line == null) {
+                return null;
+            }
+
+            try {
+                ElementFieldRow fields = this.serializerAdapter.deserialize(line, ElementFieldRow.class, SerializerEncoding.JSON);
+
+                return toRow(this.lineNumber, line, fields);
+            } catch (IOException e) {
+                Row row = new Row(this.lineNumber, line);
+                row.error = e.getMessage();
+
+                return row;
+            }
+        }
+
+        @Override
+        public String getHeader() {
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.reader.close();
+        }
+    }
+
+    /**
+     * Writes a result line per row, and the rejected rows, as the rows complete.
+     */
+    private final class Results implements Closeable {
+
+        private final PrintWriter output;
+
+        private final PrintWriter rejected;
+
+        private Results(String header) throws IOException {
+            PrintWriter rejected = null;
+            if (SaveElementFieldBulkCommand.this.rejected != null) {
+                rejected = new PrintWriter(Files.newBufferedWriter(SaveElementFieldBulkCommand.this.rejected, StandardCharsets.UTF_8));
+                if (header != null) {
+                    rejected.println(header);
+                }
+            }
+            this.rejected = rejected;
+
+            try {
+                this.output =
+                    (SaveElementFieldBulkCommand.this.output != null)
+                        ? new PrintWriter(Files.newBufferedWriter(SaveElementFieldBulkCommand.this.output, StandardCharsets.UTF_8))
+                        : null;
+            } catch (IOException e) {
+                if (this.rejected != null) {
+                    this.rejected.close();
+                }
+                throw e;
+            }
+        }
+
+        private synchronized void complete(Row row, String errorMessage) {
+            StringBuilder line = new StringBuilder()
+                .append(row.lineNumber)
+                .append(RESULT_SEPARATOR)
+                .append(errorMessage == null ? "OK" : "ERROR")
+                .append(RESULT_SEPARATOR)
+                .append(row.taskId != null ? row.taskId.toString() : "")
+                .append(RESULT_SEPARATOR)
+                .append(row.elementCode != null ? row.elementCode : "");
+
+            if (errorMessage != null) {
+                line.append(RESULT_SEPARATOR).append(errorMessage.replaceAll("\\s+", " "));
+                SaveElementFieldBulkCommand.this.failedRows.incrementAndGet();
+                if (this.rejected != null) {
+                    this.rejected.println(row.source);
+                }
+            }
+
+            PrintWriter writer = this.output != null ? this.output : SaveElementFieldBulkCommand.this.spec.commandLine().getOut();
+            writer.println(line);
+        }
+
+        @Override
+        public void close() throws IOException {
+            boolean error = false;
+            if (this.output != null) {
+                this.output.close();
+                error = this.output.checkError();
+            }
+            if (this.rejected != null) {
+                this.rejected.close();
+                error |= this.rejected.checkError();
+            }
+
+            if (error) {
+                throw new IOException("Unable to write the results");
+            }
+        }
+    }
+}
@@ -23,6 +23,7 @@
 package com.kuflow.cli.core.mixin.command;
 
 import com.kuflow.cli.core.enumeration.CommandType;
+import com.kuflow.rest.KuFlowRestClient;
 import com.kuflow.rest.model.TaskSaveElementCommand;
 import java.util.List;
 import picocli.CommandLine.Command;
@@ -39,6 +40,9 @@ public class SaveElementFieldCommand extends AbstractCommand implements Runnable
     @Mixin
     public LoggingMixin loggingMixin;
 
+    @Mixin
+    public TaskIdsMixin taskIdsMixin;
+
     @Mixin
     public SaveElementMixin saveElementMixin;
 
@@ -56,9 +60,10 @@ public class SaveElementFieldCommand extends AbstractCommand implements Runnable
         taskSaveElementCommand.setElementValueAsStringList(this.values);
         taskSaveElementCommand.setElementValueValid(this.saveElementMixin.valid);
 
-        super
-            .getKuFlowRestClient(this.mainCommand.getEnvironmentProperties())
-            .getTaskOperations()
-            .actionsTaskSaveElement(this.saveElementMixin.taskId, taskSaveElementCommand);
+        KuFlowRestClient kuFlowRestClient = super.getKuFlowRestClient(this.mainCommand.getEnvironmentProperties());
+
+        this.taskIdsMixin.forEachTask(taskId ->
+            kuFlowRestClient.getTaskOperations().actionsTaskSaveElement(taskId, taskSaveElementCommand)
+        );
     }
 }
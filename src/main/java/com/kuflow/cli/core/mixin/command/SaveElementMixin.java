@@ -22,14 +22,10 @@
  */
 package com.kuflow.cli.core.mixin.command;
 
-import java.util.UUID;
 import picocli.CommandLine.Option;
 
 public class SaveElementMixin {
 
-    @Option(names = { "-t", "--task-id" }, description = "Task identifier", required = true)
-    public UUID taskId;
-
     @Option(names = { "-e", "--element-code" }, description = "Task element code", required = true)
     public String elementCode;
 
@@ -25,6 +25,7 @@ package com.kuflow.cli.core.mixin.command;
 import static java.util.stream.Collectors.joining;
 
 import com.kuflow.cli.core.enumeration.CommandType;
+import com.kuflow.rest.KuFlowRestClient;
 import com.kuflow.rest.model.PrincipalType;
 import com.kuflow.rest.model.TaskElementValuePrincipalItem;
 import com.kuflow.rest.model.TaskSaveElementCommand;
@@ -51,6 +52,9 @@ public class SaveElementPrincipalCommand extends AbstractCommand implements Runn
     @Mixin
     public LoggingMixin loggingMixin;
 
+    @Mixin
+    public TaskIdsMixin taskIdsMixin;
+
     @Mixin
     public SaveElementMixin saveElementMixin;
 
@@ -68,10 +72,11 @@ public class SaveElementPrincipalCommand extends AbstractCommand implements Runn
         taskSaveElementCommand.setElementValueValid(this.saveElementMixin.valid);
         taskSaveElementCommand.setElementValueAsPrincipalList(this.values);
 
-        super
-            .getKuFlowRestClient(this.mainCommand.getEnvironmentProperties())
-            .getTaskOperations()
-            .actionsTaskSaveElement(this.saveElementMixin.taskId, taskSaveElementCommand);
+        KuFlowRestClient kuFlowRestClient = super.getKuFlowRestClient(this.mainCommand.getEnvironmentProperties());
+
+        this.taskIdsMixin.forEachTask(taskId ->
+            kuFlowRestClient.getTaskOperations().actionsTaskSaveElement(taskId, taskSaveElementCommand)
+        );
     }
 
     static class TaskElementValuePrincipalItemConverter implements IParameterConsumer {
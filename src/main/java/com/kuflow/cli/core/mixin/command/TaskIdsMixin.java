@@ -0,0 +1,177 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.mixin.command;
+
+import com.kuflow.cli.core.util.StringUtils;
+import com.kuflow.cli.core.util.TaskFanOut;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import picocli.CommandLine.ArgGroup;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
+
+public class TaskIdsMixin {
+
+    private static final String STANDARD_INPUT = "-";
+
+    private static final String RESULT_SEPARATOR = "\t";
+
+    @Spec(Spec.Target.MIXEE)
+    private CommandSpec spec;
+
+    @ArgGroup(exclusive = true, multiplicity = "1")
+    public TaskIdsOptions taskIdsOptions;
+
+    @Option(
+        names = "--task-parallelism",
+        description = "Maximum number of tasks updated concurrently when there are several. 8 by default.",
+        defaultValue = "8"
+    )
+    public int taskParallelism = 8;
+
+    /**
+     * Apply an operation to the selected tasks. A single task is updated in the calling thread and its failure is
+     * thrown as is. Several tasks are updated concurrently: a result line is written per task as it completes,
+     * {@code <task id> <OK|ERROR> <latency ms> [<error message>]}, followed by a summary in the error output.
+     *
+     * @param operation operation applied to each task, built payloads are shared by all of them
+     */
+    public void forEachTask(Consumer<UUID> operation) {
+        List<UUID> taskIds = this.resolveTaskIds();
+        if (taskIds.size() == 1) {
+            operation.accept(taskIds.get(0));
+
+            return;
+        }
+
+        if (this.taskParallelism < 1) {
+            throw new RuntimeException(String.format("Task parallelism must be greater than zero. [%d]", this.taskParallelism));
+        }
+
+        PrintWriter out = this.spec.commandLine().getOut();
+        TaskFanOut.Summary summary = new TaskFanOut(this.taskParallelism).run(
+                taskIds,
+                operation,
+                (taskId, latencyNanos, error) -> {
+                    StringBuilder line = new StringBuilder()
+                        .append(taskId)
+                        .append(RESULT_SEPARATOR)
+                        .append(error == null ? "OK" : "ERROR")
+                        .append(RESULT_SEPARATOR)
+                        .append(TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+
+                    if (error != null) {
+                        line.append(RESULT_SEPARATOR).append(String.valueOf(error.getMessage()).replaceAll("\\s+", " "));
+                    }
+
+                    synchronized (out) {
+                        out.println(line);
+                        out.flush();
+                    }
+                }
+            );
+
+        this.spec.commandLine().getErr().println(summary);
+
+        if (summary.getFailures() > 0) {
+            throw new RuntimeException(String.format("Unable to update %d of %d tasks", summary.getFailures(), summary.getTasks()));
+        }
+    }
+
+    /**
+     * Tasks given with {@code --task-id} or read with {@code --task-ids-from}, without duplicates.
+     *
+     * @return the task identifiers, never empty
+     */
+    public List<UUID> resolveTaskIds() {
+        Path taskIdsFrom = this.taskIdsOptions.taskIdsFrom;
+        Set<UUID> taskIds = new LinkedHashSet<>(taskIdsFrom != null ? readTaskIds(taskIdsFrom) : this.taskIdsOptions.taskIds);
+        if (taskIds.isEmpty()) {
+            throw new RuntimeException(String.format("No task identifier found in %s.", taskIdsFrom));
+        }
+
+        return new ArrayList<>(taskIds);
+    }
+
+    private static List<UUID> readTaskIds(Path taskIdsFrom) {
+        boolean standardInput = STANDARD_INPUT.equals(taskIdsFrom.toString());
+        List<UUID> taskIds = new ArrayList<>();
+        try (
+            BufferedReader reader = standardInput
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(taskIdsFrom, StandardCharsets.UTF_8)
+        ) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (StringUtils.isEmpty(line) || line.startsWith("#")) {
+                    continue;
+                }
+
+                try {
+                    taskIds.add(UUID.fromString(line));
+                } catch (IllegalArgumentException e) {
+                    throw new RuntimeException(
+                        String.format("Invalid task identifier at line %d of %s: %s", lineNumber, taskIdsFrom, line)
+                    );
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Unable to read the task identifiers from %s", taskIdsFrom), e);
+        }
+
+        return taskIds;
+    }
+
+    public static class TaskIdsOptions {
+
+        @Option(
+            names = { "-t", "--task-id" },
+            description = "Task identifier. Repeat it, or separate identifiers with commas, to apply the operation to several tasks.",
+            split = ","
+        )
+        public List<UUID> taskIds;
+
+        @Option(
+            names = "--task-ids-from",
+            description = "File with task identifiers, one per line, or '-' to read them from the standard input. Blank lines and " +
+            "lines starting with '#' are ignored."
+        )
+        public Path taskIdsFrom;
+    }
+}
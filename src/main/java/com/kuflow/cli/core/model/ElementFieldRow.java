@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.model;
+
+import java.util.List;
+
+/**
+ * Values of a task element field, as read from a row of a bulk input.
+ */
+public class ElementFieldRow {
+
+    private String taskId;
+
+    private String elementCode;
+
+    private List<String> values;
+
+    private Boolean valid;
+
+    public String getTaskId() {
+        return this.taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getElementCode() {
+        return this.elementCode;
+    }
+
+    public void setElementCode(String elementCode) {
+        this.elementCode = elementCode;
+    }
+
+    public List<String> getValues() {
+        return this.values;
+    }
+
+    public void setValues(List<String> values) {
+        this.values = values;
+    }
+
+    public Boolean getValid() {
+        return this.valid;
+    }
+
+    public void setValid(Boolean valid) {
+        this.valid = valid;
+    }
+}
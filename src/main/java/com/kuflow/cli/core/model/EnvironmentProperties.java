@@ -22,6 +22,8 @@
  */
 package com.kuflow.cli.core.model;
 
+import com.kuflow.cli.core.enumeration.HttpClientType;
+import com.kuflow.cli.core.enumeration.HttpVersion;
 import com.kuflow.cli.core.util.Constants;
 import com.kuflow.cli.core.util.StringUtils;
 
@@ -45,6 +47,22 @@ public class EnvironmentProperties {
 
         private String clientSecret;
 
+        private RetryProperties retry = new RetryProperties();
+
+        /**
+         * Timeout in milliseconds of connecting, and of waiting for data while sending a request or receiving its response.
+         */
+        private Long timeout;
+
+        private CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
+
+        /**
+         * Maximum number of bytes of the HTTP bodies logged with the highest verbosity.
+         */
+        private Integer logBodyLimit;
+
+        private HttpProperties http = new HttpProperties();
+
         public String getEndpoint() {
             return this.endpoint;
         }
@@ -69,6 +87,46 @@ public class EnvironmentProperties {
             this.clientSecret = clientSecret;
         }
 
+        public RetryProperties getRetry() {
+            return this.retry;
+        }
+
+        public void setRetry(RetryProperties retry) {
+            this.retry = retry;
+        }
+
+        public Long getTimeout() {
+            return this.timeout;
+        }
+
+        public void setTimeout(Long timeout) {
+            this.timeout = timeout;
+        }
+
+        public CircuitBreakerProperties getCircuitBreaker() {
+            return this.circuitBreaker;
+        }
+
+        public void setCircuitBreaker(CircuitBreakerProperties circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        public Integer getLogBodyLimit() {
+            return this.logBodyLimit;
+        }
+
+        public void setLogBodyLimit(Integer logBodyLimit) {
+            this.logBodyLimit = logBodyLimit;
+        }
+
+        public HttpProperties getHttp() {
+            return this.http;
+        }
+
+        public void setHttp(HttpProperties http) {
+            this.http = http;
+        }
+
         public boolean isFilled() {
             return this.endpoint != null && this.clientId != null && this.clientSecret != null;
         }
@@ -80,6 +138,184 @@ public class EnvironmentProperties {
         }
     }
 
+    public static final class RetryProperties {
+
+        private Integer maxRetries;
+
+        /**
+         * Base delay in milliseconds of the exponential backoff.
+         */
+        private Long baseDelay;
+
+        /**
+         * Maximum delay in milliseconds of the exponential backoff.
+         */
+        private Long maxDelay;
+
+        public Integer getMaxRetries() {
+            return this.maxRetries;
+        }
+
+        public void setMaxRetries(Integer maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Long getBaseDelay() {
+            return this.baseDelay;
+        }
+
+        public void setBaseDelay(Long baseDelay) {
+            this.baseDelay = baseDelay;
+        }
+
+        public Long getMaxDelay() {
+            return this.maxDelay;
+        }
+
+        public void setMaxDelay(Long maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        private void merge(RetryProperties other) {
+            if (this.maxRetries == null) {
+                this.maxRetries = other.getMaxRetries();
+            }
+
+            if (this.baseDelay == null) {
+                this.baseDelay = other.getBaseDelay();
+            }
+
+            if (this.maxDelay == null) {
+                this.maxDelay = other.getMaxDelay();
+            }
+        }
+    }
+
+    public static final class CircuitBreakerProperties {
+
+        /**
+         * Number of consecutive failed requests that open the circuit breaker, 0 disables it.
+         */
+        private Integer failureThreshold;
+
+        /**
+         * Time in milliseconds that requests fail immediately once the circuit breaker is open.
+         */
+        private Long openDuration;
+
+        public Integer getFailureThreshold() {
+            return this.failureThreshold;
+        }
+
+        public void setFailureThreshold(Integer failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public Long getOpenDuration() {
+            return this.openDuration;
+        }
+
+        public void setOpenDuration(Long openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        private void merge(CircuitBreakerProperties other) {
+            if (this.failureThreshold == null) {
+                this.failureThreshold = other.getFailureThreshold();
+            }
+
+            if (this.openDuration == null) {
+                this.openDuration = other.getOpenDuration();
+            }
+        }
+    }
+
+    public static final class HttpProperties {
+
+        /**
+         * HTTP client used to connect to KuFlow, the one found in the classpath by default.
+         */
+        private HttpClientType client;
+
+        /**
+         * Preferred HTTP version, negotiated with KuFlow.
+         */
+        private HttpVersion version;
+
+        /**
+         * Maximum number of connections kept to KuFlow.
+         */
+        private Integer maxConnections;
+
+        /**
+         * Time in milliseconds an unused connection is kept open.
+         */
+        private Long connectionIdleTimeout;
+
+        /**
+         * Size in bytes of the send and receive buffers of the sockets, chosen by the operating system by default.
+         */
+        private Integer socketBufferSize;
+
+        public HttpClientType getClient() {
+            return this.client;
+        }
+
+        public void setClient(HttpClientType client) {
+            this.client = client;
+        }
+
+        public HttpVersion getVersion() {
+            return this.version;
+        }
+
+        public void setVersion(HttpVersion version) {
+            this.version = version;
+        }
+
+        public Integer getMaxConnections() {
+            return this.maxConnections;
+        }
+
+        public void setMaxConnections(Integer maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Long getConnectionIdleTimeout() {
+            return this.connectionIdleTimeout;
+        }
+
+        public void setConnectionIdleTimeout(Long connectionIdleTimeout) {
+            this.connectionIdleTimeout = connectionIdleTimeout;
+        }
+
+        public Integer getSocketBufferSize() {
+            return this.socketBufferSize;
+        }
+
+        public void setSocketBufferSize(Integer socketBufferSize) {
+            this.socketBufferSize = socketBufferSize;
+        }
+
+        private void merge(HttpProperties other) {
+            if (this.client == null) {
+                this.client = other.getClient();
+            }
+            if (this.version == null) {
+                this.version = other.getVersion();
+            }
+            if (this.maxConnections == null) {
+                this.maxConnections = other.getMaxConnections();
+            }
+            if (this.connectionIdleTimeout == null) {
+                this.connectionIdleTimeout = other.getConnectionIdleTimeout();
+            }
+            if (this.socketBufferSize == null) {
+                this.socketBufferSize = other.getSocketBufferSize();
+            }
+        }
+    }
+
     public EnvironmentProperties merge(EnvironmentProperties other) {
         KuFlowProperties otherKuFlowProperties = other.getKuflow();
 
@@ -95,6 +331,26 @@ public class EnvironmentProperties {
             this.getKuflow().setClientSecret(otherKuFlowProperties.getClientSecret());
         }
 
+        if (this.getKuflow().getTimeout() == null) {
+            this.getKuflow().setTimeout(otherKuFlowProperties.getTimeout());
+        }
+
+        if (this.getKuflow().getLogBodyLimit() == null) {
+            this.getKuflow().setLogBodyLimit(otherKuFlowProperties.getLogBodyLimit());
+        }
+
+        if (otherKuFlowProperties.getRetry() != null) {
+            this.getKuflow().getRetry().merge(otherKuFlowProperties.getRetry());
+        }
+
+        if (otherKuFlowProperties.getCircuitBreaker() != null) {
+            this.getKuflow().getCircuitBreaker().merge(otherKuFlowProperties.getCircuitBreaker());
+        }
+
+        if (otherKuFlowProperties.getHttp() != null) {
+            this.getKuflow().getHttp().merge(otherKuFlowProperties.getHttp());
+        }
+
         return this;
     }
 }
@@ -0,0 +1,283 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Limit of the requests to KuFlow in flight, adapted to its load with an additive increase and a multiplicative
+ * decrease (AIMD).
+ * <p>
+ *   Each request reports its outcome and latency. While the latency stays close to the lowest one observed, the limit
+ *   grows by one with each request completed while at least half of the limit was in use. A 429 or 503 response or a
+ *   timeout halves the limit, and a latency growing to twice the lowest one reduces it by a tenth. Requests sent before
+ *   the last decrease do not decrease it again, as they reflect the previous limit. The lowest latency slowly follows
+ *   the observed ones, so a lasting change of the network is not mistaken for an overload.
+ * </p>
+ * <p>
+ *   The limiter is shared by the whole process once enabled and each attempt of a request takes a permit, so the
+ *   requests of nested operations, like the tasks of a batch line, are limited together with the rest. Permits are
+ *   granted in the order they were requested. Changes of the limit are logged with the latencies that caused them.
+ * </p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final Logger LOGGER = LogManager.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    public static final int DEFAULT_INITIAL_LIMIT = 4;
+
+    public static final int DEFAULT_MAX_LIMIT = 256;
+
+    private static final double OVERLOAD_BACKOFF_RATIO = 0.5;
+
+    private static final double LATENCY_BACKOFF_RATIO = 0.9;
+
+    private static final double LATENCY_TOLERANCE = 2.0;
+
+    /**
+     * Weight of a new latency in the smoothed latency.
+     */
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    /**
+     * Weight of a new latency in the lowest latency, when it is higher.
+     */
+    private static final double BASELINE_DRIFT = 0.05;
+
+    private static volatile AdaptiveConcurrencyLimiter instance;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private double limit;
+
+    private int inFlight;
+
+    private long smoothedLatencyNanos = -1;
+
+    private long baselineLatencyNanos = -1;
+
+    private long lastDecreaseNanos = System.nanoTime();
+
+    private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+    public AdaptiveConcurrencyLimiter(int minLimit, int initialLimit, int maxLimit) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException(
+                String.format("Invalid concurrency limits. [min=%d, initial=%d, max=%d]", minLimit, initialLimit, maxLimit)
+            );
+        }
+
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Enable the limiter of the process. Further calls keep the limiter already enabled.
+     */
+    public static synchronized void enable() {
+        if (instance == null) {
+            instance = new AdaptiveConcurrencyLimiter(1, DEFAULT_INITIAL_LIMIT, DEFAULT_MAX_LIMIT);
+        }
+    }
+
+    public static boolean isEnabled() {
+        return instance != null;
+    }
+
+    /**
+     * @return the limiter of the process, {@code null} if it is not enabled
+     */
+    public static AdaptiveConcurrencyLimiter getInstance() {
+        return instance;
+    }
+
+    /**
+     * Wait until a request can be sent without exceeding the limit, and count it in flight.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        CompletableFuture<Void> permit = this.acquireAsync();
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            this.cancel(permit);
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Permits are never completed exceptionally", e);
+        }
+    }
+
+    /**
+     * Request a permit to send a request without exceeding the limit. Once completed, the permit is counted in flight
+     * until it is released with {@link #release}; a permit no longer needed is given back with {@link #cancel}.
+     *
+     * @return a future completed when the request can be sent
+     */
+    public synchronized CompletableFuture<Void> acquireAsync() {
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        if (this.waiters.isEmpty() && this.inFlight < (int) this.limit) {
+            this.inFlight++;
+            permit.complete(null);
+        } else {
+            this.waiters.add(permit);
+        }
+
+        return permit;
+    }
+
+    /**
+     * Count a request acquired with {@link #acquire} or {@link #acquireAsync} as completed.
+     */
+    public void release() {
+        List<CompletableFuture<Void>> granted;
+        synchronized (this) {
+            this.inFlight--;
+            granted = this.grant();
+        }
+        granted.forEach(permit -> permit.complete(null));
+    }
+
+    /**
+     * Give back a permit requested with {@link #acquireAsync}, whether it was granted or is still waiting.
+     *
+     * @param permit permit no longer needed
+     */
+    public void cancel(CompletableFuture<Void> permit) {
+        boolean waiting;
+        synchronized (this) {
+            waiting = this.waiters.remove(permit);
+        }
+        if (!waiting) {
+            this.release();
+        }
+    }
+
+    /**
+     * Adapt the limit to the outcome of a request.
+     *
+     * @param startNanos {@link System#nanoTime} when the request was sent
+     * @param latencyNanos time until the response was received, negative if it does not reflect the load of KuFlow
+     * @param overloaded whether the request was rejected or timed out because KuFlow is overloaded
+     */
+    public void onSample(long startNanos, long latencyNanos, boolean overloaded) {
+        List<CompletableFuture<Void>> granted;
+        synchronized (this) {
+            granted = this.adapt(startNanos, latencyNanos, overloaded);
+        }
+        granted.forEach(permit -> permit.complete(null));
+    }
+
+    public synchronized int getLimit() {
+        return (int) this.limit;
+    }
+
+    public synchronized int getInFlight() {
+        return this.inFlight;
+    }
+
+    private List<CompletableFuture<Void>> adapt(long startNanos, long latencyNanos, boolean overloaded) {
+        if (overloaded) {
+            this.decrease(startNanos, OVERLOAD_BACKOFF_RATIO, "KuFlow is overloaded");
+
+            return List.of();
+        }
+
+        if (latencyNanos < 0) {
+            return List.of();
+        }
+
+        if (this.baselineLatencyNanos < 0 || latencyNanos < this.baselineLatencyNanos) {
+            this.baselineLatencyNanos = latencyNanos;
+        } else {
+            this.baselineLatencyNanos += (long) ((latencyNanos - this.baselineLatencyNanos) * BASELINE_DRIFT);
+        }
+        this.smoothedLatencyNanos =
+            this.smoothedLatencyNanos < 0
+                ? latencyNanos
+                : this.smoothedLatencyNanos + (long) ((latencyNanos - this.smoothedLatencyNanos) * LATENCY_SMOOTHING);
+
+        if (this.smoothedLatencyNanos > this.baselineLatencyNanos * LATENCY_TOLERANCE) {
+            this.decrease(startNanos, LATENCY_BACKOFF_RATIO, "the latency increased");
+        } else if (this.inFlight * 2 >= this.limit && this.limit < this.maxLimit) {
+            this.limit = Math.min(this.maxLimit, this.limit + 1);
+            LOGGER.info(
+                "Concurrency limit increased to {}, latency {} ms, lowest latency {} ms",
+                (int) this.limit,
+                TimeUnit.NANOSECONDS.toMillis(this.smoothedLatencyNanos),
+                TimeUnit.NANOSECONDS.toMillis(this.baselineLatencyNanos)
+            );
+
+            return this.grant();
+        }
+
+        return List.of();
+    }
+
+    /**
+     * Grant the permits waiting while the limit allows it. They are completed by the caller once the lock is released,
+     * as completing them sends their requests.
+     */
+    private List<CompletableFuture<Void>> grant() {
+        List<CompletableFuture<Void>> granted = new ArrayList<>();
+        while (!this.waiters.isEmpty() && this.inFlight < (int) this.limit) {
+            this.inFlight++;
+            granted.add(this.waiters.poll());
+        }
+
+        return granted;
+    }
+
+    private void decrease(long startNanos, double ratio, String reason) {
+        if (startNanos - this.lastDecreaseNanos < 0) {
+            return;
+        }
+
+        int previousLimit = (int) this.limit;
+        this.limit = Math.max(this.minLimit, this.limit * ratio);
+        this.lastDecreaseNanos = System.nanoTime();
+        if ((int) this.limit == previousLimit) {
+            return;
+        }
+
+        LOGGER.info(
+            "Concurrency limit decreased from {} to {} as {}, latency {} ms, lowest latency {} ms",
+            previousLimit,
+            (int) this.limit,
+            reason,
+            TimeUnit.NANOSECONDS.toMillis(Math.max(0, this.smoothedLatencyNanos)),
+            TimeUnit.NANOSECONDS.toMillis(Math.max(0, this.baselineLatencyNanos))
+        );
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.azure.core.http.HttpPipelineCallContext;
+import com.azure.core.http.HttpPipelineNextPolicy;
+import com.azure.core.http.HttpPipelineNextSyncPolicy;
+import com.azure.core.http.HttpPipelinePosition;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.HttpPipelinePolicy;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletableFuture;
+import reactor.core.publisher.Mono;
+
+/**
+ * Limits the attempts of HTTP requests in flight with an {@link AdaptiveConcurrencyLimiter}, holding a permit from
+ * sending each attempt until its response is received, and reports their outcome to it: 429 and 503 responses and
+ * timeouts signal that KuFlow is overloaded. Limiting each request rather than the tasks sending them keeps the limit
+ * however the tasks are nested. The latency of requests with a body larger than 64 KiB or without a known length,
+ * like document uploads, depends on their size rather than on the load, so only their status is reported.
+ */
+public class AdaptiveConcurrencyPolicy implements HttpPipelinePolicy {
+
+    private static final String CONTENT_LENGTH = "Content-Length";
+
+    private static final long MAX_SAMPLED_BODY_LENGTH = 64 * 1024;
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public AdaptiveConcurrencyPolicy(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public HttpPipelinePosition getPipelinePosition() {
+        return HttpPipelinePosition.PER_RETRY;
+    }
+
+    @Override
+    public Mono<HttpResponse> process(HttpPipelineCallContext context, HttpPipelineNextPolicy next) {
+        boolean sampled = isLatencySampled(context.getHttpRequest());
+
+        return Mono.defer(() -> {
+            CompletableFuture<Void> permit = this.limiter.acquireAsync();
+
+            return Mono
+                .fromFuture(permit)
+                .doOnCancel(() -> this.limiter.cancel(permit))
+                .then(Mono.defer(() -> this.send(sampled, next)));
+        });
+    }
+
+    @Override
+    public HttpResponse processSync(HttpPipelineCallContext context, HttpPipelineNextSyncPolicy next) {
+        boolean sampled = isLatencySampled(context.getHttpRequest());
+
+        try {
+            this.limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to send a request", e);
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            HttpResponse response = next.processSync();
+            this.record(startNanos, sampled, response);
+
+            return response;
+        } catch (RuntimeException e) {
+            this.recordError(startNanos, e);
+            throw e;
+        } finally {
+            this.limiter.release();
+        }
+    }
+
+    private Mono<HttpResponse> send(boolean sampled, HttpPipelineNextPolicy next) {
+        long startNanos = System.nanoTime();
+
+        return next
+            .process()
+            .doOnNext(response -> this.record(startNanos, sampled, response))
+            .doOnError(e -> this.recordError(startNanos, e))
+            .doFinally(signal -> this.limiter.release());
+    }
+
+    private void record(long startNanos, boolean sampled, HttpResponse response) {
+        int statusCode = response.getStatusCode();
+        long latencyNanos = sampled ? System.nanoTime() - startNanos : -1;
+        this.limiter.onSample(startNanos, latencyNanos, statusCode == 429 || statusCode == 503);
+    }
+
+    private void recordError(long startNanos, Throwable error) {
+        if (isTimeout(error)) {
+            this.limiter.onSample(startNanos, -1, true);
+        }
+    }
+
+    private static boolean isLatencySampled(HttpRequest request) {
+        if (request.getBody() == null) {
+            return true;
+        }
+
+        String contentLength = request.getHeaders().getValue(CONTENT_LENGTH);
+        if (contentLength == null) {
+            return false;
+        }
+
+        try {
+            return Long.parseLong(contentLength.trim()) <= MAX_SAMPLED_BODY_LENGTH;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isTimeout(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (
+                JitteredExponentialBackoff.isTimeout(cause) ||
+                cause instanceof SocketTimeoutException ||
+                cause instanceof HttpTimeoutException
+            ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.kuflow.cli.core.enumeration.ArchiveFormat;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes the files of a directory tree to an archive as the tree is walked, so the archive can be streamed while it is
+ * created.
+ */
+public class ArchiveWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ArchiveFormat format;
+
+    private final FileTreeWalker walker;
+
+    public ArchiveWriter(ArchiveFormat format, FileTreeWalker walker) {
+        this.format = format;
+        this.walker = walker;
+    }
+
+    public static String getExtension(ArchiveFormat format) {
+        return format == ArchiveFormat.ZIP ? ".zip" : ".tar.gz";
+    }
+
+    public static String getContentType(ArchiveFormat format) {
+        return format == ArchiveFormat.ZIP ? "application/zip" : "application/gzip";
+    }
+
+    /**
+     * Write the archive of a directory. The archive is not completed if any file can not be read.
+     *
+     * @param directory directory to archive, the paths of the entries are relative to it
+     * @param outputStream stream receiving the archive, only closed when the archive is complete
+     * @return the number of files archived
+     * @throws IOException if a file can not be read or the archive can not be written
+     */
+    public int write(Path directory, OutputStream outputStream) throws IOException {
+        int[] files = new int[1];
+        byte[] buffer = new byte[BUFFER_SIZE];
+        // The streams are only closed on success, a failed archive must not end as a complete one
+        try {
+            if (this.format == ArchiveFormat.ZIP) {
+                ZipOutputStream zipOutputStream = new ZipOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE));
+                this.walk(directory, (file, name, attributes) -> {
+                        ZipEntry entry = new ZipEntry(name);
+                        entry.setLastModifiedTime(attributes.lastModifiedTime());
+                        zipOutputStream.putNextEntry(entry);
+                        copy(file, zipOutputStream, buffer, Long.MAX_VALUE);
+                        zipOutputStream.closeEntry();
+                        files[0]++;
+                    });
+                zipOutputStream.close();
+            } else {
+                GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, BUFFER_SIZE);
+                TarOutputStream tarOutputStream = new TarOutputStream(new BufferedOutputStream(gzipOutputStream, BUFFER_SIZE));
+                this.walk(directory, (file, name, attributes) -> {
+                        FileTime lastModifiedTime = attributes.lastModifiedTime();
+                        tarOutputStream.putEntry(name, attributes.size(), lastModifiedTime.toMillis(), Files.isExecutable(file));
+                        copy(file, tarOutputStream, buffer, attributes.size());
+                        tarOutputStream.closeEntry();
+                        files[0]++;
+                    });
+                tarOutputStream.close();
+            }
+        } catch (UncheckedIOException e) {
+            throw new IOException(e.getMessage(), e.getCause());
+        }
+
+        return files[0];
+    }
+
+    private void walk(Path directory, EntryWriter entryWriter) throws IOException {
+        this.walker.walk(
+                directory,
+                file -> {
+                    try {
+                        // Read the attributes once, the size of a tar entry must match the bytes copied
+                        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                        entryWriter.write(file, toEntryName(directory.relativize(file)), attributes);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(String.format("Unable to archive %s: %s", file, e.getMessage()), e);
+                    }
+                },
+                (file, e) -> {
+                    throw new UncheckedIOException(String.format("Unable to read %s: %s", file, e.getMessage()), e);
+                }
+            );
+    }
+
+    private static String toEntryName(Path relativePath) {
+        StringBuilder name = new StringBuilder();
+        for (Path element : relativePath) {
+            if (name.length() > 0) {
+                name.append('/');
+            }
+            name.append(element.toString());
+        }
+
+        return name.toString();
+    }
+
+    private static void copy(Path file, OutputStream outputStream, byte[] buffer, long size) throws IOException {
+        long remaining = size;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            int read;
+            while (remaining > 0 && (read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining))) >= 0) {
+                outputStream.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+
+        if (size != Long.MAX_VALUE && remaining > 0) {
+            throw new IOException(String.format("The file %s was truncated while it was archived", file));
+        }
+    }
+
+    @FunctionalInterface
+    private interface EntryWriter {
+        void write(Path file, String name, BasicFileAttributes attributes) throws IOException;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes tasks concurrently keeping at most {@code parallelism} of them in flight.
+ * <p>
+ *   {@link #submit} blocks the caller while the limit is reached, so producers reading large inputs keep a bounded
+ *   memory footprint. Closing the executor waits for the submitted tasks to finish, so no task outlives the block that
+ *   created the executor. The threads come from {@link ExecutorFactory}, virtual threads on Java 21 or later.
+ * </p>
+ */
+public class BoundedExecutor implements AutoCloseable {
+
+    private final Semaphore permits;
+
+    private final ExecutorService executorService;
+
+    private volatile boolean cancelled;
+
+    public BoundedExecutor(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format("Parallelism must be greater than zero, was %d", parallelism));
+        }
+
+        this.permits = new Semaphore(parallelism);
+        this.executorService = ExecutorFactory.newExecutor(parallelism);
+    }
+
+    /**
+     * Submit a task, waiting while the maximum number of tasks are in flight.
+     *
+     * @param task task to execute
+     * @return a future completed with the result of the task, or with a {@link CancellationException} if the executor
+     *     is cancelled before the task starts
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        if (this.cancelled) {
+            return CompletableFuture.failedFuture(new CancellationException("Executor cancelled"));
+        }
+
+        try {
+            this.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to submit a task", e);
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            this.executorService.execute(() -> {
+                    try {
+                        if (this.cancelled) {
+                            throw new CancellationException("Executor cancelled");
+                        }
+                        future.complete(task.call());
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    } finally {
+                        this.permits.release();
+                    }
+                });
+        } catch (RuntimeException e) {
+            this.permits.release();
+            if (this.cancelled) {
+                return CompletableFuture.failedFuture(new CancellationException("Executor cancelled"));
+            }
+            throw e;
+        }
+
+        return future;
+    }
+
+    /**
+     * Cancel the executor: the tasks that did not start are completed with a {@link CancellationException}, the
+     * running ones are interrupted, and further submissions are rejected.
+     */
+    public void cancel() {
+        this.cancelled = true;
+        // The tasks that did not start complete their futures without running
+        this.executorService.shutdownNow().forEach(Runnable::run);
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    @Override
+    public void close() {
+        this.executorService.shutdown();
+        try {
+            while (!this.executorService.awaitTermination(1, TimeUnit.MINUTES)) {
+                // Keep waiting for in flight tasks
+            }
+        } catch (InterruptedException e) {
+            this.executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.azure.core.http.HttpPipelineCallContext;
+import com.azure.core.http.HttpPipelineNextPolicy;
+import com.azure.core.http.HttpPipelineNextSyncPolicy;
+import com.azure.core.http.HttpPipelinePosition;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.HttpPipelinePolicy;
+import java.time.Duration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import reactor.core.publisher.Mono;
+
+/**
+ * Fail requests immediately after a number of consecutive failed requests, instead of waiting for each of them to
+ * exhaust its retries. Once the open duration elapses, a single trial request is let through: the circuit closes if it
+ * succeeds, and opens again otherwise.
+ * <p>
+ *   A request fails when it can not be sent or its response status is 429 or 5xx. The policy is placed before the
+ *   retry policy, so a failure is a request that exhausted its retries.
+ * </p>
+ */
+public class CircuitBreakerPolicy implements HttpPipelinePolicy {
+
+    private static final Logger LOGGER = LogManager.getLogger(CircuitBreakerPolicy.class);
+
+    private enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN,
+    }
+
+    private final int failureThreshold;
+
+    private final long openDurationNanos;
+
+    private State state = State.CLOSED;
+
+    private int consecutiveFailures;
+
+    private long openUntilNanos;
+
+    public CircuitBreakerPolicy(int failureThreshold, Duration openDuration) {
+        if (failureThreshold < 1 || openDuration.isNegative()) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Invalid circuit breaker configuration. [failureThreshold=%d, openDuration=%s]",
+                    failureThreshold,
+                    openDuration
+                )
+            );
+        }
+
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    @Override
+    public HttpPipelinePosition getPipelinePosition() {
+        return HttpPipelinePosition.PER_CALL;
+    }
+
+    @Override
+    public Mono<HttpResponse> process(HttpPipelineCallContext context, HttpPipelineNextPolicy next) {
+        try {
+            this.acquire();
+        } catch (CircuitBreakerOpenException e) {
+            return Mono.error(e);
+        }
+
+        return next.process().doOnNext(this::record).doOnError(e -> this.recordFailure()).doOnCancel(this::recordFailure);
+    }
+
+    @Override
+    public HttpResponse processSync(HttpPipelineCallContext context, HttpPipelineNextSyncPolicy next) {
+        this.acquire();
+
+        HttpResponse response;
+        try {
+            response = next.processSync();
+        } catch (RuntimeException e) {
+            this.recordFailure();
+            throw e;
+        }
+
+        this.record(response);
+
+        return response;
+    }
+
+    private synchronized void acquire() {
+        if (this.state == State.OPEN && System.nanoTime() - this.openUntilNanos >= 0) {
+            // This request is the trial, the others keep failing until it completes
+            this.state = State.HALF_OPEN;
+
+            return;
+        }
+
+        if (this.state != State.CLOSED) {
+            throw new CircuitBreakerOpenException(
+                String.format("Requests to KuFlow are suspended after %d consecutive failures", this.consecutiveFailures)
+            );
+        }
+    }
+
+    private void record(HttpResponse response) {
+        int statusCode = response.getStatusCode();
+        if (statusCode == 429 || statusCode >= 500) {
+            this.recordFailure();
+        } else {
+            this.recordSuccess();
+        }
+    }
+
+    private synchronized void recordSuccess() {
+        if (this.state != State.CLOSED) {
+            LOGGER.info("Requests to KuFlow are resumed");
+        }
+
+        this.state = State.CLOSED;
+        this.consecutiveFailures = 0;
+    }
+
+    private synchronized void recordFailure() {
+        this.consecutiveFailures++;
+        if (this.state == State.HALF_OPEN || (this.state == State.CLOSED && this.consecutiveFailures >= this.failureThreshold)) {
+            this.state = State.OPEN;
+            this.openUntilNanos = System.nanoTime() + this.openDurationNanos;
+            LOGGER.warn(
+                "Requests to KuFlow are suspended for {} ms after {} consecutive failures",
+                Duration.ofNanos(this.openDurationNanos).toMillis(),
+                this.consecutiveFailures
+            );
+        }
+    }
+
+    /**
+     * Thrown instead of sending a request while the circuit breaker is open.
+     */
+    public static class CircuitBreakerOpenException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public CircuitBreakerOpenException(String message) {
+            super(message);
+        }
+    }
+}
@@ -28,6 +28,16 @@ public class Constants {
 
     public static final String KUFLOW_ENVIRONMENT_FILE = ".kuflow.yml";
 
+    public static final String KUFLOW_USER_DIRECTORY = ".kuflow";
+
+    public static final String KUFLOW_DAEMON_FILE = "daemon.properties";
+
+    public static final String KUFLOW_JOURNAL_DIRECTORY = "journal";
+
+    public static final String KUFLOW_DOCUMENT_INDEX_DIRECTORY = "documents";
+
+    public static final String KUFLOW_CACHE_DIRECTORY = "cache";
+
     public static final String KUFLOW_ENV_VAR__ENDPOINT = "KUFLOW_ENDPOINT";
     public static final String KUFLOW_ENV_VAR__CLIENT_ID = "KUFLOW_CLIENT_ID";
     public static final String KUFLOW_ENV_VAR__CLIENT_SECRET = "KUFLOW_CLIENT_SECRET";
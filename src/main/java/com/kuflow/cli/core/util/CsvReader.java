@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV records one at a time, as described by RFC 4180: fields are separated by commas, and quoted fields may
+ * contain commas, line breaks and quotes escaped by doubling them. A byte order mark at the start of the input, written
+ * by spreadsheets like Excel in their UTF-8 exports, is skipped.
+ */
+public class CsvReader implements Closeable {
+
+    private final Reader reader;
+
+    private int lineNumber = 1;
+
+    private int recordLineNumber;
+
+    private int pending = -2;
+
+    private boolean started;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read the next record.
+     *
+     * @return the fields of the record, or null at the end of the input
+     * @throws IOException if the input can not be read or a quoted field is not terminated
+     */
+    public List<String> readRecord() throws IOException {
+        int c = this.read();
+        if (c < 0) {
+            return null;
+        }
+
+        this.recordLineNumber = this.lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException(String.format("Unterminated quoted field in the record of line %d", this.recordLineNumber));
+                }
+                if (c == '"') {
+                    c = this.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                if (c == '\n') {
+                    this.lineNumber++;
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.length() == 0 && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c < 0 || c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int next = this.read();
+                    if (next != '\n') {
+                        this.pending = next;
+                    }
+                }
+                if (c >= 0) {
+                    this.lineNumber++;
+                }
+                fields.add(field.toString());
+
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+
+            c = this.read();
+        }
+    }
+
+    /**
+     * @return the line where the last record read starts, counting from 1
+     */
+    public int getRecordLineNumber() {
+        return this.recordLineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    /**
+     * Format the fields of a record, quoting the ones that need it, so {@link #readRecord} reads them back.
+     *
+     * @param fields fields of the record
+     * @return the record, without line break
+     */
+    public static String formatRecord(List<String> fields) {
+        StringBuilder record = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            String field = fields.get(i);
+            if (i > 0) {
+                record.append(',');
+            }
+            if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+                record.append('"').append(field.replace("\"", "\"\"")).append('"');
+            } else {
+                record.append(field);
+            }
+        }
+
+        return record.toString();
+    }
+
+    private int read() throws IOException {
+        if (this.pending != -2) {
+            int c = this.pending;
+            this.pending = -2;
+
+            return c;
+        }
+
+        int c = this.reader.read();
+        if (!this.started) {
+            this.started = true;
+            if (c == '\uFEFF') {
+                c = this.reader.read();
+            }
+        }
+
+        return c;
+    }
+}
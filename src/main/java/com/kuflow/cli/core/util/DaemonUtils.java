@@ -0,0 +1,232 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.kuflow.cli.core.enumeration.CommandType;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Helpers shared by the {@code daemon} command and the clients forwarding operations to it.
+ * <p>
+ *   The daemon listens on the loopback interface and publishes its port, and the token that clients must present,
+ *   in a descriptor file only readable by the owner. Each connection carries a single operation:
+ * </p>
+ * <ul>
+ *   <li>Greeting: the daemon sends {@link #PROTOCOL_MAGIC} first, so clients do not wait for a process that reused the
+ *   port of a daemon no longer running.</li>
+ *   <li>Request: token, working directory, number of arguments and the arguments.</li>
+ *   <li>Response: exit code, standard output and error output.</li>
+ * </ul>
+ */
+public class DaemonUtils {
+
+    public static final Set<String> FORWARDED_COMMANDS = Set.of(
+        CommandType.Key.APPEND_LOG,
+        CommandType.Key.SAVE_ELEMENT_DOCUMENT,
+        CommandType.Key.SAVE_ELEMENT_DOCUMENT_BY_REFERENCE,
+        CommandType.Key.SAVE_ELEMENT_FIELD,
+        CommandType.Key.SAVE_ELEMENT_PRINCIPAL
+    );
+
+    public static final int MAX_ARGUMENTS = 100_000;
+
+    /**
+     * First value sent by the daemon on each connection: "KFLW".
+     */
+    public static final int PROTOCOL_MAGIC = 0x4B464C57;
+
+    /**
+     * Arguments used to read from the standard input, which is not available to the daemon nor to batch operations.
+     */
+    private static final Set<String> STANDARD_INPUT_ARGUMENTS = Set.of("-", "--stream", "--task-ids-from=-");
+
+    private static final int MAX_STRING_BYTES = 64 * 1024 * 1024;
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 500;
+
+    private static final int GREETING_TIMEOUT_MILLIS = 2_000;
+
+    private static final String PROPERTY_PORT = "port";
+
+    private static final String PROPERTY_TOKEN = "token";
+
+    private static final String PROPERTY_PID = "pid";
+
+    public static Path getDescriptorFile() {
+        return FileUtils.getUserDirectory().resolve(Constants.KUFLOW_DAEMON_FILE);
+    }
+
+    public static void writeDescriptor(int port, String token) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(PROPERTY_PORT, String.valueOf(port));
+        properties.setProperty(PROPERTY_TOKEN, token);
+        properties.setProperty(PROPERTY_PID, String.valueOf(ProcessHandle.current().pid()));
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        properties.store(content, "kuflowctl daemon");
+        FileUtils.writePrivateFile(getDescriptorFile(), content.toByteArray());
+    }
+
+    /**
+     * Delete the descriptor file if it still belongs to the daemon owning the token.
+     *
+     * @param token token of the daemon
+     */
+    public static void deleteDescriptor(String token) {
+        Properties properties = readDescriptor();
+        if (properties != null && token.equals(properties.getProperty(PROPERTY_TOKEN))) {
+            try {
+                Files.deleteIfExists(getDescriptorFile());
+            } catch (IOException e) {}
+        }
+    }
+
+    /**
+     * Forward an operation to a running daemon.
+     *
+     * @param args command line arguments
+     * @return the exit code of the operation, or {@code null} if it was not forwarded and must be executed in process
+     */
+    public static Integer forward(String[] args) {
+        if (args.length == 0 || !FORWARDED_COMMANDS.contains(args[0]) || readsStandardInput(Arrays.asList(args))) {
+            return null;
+        }
+
+        Properties properties = readDescriptor();
+        if (properties == null) {
+            return null;
+        }
+
+        try (Socket socket = new Socket()) {
+            int port = Integer.parseInt(properties.getProperty(PROPERTY_PORT, ""));
+            try {
+                socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT_MILLIS);
+            } catch (IOException e) {
+                // Stale descriptor, the operation is executed in process
+                return null;
+            }
+
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            if (!readGreeting(socket, input)) {
+                // The port belongs to another process, the operation is executed in process
+                return null;
+            }
+
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            writeString(output, properties.getProperty(PROPERTY_TOKEN, ""));
+            writeString(output, Paths.get("").toAbsolutePath().toString());
+            output.writeInt(args.length);
+            for (String arg : args) {
+                writeString(output, arg);
+            }
+            output.flush();
+
+            int exitCode = input.readInt();
+            System.out.print(readString(input));
+            System.out.flush();
+            System.err.print(readString(input));
+            System.err.flush();
+
+            return exitCode;
+        } catch (NumberFormatException e) {
+            return null;
+        } catch (IOException e) {
+            // The operation may have been executed, so it is not retried in process
+            System.err.println(String.format("Error communicating with kuflowctl daemon: %s", e.getMessage()));
+            return 1;
+        }
+    }
+
+    /**
+     * @param args arguments of an operation
+     * @return whether the operation reads the standard input, like the uploads of {@code -} or the logs streamed with
+     *     {@code --stream}
+     */
+    public static boolean readsStandardInput(List<String> args) {
+        return args.stream().anyMatch(STANDARD_INPUT_ARGUMENTS::contains);
+    }
+
+    private static boolean readGreeting(Socket socket, DataInputStream input) {
+        try {
+            socket.setSoTimeout(GREETING_TIMEOUT_MILLIS);
+            boolean daemon = input.readInt() == PROTOCOL_MAGIC;
+            // Operations, like large uploads, can take any time once the daemon accepted them
+            socket.setSoTimeout(0);
+
+            return daemon;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    public static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException(String.format("Invalid string length %d", length));
+        }
+
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Properties readDescriptor() {
+        Path descriptorFile = getDescriptorFile();
+        if (!Files.isRegularFile(descriptorFile)) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(descriptorFile)) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            return null;
+        }
+
+        return properties;
+    }
+}
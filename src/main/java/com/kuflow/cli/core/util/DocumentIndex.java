@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Index of the documents already uploaded to KuFlow, mapping the SHA-256 hash of their content to the URI of the
+ * element value holding them. It allows to save a document by reference instead of uploading it again.
+ */
+public class DocumentIndex {
+
+    private final Path file;
+
+    private final Map<String, String> uris = new LinkedHashMap<>();
+
+    private DocumentIndex(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Open the index of the documents uploaded with the credentials of an application, as URIs from other accounts
+     * can not be referenced.
+     *
+     * @param clientId application identifier
+     * @return the index
+     * @throws IOException if the index can not be read
+     */
+    public static DocumentIndex open(String clientId) throws IOException {
+        String fileName = String.format("%s.index", clientId.replaceAll("[^A-Za-z0-9_-]", "_"));
+        Path directory = FileUtils.getUserDirectory().resolve(Constants.KUFLOW_DOCUMENT_INDEX_DIRECTORY);
+
+        DocumentIndex index = new DocumentIndex(directory.resolve(fileName));
+        if (Files.exists(index.file)) {
+            for (String line : Files.readAllLines(index.file, StandardCharsets.UTF_8)) {
+                int separator = line.indexOf('\t');
+                if (separator == 64 && line.length() > separator + 1) {
+                    index.uris.put(line.substring(0, separator), line.substring(separator + 1));
+                }
+            }
+        }
+
+        return index;
+    }
+
+    public synchronized String find(String hash) {
+        return this.uris.get(hash);
+    }
+
+    /**
+     * Record the URI of an uploaded document.
+     *
+     * @param hash SHA-256 hash of the document content
+     * @param uri URI of the element value holding the document
+     * @throws IOException if the index can not be written
+     */
+    public synchronized void put(String hash, String uri) throws IOException {
+        if (uri.equals(this.uris.put(hash, uri))) {
+            return;
+        }
+
+        FileUtils.createPrivateDirectories(this.file.getParent());
+        Files.write(
+            this.file,
+            String.format("%s\t%s%n", hash, uri).getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND,
+            StandardOpenOption.WRITE
+        );
+    }
+
+    /**
+     * Forget documents whose URI can no longer be referenced, for example because their task was deleted.
+     *
+     * @param hashes SHA-256 hashes of the documents
+     * @throws IOException if the index can not be written
+     */
+    public synchronized void remove(Collection<String> hashes) throws IOException {
+        if (!this.uris.keySet().removeAll(hashes)) {
+            return;
+        }
+
+        String content = this.uris.entrySet()
+            .stream()
+            .map(entry -> String.format("%s\t%s%n", entry.getKey(), entry.getValue()))
+            .collect(Collectors.joining());
+        FileUtils.writePrivateFile(this.file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.kuflow.cli.core.model.EnvironmentProperties;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of the properties read from environment files, so the YAML parser is only used when a file changes.
+ * <p>
+ *   Entries are stored as properties files in the user directory, only readable by the owner, and in memory, so
+ *   resolving the configuration again in the same process only costs reading the attributes of the file. An entry is
+ *   valid while the path, size, modification time and file key of the environment file do not change. Files modified
+ *   in the last seconds are not cached, as a new write may not change their modification time.
+ * </p>
+ * <p>
+ *   The client secret is not stored in the user directory. The stored entry keeps the position of the secret in the
+ *   environment file instead, and it is read from there. Entries of files whose secret can not be found that way are
+ *   only kept in memory.
+ * </p>
+ * <p>
+ *   The cached properties are the fields of {@link EnvironmentProperties}, named as in environment files, and the
+ *   version of the entries changes with them.
+ * </p>
+ */
+public class EnvironmentFileCache {
+
+    private static final String FORMAT_VERSION = "3";
+
+    private static final long RECENT_MODIFICATION_MILLIS = 2000;
+
+    private static final String KEY_VERSION = "cache.version";
+
+    private static final String KEY_FILE = "cache.file";
+
+    private static final String KEY_CLIENT_SECRET_START = "cache.client-secret.start";
+
+    private static final String KEY_CLIENT_SECRET_END = "cache.client-secret.end";
+
+    private static final String KEY_CLIENT_SECRET = "kuflow.client-secret";
+
+    private static final List<Mapping> MAPPINGS = Collections.unmodifiableList(
+        mappings(EnvironmentProperties.class, "", new ArrayList<>())
+    );
+
+    private static final String VERSION = String.format(
+        "%s-%08x",
+        FORMAT_VERSION,
+        MAPPINGS.stream().map(mapping -> mapping.key + ":" + mapping.getType().getName()).collect(Collectors.joining(",")).hashCode()
+    );
+
+    private static final Map<Path, Properties> ENTRIES = new ConcurrentHashMap<>();
+
+    /**
+     * Read an environment file, parsing it only if it changed since it was cached.
+     *
+     * @param file environment file
+     * @return the properties of the file, {@code null} if it is empty
+     * @throws IOException if the file can not be read
+     */
+    public static EnvironmentProperties read(Path file) throws IOException {
+        Path path = file.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        String fileIdentity = String.format(
+            "%s|%d|%d|%s",
+            path,
+            attributes.size(),
+            attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+            attributes.fileKey()
+        );
+
+        Properties entry = ENTRIES.get(path);
+        if (!isValid(entry, fileIdentity)) {
+            entry = readEntry(path, fileIdentity);
+        }
+        if (entry != null) {
+            ENTRIES.put(path, entry);
+            return toEnvironmentProperties(entry);
+        }
+
+        EnvironmentProperties environmentProperties = EnvironmentFileParser.parse(path);
+
+        long age = System.currentTimeMillis() - attributes.lastModifiedTime().toMillis();
+        if (environmentProperties != null && age > RECENT_MODIFICATION_MILLIS) {
+            entry = toProperties(environmentProperties);
+            entry.setProperty(KEY_VERSION, VERSION);
+            entry.setProperty(KEY_FILE, fileIdentity);
+            ENTRIES.put(path, entry);
+            writeEntry(path, entry);
+        }
+
+        return environmentProperties;
+    }
+
+    private static boolean isValid(Properties entry, String fileIdentity) {
+        return entry != null && VERSION.equals(entry.getProperty(KEY_VERSION)) && fileIdentity.equals(entry.getProperty(KEY_FILE));
+    }
+
+    static Path getEntryFile(Path path) {
+        String fileName = UUID.nameUUIDFromBytes(path.toString().getBytes(StandardCharsets.UTF_8)) + ".properties";
+
+        return FileUtils.getUserDirectory().resolve(Constants.KUFLOW_CACHE_DIRECTORY).resolve(fileName);
+    }
+
+    /**
+     * A missing, unreadable or outdated entry is a cache miss.
+     */
+    private static Properties readEntry(Path path, String fileIdentity) {
+        Properties entry = new Properties();
+        try (InputStream inputStream = Files.newInputStream(getEntryFile(path))) {
+            entry.load(inputStream);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+
+        if (!isValid(entry, fileIdentity)) {
+            return null;
+        }
+
+        String clientSecretStart = entry.getProperty(KEY_CLIENT_SECRET_START);
+        String clientSecretEnd = entry.getProperty(KEY_CLIENT_SECRET_END);
+        if (clientSecretStart != null && clientSecretEnd != null) {
+            try {
+                String clientSecret = readContent(path).substring(Integer.parseInt(clientSecretStart), Integer.parseInt(clientSecretEnd));
+                entry.setProperty(KEY_CLIENT_SECRET, clientSecret);
+            } catch (IOException | IndexOutOfBoundsException | NumberFormatException e) {
+                return null;
+            }
+        }
+
+        return entry;
+    }
+
+    /**
+     * The cache is an optimization, failing to write it does not fail the command. An entry that can not be replaced is
+     * removed, so a previous version of it is not kept.
+     */
+    private static void writeEntry(Path path, Properties entry) {
+        Path entryFile = getEntryFile(path);
+        try {
+            Properties storedEntry = toStoredEntry(path, entry);
+            if (storedEntry == null) {
+                Files.deleteIfExists(entryFile);
+                return;
+            }
+
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            storedEntry.store(content, "kuflowctl environment file cache");
+            FileUtils.writePrivateFile(entryFile, content.toByteArray());
+        } catch (IOException e) {}
+    }
+
+    /**
+     * Entry without the client secret, replaced by its position in the environment file, {@code null} if the secret
+     * can not be found in the file.
+     */
+    private static Properties toStoredEntry(Path path, Properties entry) {
+        Properties storedEntry = new Properties();
+        storedEntry.putAll(entry);
+
+        String clientSecret = (String) storedEntry.remove(KEY_CLIENT_SECRET);
+        if (clientSecret == null) {
+            return storedEntry;
+        }
+
+        try {
+            String content = readContent(path);
+            int[] position = EnvironmentFileParser.findClientSecret(content);
+            if (position == null || !clientSecret.equals(content.substring(position[0], position[1]))) {
+                return null;
+            }
+
+            storedEntry.setProperty(KEY_CLIENT_SECRET_START, String.valueOf(position[0]));
+            storedEntry.setProperty(KEY_CLIENT_SECRET_END, String.valueOf(position[1]));
+        } catch (IOException | IndexOutOfBoundsException e) {
+            return null;
+        }
+
+        return storedEntry;
+    }
+
+    private static String readContent(Path path) throws IOException {
+        String content = Files.readString(path, StandardCharsets.UTF_8);
+
+        return content.startsWith("\uFEFF") ? content.substring(1) : content;
+    }
+
+    static Properties toProperties(EnvironmentProperties environmentProperties) {
+        Properties properties = new Properties();
+        for (Mapping mapping : MAPPINGS) {
+            Object value = mapping.get(environmentProperties);
+            if (value != null) {
+                properties.setProperty(mapping.key, value instanceof Enum ? ((Enum<?>) value).name() : value.toString());
+            }
+        }
+
+        return properties;
+    }
+
+    static EnvironmentProperties toEnvironmentProperties(Properties properties) {
+        EnvironmentProperties environmentProperties = new EnvironmentProperties();
+        for (Mapping mapping : MAPPINGS) {
+            String value = properties.getProperty(mapping.key);
+            mapping.set(environmentProperties, value != null ? mapping.parser.apply(value) : null);
+        }
+
+        return environmentProperties;
+    }
+
+    /**
+     * A property for each field with a value, named in kebab-case, and a prefix for each field with nested properties,
+     * whose type is declared in {@link EnvironmentProperties}. A field of any other type fails, so no property is
+     * silently left out of the cache.
+     */
+    private static List<Mapping> mappings(Class<?> type, String prefix, List<Field> parents) {
+        List<Mapping> mappings = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                continue;
+            }
+
+            field.setAccessible(true);
+            String key = prefix + toKebabCase(field.getName());
+            List<Field> path = new ArrayList<>(parents);
+            path.add(field);
+
+            Class<?> fieldType = field.getType();
+            if (fieldType.getDeclaringClass() == EnvironmentProperties.class) {
+                mappings.addAll(mappings(fieldType, key + ".", path));
+            } else {
+                mappings.add(new Mapping(key, path, parser(key, fieldType)));
+            }
+        }
+
+        return mappings;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Function<String, Object> parser(String key, Class<?> type) {
+        if (type == String.class) {
+            return value -> value;
+        } else if (type == Integer.class) {
+            return Integer::valueOf;
+        } else if (type == Long.class) {
+            return Long::valueOf;
+        } else if (type == Boolean.class) {
+            return Boolean::valueOf;
+        } else if (type.isEnum()) {
+            return value -> Enum.valueOf((Class<? extends Enum>) type, value);
+        }
+
+        throw new IllegalStateException(String.format("Environment property %s of type %s can not be cached", key, type.getName()));
+    }
+
+    private static String toKebabCase(String name) {
+        StringBuilder kebabCase = new StringBuilder();
+        for (char character : name.toCharArray()) {
+            if (Character.isUpperCase(character)) {
+                kebabCase.append('-').append(Character.toLowerCase(character));
+            } else {
+                kebabCase.append(character);
+            }
+        }
+
+        return kebabCase.toString();
+    }
+
+    private static class Mapping {
+
+        private final String key;
+
+        private final List<Field> path;
+
+        private final Function<String, Object> parser;
+
+        Mapping(String key, List<Field> path, Function<String, Object> parser) {
+            this.key = key;
+            this.path = path;
+            this.parser = parser;
+        }
+
+        Class<?> getType() {
+            return this.path.get(this.path.size() - 1).getType();
+        }
+
+        Object get(Object root) {
+            Object value = root;
+            try {
+                for (Field field : this.path) {
+                    if (value == null) {
+                        return null;
+                    }
+                    value = field.get(value);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(String.format("Error reading environment property %s", this.key), e);
+            }
+
+            return value;
+        }
+
+        /**
+         * Nested properties are created when they are missing.
+         */
+        void set(Object root, Object value) {
+            Object target = root;
+            try {
+                for (Field field : this.path.subList(0, this.path.size() - 1)) {
+                    Object nested = field.get(target);
+                    if (nested == null) {
+                        nested = field.getType().getDeclaredConstructor().newInstance();
+                        field.set(target, nested);
+                    }
+                    target = nested;
+                }
+                this.path.get(this.path.size() - 1).set(target, value);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(String.format("Error writing environment property %s", this.key), e);
+            }
+        }
+    }
+}
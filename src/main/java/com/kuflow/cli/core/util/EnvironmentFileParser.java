@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import static java.util.stream.Collectors.joining;
+
+import com.kuflow.cli.core.model.EnvironmentProperties;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.introspector.Property;
+import org.yaml.snakeyaml.introspector.PropertyUtils;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+
+/**
+ * Parser of environment files in YAML format, with property names in kebab-case. This is the only class using
+ * snakeyaml, so it is not loaded while the configuration is found in {@link EnvironmentFileCache}.
+ */
+public class EnvironmentFileParser {
+
+    public static EnvironmentProperties parse(Path file) throws IOException {
+        Constructor constructor = new Constructor(EnvironmentProperties.class);
+        constructor.setPropertyUtils(
+            new PropertyUtils() {
+                @Override
+                public Property getProperty(Class<?> type, String name) {
+                    // To Camel-case
+                    name =
+                        Arrays
+                            .stream(name.split("-"))
+                            .map(s -> Character.toUpperCase(s.charAt(0)) + s.substring(1).toLowerCase())
+                            .collect(joining());
+                    // First character in lower case
+                    name = Character.toLowerCase(name.charAt(0)) + name.substring(1);
+                    return super.getProperty(type, name);
+                }
+            }
+        );
+
+        Yaml yaml = new Yaml(constructor);
+
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            return yaml.load(inputStream);
+        }
+    }
+
+    /**
+     * Find the client secret in the content of an environment file, so it can be read again without parsing the file.
+     * Only secrets written as plain scalars are found.
+     *
+     * @param content content of the environment file
+     * @return the start and end index of the secret in the content, {@code null} if it is not found
+     */
+    public static int[] findClientSecret(String content) {
+        Node secret = getValue(getValue(new Yaml().compose(new StringReader(content)), "kuflow"), "client-secret");
+        if (!(secret instanceof ScalarNode) || !((ScalarNode) secret).isPlain()) {
+            return null;
+        }
+
+        // Marks are indexes of code points
+        int start = content.offsetByCodePoints(0, secret.getStartMark().getIndex());
+        int end = content.offsetByCodePoints(0, secret.getEndMark().getIndex());
+
+        return new int[] { start, end };
+    }
+
+    private static Node getValue(Node node, String key) {
+        if (!(node instanceof MappingNode)) {
+            return null;
+        }
+
+        for (NodeTuple tuple : ((MappingNode) node).getValue()) {
+            Node keyNode = tuple.getKeyNode();
+            if (keyNode instanceof ScalarNode && key.equals(((ScalarNode) keyNode).getValue())) {
+                return tuple.getValueNode();
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.kuflow.cli.core.enumeration.SymlinkPolicy;
+import java.io.IOException;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Walks directory trees and hands each regular file found to a consumer as soon as it is found, so the files can be
+ * processed while the walk goes on. Only the open directories of the current branch are kept in memory, whatever the
+ * size of the tree.
+ * <p>
+ *   Include and exclude patterns are globs matched against the path of the files relative to the walked directory or,
+ *   when they have no {@code /}, against their name. A directory matching an exclude pattern is not walked.
+ * </p>
+ */
+public class FileTreeWalker {
+
+    private static final Logger LOGGER = LogManager.getLogger(FileTreeWalker.class);
+
+    private final List<String> includes;
+
+    private final List<String> excludes;
+
+    private final int maxDepth;
+
+    private final SymlinkPolicy symlinkPolicy;
+
+    public FileTreeWalker(List<String> includes, List<String> excludes, int maxDepth, SymlinkPolicy symlinkPolicy) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException(String.format("Max depth must be greater than zero, was %d", maxDepth));
+        }
+
+        this.includes = includes != null ? includes : Collections.emptyList();
+        this.excludes = excludes != null ? excludes : Collections.emptyList();
+        this.maxDepth = maxDepth;
+        this.symlinkPolicy = symlinkPolicy;
+    }
+
+    /**
+     * Walk a directory. The directory itself is walked even if it is a symbolic link.
+     *
+     * @param directory directory to walk
+     * @param fileConsumer consumer of the regular files found, with paths resolved against the directory
+     * @param errorConsumer consumer of the files or directories that could not be read
+     * @throws IOException if the directory can not be walked
+     */
+    public void walk(Path directory, Consumer<Path> fileConsumer, BiConsumer<Path, IOException> errorConsumer) throws IOException {
+        Path start = Files.isSymbolicLink(directory) ? directory.toRealPath() : directory;
+        List<PathMatcher> includeMatchers = this.toMatchers(start, this.includes);
+        List<PathMatcher> excludeMatchers = this.toMatchers(start, this.excludes);
+        Set<FileVisitOption> options = (this.symlinkPolicy == SymlinkPolicy.FOLLOW)
+            ? EnumSet.of(FileVisitOption.FOLLOW_LINKS)
+            : EnumSet.noneOf(FileVisitOption.class);
+
+        Files.walkFileTree(
+            start,
+            options,
+            this.maxDepth,
+            new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                    if (!dir.equals(start) && matches(excludeMatchers, start.relativize(dir))) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (!FileTreeWalker.this.isRegularFile(file, attributes)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    Path relativePath = start.relativize(file);
+                    if (matches(excludeMatchers, relativePath)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    if (!includeMatchers.isEmpty() && !matches(includeMatchers, relativePath)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    fileConsumer.accept(directory.resolve(relativePath));
+
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                    if (file.equals(start)) {
+                        throw e;
+                    }
+
+                    // Directories that can not be opened are not visited before failing
+                    if (matches(excludeMatchers, start.relativize(file))) {
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    if (e instanceof FileSystemLoopException) {
+                        LOGGER.warn("Skipping {}, it is a symbolic link to one of its parent directories", file);
+                    } else {
+                        errorConsumer.accept(directory.resolve(start.relativize(file)), e);
+                    }
+
+                    return FileVisitResult.CONTINUE;
+                }
+            }
+        );
+    }
+
+    private boolean isRegularFile(Path file, BasicFileAttributes attributes) {
+        if (!attributes.isSymbolicLink()) {
+            // Directories at the maximum depth are visited as files
+            return attributes.isRegularFile();
+        }
+
+        return this.symlinkPolicy == SymlinkPolicy.FILES && Files.isRegularFile(file);
+    }
+
+    private List<PathMatcher> toMatchers(Path start, List<String> patterns) {
+        return patterns
+            .stream()
+            .map(pattern -> {
+                PathMatcher matcher = start.getFileSystem().getPathMatcher("glob:" + pattern);
+                if (pattern.contains("/")) {
+                    return matcher;
+                }
+
+                return (PathMatcher) path -> path.getFileName() != null && matcher.matches(path.getFileName());
+            })
+            .collect(Collectors.toList());
+    }
+
+    private static boolean matches(List<PathMatcher> matchers, Path relativePath) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(relativePath)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
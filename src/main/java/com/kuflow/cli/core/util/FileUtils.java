@@ -22,44 +22,114 @@
  */
 package com.kuflow.cli.core.util;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.URLConnection;
+import java.io.OutputStream;
+import java.math.BigInteger;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 public class FileUtils {
 
+    /**
+     * Guess the MIME type of a file from its extension or, when it is not known, from its first bytes.
+     *
+     * @param file file to inspect
+     * @return the MIME type
+     */
     public static String guessMimeType(Path file) {
-        String mimeType = null;
+        return Metrics.time(Metrics.PHASE_MIME_DETECTION, () -> MimeTypeDetector.detect(file));
+    }
 
-        if (!Files.exists(file)) {
-            return null;
-        }
+    /**
+     * Guess the MIME type of a stream that can not be read twice. The name is used first, and then the first bytes
+     * of the stream, that must support {@link InputStream#mark}.
+     *
+     * @param fileName name of the content
+     * @param inputStream stream supporting mark and reset
+     * @return the MIME type
+     */
+    public static String guessMimeType(String fileName, InputStream inputStream) {
+        return Metrics.time(Metrics.PHASE_MIME_DETECTION, () -> MimeTypeDetector.detect(fileName, inputStream));
+    }
 
+    /**
+     * Compute the SHA-256 hash of a file content.
+     *
+     * @param file file to hash
+     * @return the hash as a lowercase hexadecimal string
+     * @throws IOException if the file can not be read
+     */
+    public static String sha256(Path file) throws IOException {
+        MessageDigest digest;
         try {
-            mimeType = Files.probeContentType(file);
-        } catch (IOException e) {}
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
 
-        if (mimeType != null) {
-            return mimeType;
+        try (InputStream inputStream = new DigestInputStream(Files.newInputStream(file), digest)) {
+            inputStream.transferTo(OutputStream.nullOutputStream());
         }
 
-        mimeType = URLConnection.guessContentTypeFromName(file.getFileName().toString());
+        return String.format("%064x", new BigInteger(1, digest.digest()));
+    }
 
-        if (mimeType != null) {
-            return mimeType;
+    /**
+     * Directory, in the user's home, where kuflowctl keeps its own files.
+     *
+     * @return the user directory, it may not exist
+     */
+    public static Path getUserDirectory() {
+        return Paths.get(System.getProperty("user.home"), Constants.KUFLOW_USER_DIRECTORY);
+    }
+
+    /**
+     * Create a directory, and its missing parents, only accessible by the owner when the file system supports it.
+     *
+     * @param directory directory to create
+     * @return the directory
+     * @throws IOException if the directory can not be created
+     */
+    public static Path createPrivateDirectories(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            Files.createDirectories(directory);
+            restrictToOwner(directory);
         }
 
-        try (InputStream inputStream = new FileInputStream(file.toFile())) {
-            mimeType = URLConnection.guessContentTypeFromStream(inputStream);
-        } catch (IOException e) {}
+        return directory;
+    }
 
-        if (mimeType != null) {
-            return mimeType;
+    /**
+     * Atomically write a file only readable by the owner when the file system supports it.
+     *
+     * @param file file to write
+     * @param content content of the file
+     * @throws IOException if the file can not be written
+     */
+    public static void writePrivateFile(Path file, byte[] content) throws IOException {
+        Path directory = createPrivateDirectories(file.toAbsolutePath().getParent());
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            restrictToOwner(temporaryFile);
+            Files.write(temporaryFile, content);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
         }
+    }
 
-        return "application/octet-stream";
+    private static void restrictToOwner(Path path) throws IOException {
+        if (Files.getFileStore(path).supportsFileAttributeView(PosixFileAttributeView.class)) {
+            String permissions = Files.isDirectory(path) ? "rwx------" : "rw-------";
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString(permissions));
+        }
     }
 }
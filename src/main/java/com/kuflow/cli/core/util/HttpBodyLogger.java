@@ -0,0 +1,214 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.azure.core.http.HttpHeader;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.HttpLogOptions;
+import com.azure.core.http.policy.HttpRequestLogger;
+import com.azure.core.http.policy.HttpRequestLoggingContext;
+import com.azure.core.http.policy.HttpResponseLogger;
+import com.azure.core.http.policy.HttpResponseLoggingContext;
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.FluxUtil;
+import com.azure.core.util.UrlBuilder;
+import com.azure.core.util.logging.ClientLogger;
+import com.azure.core.util.logging.LogLevel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import reactor.core.publisher.Mono;
+
+/**
+ * Logs HTTP requests and responses with their bodies, limited to textual bodies and truncated to a number of bytes.
+ * <p>
+ *   Binary and multipart bodies, like uploaded documents, are never logged. Request bodies are only logged when their
+ *   length is within the limit, as reading the beginning of a streamed body would require buffering it. Textual response
+ *   bodies are buffered, as the client reads them entirely to deserialize them anyway.
+ * </p>
+ */
+public class HttpBodyLogger implements HttpRequestLogger, HttpResponseLogger {
+
+    private static final Set<String> TEXT_CONTENT_TYPES = Set.of(
+        "application/json",
+        "application/problem+json",
+        "application/xml",
+        "application/x-www-form-urlencoded"
+    );
+
+    private static final String REDACTED = "REDACTED";
+
+    /**
+     * Separator of the parts of a message, the client logger removes line breaks.
+     */
+    private static final String SEPARATOR = " | ";
+
+    private final Set<String> allowedHeaderNames;
+
+    private final Set<String> allowedQueryParamNames;
+
+    private final int bodyLimit;
+
+    public HttpBodyLogger(HttpLogOptions logOptions, int bodyLimit) {
+        if (bodyLimit < 0) {
+            throw new IllegalArgumentException(String.format("Log body limit must not be negative. [%d]", bodyLimit));
+        }
+
+        this.allowedHeaderNames =
+            logOptions.getAllowedHeaderNames().stream().map(name -> name.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        this.allowedQueryParamNames = logOptions.getAllowedQueryParamNames();
+        this.bodyLimit = bodyLimit;
+    }
+
+    @Override
+    public Mono<Void> logRequest(ClientLogger logger, HttpRequestLoggingContext loggingContext) {
+        this.logRequestSync(logger, loggingContext);
+
+        return Mono.empty();
+    }
+
+    @Override
+    public void logRequestSync(ClientLogger logger, HttpRequestLoggingContext loggingContext) {
+        if (!logger.canLogAtLevel(LogLevel.INFORMATIONAL)) {
+            return;
+        }
+
+        HttpRequest request = loggingContext.getHttpRequest();
+        StringBuilder message = new StringBuilder()
+            .append("--> ")
+            .append(request.getHttpMethod())
+            .append(' ')
+            .append(this.redactUrl(request.getUrl().toString()));
+        this.appendHeaders(message, request.getHeaders());
+
+        String contentType = request.getHeaders().getValue("Content-Type");
+        BinaryData body = request.getBodyAsBinaryData();
+        long contentLength = contentLength(request.getHeaders());
+        if (body == null || contentLength == 0) {
+            message.append(SEPARATOR).append("(empty body)");
+        } else if (!isText(contentType)) {
+            message.append(SEPARATOR).append(String.format("(%s body not logged)", contentType));
+        } else if (contentLength < 0 || contentLength > this.bodyLimit) {
+            message.append(SEPARATOR).append(String.format("(body not logged, longer than %d bytes)", this.bodyLimit));
+        } else {
+            message.append(SEPARATOR).append(body.toString());
+        }
+
+        logger.info(message.toString());
+    }
+
+    @Override
+    public Mono<HttpResponse> logResponse(ClientLogger logger, HttpResponseLoggingContext loggingContext) {
+        HttpResponse response = loggingContext.getHttpResponse();
+        if (!logger.canLogAtLevel(LogLevel.INFORMATIONAL)) {
+            return Mono.just(response);
+        }
+
+        StringBuilder message = this.describeResponse(loggingContext);
+        String contentType = response.getHeaderValue("Content-Type");
+        if (!isText(contentType)) {
+            logger.info(message.append(SEPARATOR).append(String.format("(%s body not logged)", contentType)).toString());
+
+            return Mono.just(response);
+        }
+
+        HttpResponse bufferedResponse = response.buffer();
+
+        return FluxUtil
+            .collectBytesInByteBufferStream(bufferedResponse.getBody())
+            .defaultIfEmpty(new byte[0])
+            .map(body -> {
+                logger.info(message.append(SEPARATOR).append(this.truncate(body)).toString());
+                return bufferedResponse;
+            });
+    }
+
+    @Override
+    public HttpResponse logResponseSync(ClientLogger logger, HttpResponseLoggingContext loggingContext) {
+        return this.logResponse(logger, loggingContext).block();
+    }
+
+    private StringBuilder describeResponse(HttpResponseLoggingContext loggingContext) {
+        HttpResponse response = loggingContext.getHttpResponse();
+        StringBuilder message = new StringBuilder()
+            .append("<-- ")
+            .append(response.getStatusCode())
+            .append(' ')
+            .append(this.redactUrl(response.getRequest().getUrl().toString()))
+            .append(" (")
+            .append(loggingContext.getResponseDuration().toMillis())
+            .append(" ms)");
+        this.appendHeaders(message, response.getHeaders());
+
+        return message;
+    }
+
+    private void appendHeaders(StringBuilder message, HttpHeaders headers) {
+        for (HttpHeader header : headers) {
+            String value = this.allowedHeaderNames.contains(header.getName().toLowerCase(Locale.ROOT)) ? header.getValue() : REDACTED;
+            message.append(SEPARATOR).append(header.getName()).append(": ").append(value);
+        }
+    }
+
+    private String redactUrl(String url) {
+        UrlBuilder urlBuilder = UrlBuilder.parse(url);
+        for (Map.Entry<String, String> parameter : Map.copyOf(urlBuilder.getQuery()).entrySet()) {
+            if (!this.allowedQueryParamNames.contains(parameter.getKey())) {
+                urlBuilder.setQueryParameter(parameter.getKey(), REDACTED);
+            }
+        }
+
+        return urlBuilder.toString();
+    }
+
+    private String truncate(byte[] body) {
+        if (body.length <= this.bodyLimit) {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+
+        return new String(body, 0, this.bodyLimit, StandardCharsets.UTF_8) + String.format("... (%d bytes)", body.length);
+    }
+
+    private static long contentLength(HttpHeaders headers) {
+        String contentLength = headers.getValue("Content-Length");
+        try {
+            return contentLength != null ? Long.parseLong(contentLength) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static boolean isText(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+
+        String mimeType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+
+        return mimeType.startsWith("text/") || mimeType.endsWith("+json") || TEXT_CONTENT_TYPES.contains(mimeType);
+    }
+}
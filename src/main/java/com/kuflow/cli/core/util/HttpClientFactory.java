@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.netty.NettyAsyncHttpClientBuilder;
+import com.kuflow.cli.core.enumeration.HttpClientType;
+import com.kuflow.cli.core.enumeration.HttpVersion;
+import com.kuflow.cli.core.model.EnvironmentProperties.HttpProperties;
+import com.kuflow.cli.core.model.EnvironmentProperties.KuFlowProperties;
+import io.netty.channel.ChannelOption;
+import java.net.ProxySelector;
+import java.net.http.HttpClient.Version;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Creation of the HTTP client used to connect to KuFlow from the timeout and the HTTP properties of the configuration.
+ * <p>
+ *   The Netty client keeps a pool of connections, each one sending a request at a time with HTTP/1.1. The JDK client
+ *   negotiates HTTP/2 with TLS endpoints and multiplexes the requests over a single connection. Its pool and sockets are configured with
+ *   the {@code jdk.httpclient.*} system properties, that apply to the whole process and are only set here when they
+ *   are not given in the command line of the JVM.
+ * </p>
+ */
+public class HttpClientFactory {
+
+    private static final String CONNECTION_PROVIDER_NAME = "kuflow";
+
+    /**
+     * Create the HTTP client for the given properties.
+     *
+     * @param kuflow properties of the connection to KuFlow
+     * @return the HTTP client, {@code null} when nothing is configured, to use the default one of the KuFlow client
+     */
+    public static HttpClient create(KuFlowProperties kuflow) {
+        HttpProperties http = Objects.requireNonNullElseGet(kuflow.getHttp(), HttpProperties::new);
+        requirePositive("Timeout", kuflow.getTimeout());
+        requirePositive("Maximum connections", http.getMaxConnections());
+        requirePositive("Connection idle timeout", http.getConnectionIdleTimeout());
+        requirePositive("Socket buffer size", http.getSocketBufferSize());
+
+        Duration timeout = kuflow.getTimeout() != null ? Duration.ofMillis(kuflow.getTimeout()) : null;
+        if (http.getClient() == HttpClientType.JDK) {
+            return createJdkHttpClient(http, timeout, isSecure(kuflow.getEndpoint()));
+        }
+
+        if (http.getVersion() == HttpVersion.HTTP_2) {
+            throw new IllegalArgumentException(
+                String.format("HTTP/2 is only supported by the %s HTTP client. [%s]", HttpClientType.JDK.getName(), http.getClient())
+            );
+        }
+
+        boolean configured =
+            http.getClient() != null ||
+            http.getVersion() != null ||
+            http.getMaxConnections() != null ||
+            http.getConnectionIdleTimeout() != null ||
+            http.getSocketBufferSize() != null ||
+            timeout != null;
+
+        return configured ? createNettyHttpClient(http, timeout) : null;
+    }
+
+    private static HttpClient createNettyHttpClient(HttpProperties http, Duration timeout) {
+        ConnectionProvider.Builder connectionProvider = ConnectionProvider.builder(CONNECTION_PROVIDER_NAME);
+        if (http.getMaxConnections() != null) {
+            connectionProvider.maxConnections(http.getMaxConnections());
+        }
+        if (http.getConnectionIdleTimeout() != null) {
+            connectionProvider.maxIdleTime(Duration.ofMillis(http.getConnectionIdleTimeout()));
+        }
+
+        reactor.netty.http.client.HttpClient nettyHttpClient = reactor.netty.http.client.HttpClient.create(connectionProvider.build());
+        if (http.getSocketBufferSize() != null) {
+            nettyHttpClient =
+                nettyHttpClient
+                    .option(ChannelOption.SO_SNDBUF, http.getSocketBufferSize())
+                    .option(ChannelOption.SO_RCVBUF, http.getSocketBufferSize());
+        }
+
+        NettyAsyncHttpClientBuilder builder = new NettyAsyncHttpClientBuilder(nettyHttpClient);
+        if (timeout != null) {
+            // Inactivity timeouts, so uploads of large documents are not interrupted while they make progress
+            builder.connectTimeout(timeout).writeTimeout(timeout).responseTimeout(timeout).readTimeout(timeout);
+        }
+
+        return builder.build();
+    }
+
+    private static HttpClient createJdkHttpClient(HttpProperties http, Duration timeout, boolean secure) {
+        setDefaultProperty("jdk.httpclient.connectionPoolSize", http.getMaxConnections());
+        if (http.getConnectionIdleTimeout() != null) {
+            long seconds = TimeUnit.MILLISECONDS.toSeconds(http.getConnectionIdleTimeout() + 999);
+            setDefaultProperty("jdk.httpclient.keepalive.timeout", seconds);
+        }
+        setDefaultProperty("jdk.httpclient.sendBufferSize", http.getSocketBufferSize());
+        setDefaultProperty("jdk.httpclient.receiveBufferSize", http.getSocketBufferSize());
+
+        // HTTP/2 is negotiated with ALPN over TLS, the upgrade of plain HTTP/1.1 connections is not attempted
+        Version version = secure && http.getVersion() != HttpVersion.HTTP_1_1 ? Version.HTTP_2 : Version.HTTP_1_1;
+        java.net.http.HttpClient.Builder builder = java.net.http.HttpClient.newBuilder().version(version).proxy(ProxySelector.getDefault());
+        if (timeout != null) {
+            builder.connectTimeout(timeout);
+        }
+
+        return new JdkHttpClient(builder.build(), timeout);
+    }
+
+    private static boolean isSecure(String endpoint) {
+        return endpoint == null || !endpoint.startsWith("http://");
+    }
+
+    private static void setDefaultProperty(String name, Object value) {
+        if (value != null && System.getProperty(name) == null) {
+            System.setProperty(name, value.toString());
+        }
+    }
+
+    private static void requirePositive(String name, Number value) {
+        if (value != null && value.longValue() <= 0) {
+            throw new IllegalArgumentException(String.format("%s must be greater than zero. [%s]", name, value));
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpHeader;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.util.CoreUtils;
+import com.azure.core.util.FluxUtil;
+import java.net.URISyntaxException;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import reactor.adapter.JdkFlowAdapter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * HTTP client of the KuFlow client backed by the {@link java.net.http.HttpClient} of the JDK, that negotiates HTTP/2
+ * with TLS endpoints and then multiplexes concurrent requests over a single connection.
+ * <p>
+ *   Request and response bodies are streamed without being buffered. The timeout is an inactivity timeout, like the one
+ *   of the Netty client, so slow uploads and downloads are not interrupted while they make progress. The timeout of a
+ *   JDK request also covers sending its body, so it is only used for requests without body. Other requests fail when
+ *   their body stalls, or when the response headers do not arrive in time once the body is sent.
+ * </p>
+ */
+public class JdkHttpClient implements HttpClient {
+
+    /**
+     * Headers set by the JDK client itself, that it does not allow to set on Java 11.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of(
+        "connection",
+        "content-length",
+        "date",
+        "expect",
+        "from",
+        "host",
+        "referer",
+        "upgrade",
+        "via",
+        "warning"
+    );
+
+    private final java.net.http.HttpClient httpClient;
+
+    private final Duration timeout;
+
+    /**
+     * @param httpClient JDK client sending the requests
+     * @param timeout maximum time waiting for data while sending a request or receiving its response, {@code null} to
+     *     wait indefinitely
+     */
+    public JdkHttpClient(java.net.http.HttpClient httpClient, Duration timeout) {
+        this.httpClient = httpClient;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Mono<HttpResponse> send(HttpRequest request) {
+        return Mono.defer(() -> this.exchange(request)).map(response -> new JdkHttpResponse(request, response, this.timeout));
+    }
+
+    private Mono<java.net.http.HttpResponse<Flow.Publisher<List<ByteBuffer>>>> exchange(HttpRequest request) {
+        java.net.http.HttpRequest.Builder builder = newRequestBuilder(request);
+        String method = request.getHttpMethod().toString();
+        Flux<ByteBuffer> body = request.getBody();
+        String contentLength = request.getHeaders().getValue("Content-Length");
+        long length = contentLength != null ? Long.parseLong(contentLength) : -1;
+
+        if (body == null || length == 0) {
+            if (this.timeout != null) {
+                builder.timeout(this.timeout);
+            }
+
+            return this.sendAsync(builder.method(method, BodyPublishers.noBody()));
+        }
+
+        if (this.timeout == null) {
+            return this.sendAsync(builder.method(method, toBodyPublisher(body, length)));
+        }
+
+        // The body must make progress, and the response headers arrive in time once it is sent
+        Sinks.Empty<Void> bodySent = Sinks.empty();
+        Flux<ByteBuffer> timedBody = body.timeout(this.timeout).doOnComplete(bodySent::tryEmitEmpty);
+        Mono<Long> responseTimeout = bodySent.asMono().then(Mono.delay(this.timeout));
+
+        return this.sendAsync(builder.method(method, toBodyPublisher(timedBody, length))).timeout(responseTimeout);
+    }
+
+    private Mono<java.net.http.HttpResponse<Flow.Publisher<List<ByteBuffer>>>> sendAsync(java.net.http.HttpRequest.Builder builder) {
+        return Mono.fromFuture(this.httpClient.sendAsync(builder.build(), BodyHandlers.ofPublisher()));
+    }
+
+    private static java.net.http.HttpRequest.Builder newRequestBuilder(HttpRequest request) {
+        java.net.http.HttpRequest.Builder builder;
+        try {
+            builder = java.net.http.HttpRequest.newBuilder(request.getUrl().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(String.format("Invalid request URL %s", request.getUrl()), e);
+        }
+
+        for (HttpHeader header : request.getHeaders()) {
+            if (!RESTRICTED_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                for (String value : header.getValuesList()) {
+                    builder.header(header.getName(), value);
+                }
+            }
+        }
+
+        return builder;
+    }
+
+    /**
+     * @param length length of the body, negative when it is not known
+     */
+    private static BodyPublisher toBodyPublisher(Flux<ByteBuffer> body, long length) {
+        if (length < 0) {
+            // Sent chunked with HTTP/1.1
+            return BodyPublishers.fromPublisher(JdkFlowAdapter.publisherToFlowPublisher(body));
+        }
+
+        return BodyPublishers.fromPublisher(JdkFlowAdapter.publisherToFlowPublisher(body), length);
+    }
+
+    private static final class JdkHttpResponse extends HttpResponse {
+
+        private final int statusCode;
+
+        private final HttpHeaders headers;
+
+        private final Flow.Publisher<List<ByteBuffer>> body;
+
+        private final Duration timeout;
+
+        private final AtomicBoolean bodySubscribed = new AtomicBoolean();
+
+        private JdkHttpResponse(
+            HttpRequest request,
+            java.net.http.HttpResponse<Flow.Publisher<List<ByteBuffer>>> response,
+            Duration timeout
+        ) {
+            super(request);
+            this.statusCode = response.statusCode();
+            this.headers = new HttpHeaders();
+            for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+                for (String value : header.getValue()) {
+                    this.headers.add(header.getKey(), value);
+                }
+            }
+            this.body = response.body();
+            this.timeout = timeout;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return this.statusCode;
+        }
+
+        @Override
+        public String getHeaderValue(String name) {
+            return this.headers.getValue(name);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.headers;
+        }
+
+        @Override
+        public Flux<ByteBuffer> getBody() {
+            return Flux.defer(() -> {
+                if (!this.bodySubscribed.compareAndSet(false, true)) {
+                    return Flux.error(new IllegalStateException("The body of the response can only be read once"));
+                }
+
+                Flux<ByteBuffer> body = JdkFlowAdapter.flowPublisherToFlux(this.body).flatMapIterable(Function.identity());
+
+                return this.timeout != null ? body.timeout(this.timeout) : body;
+            });
+        }
+
+        @Override
+        public Mono<byte[]> getBodyAsByteArray() {
+            return FluxUtil.collectBytesFromNetworkResponse(this.getBody(), this.headers);
+        }
+
+        @Override
+        public Mono<String> getBodyAsString() {
+            return this.getBodyAsByteArray().map(bytes -> CoreUtils.bomAwareToString(bytes, this.headers.getValue("Content-Type")));
+        }
+
+        @Override
+        public Mono<String> getBodyAsString(Charset charset) {
+            return this.getBodyAsByteArray().map(bytes -> new String(bytes, charset));
+        }
+
+        /**
+         * A body that was not read is discarded, so the connection is released.
+         */
+        @Override
+        public void close() {
+            if (this.bodySubscribed.compareAndSet(false, true)) {
+                this.body.subscribe(
+                        new Flow.Subscriber<>() {
+                            @Override
+                            public void onSubscribe(Flow.Subscription subscription) {
+                                subscription.cancel();
+                            }
+
+                            @Override
+                            public void onNext(List<ByteBuffer> item) {}
+
+                            @Override
+                            public void onError(Throwable throwable) {}
+
+                            @Override
+                            public void onComplete() {}
+                        }
+                    );
+            }
+        }
+    }
+}
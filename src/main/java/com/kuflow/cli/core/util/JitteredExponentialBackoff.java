@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.azure.core.http.policy.RetryStrategy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Exponential backoff where half of each delay is random, so clients throttled at the same time do not retry at the
+ * same time. Delays requested by the server with a {@code Retry-After} header take precedence, as the
+ * {@link com.azure.core.http.policy.RetryPolicy} using this strategy honors them.
+ * <p>
+ *   Responses are retried on 408, 429 and 5xx statuses, except 501 and 505. Errors are only retried when they are I/O
+ *   errors or timeouts, other errors would fail again the same way.
+ * </p>
+ */
+public class JitteredExponentialBackoff implements RetryStrategy {
+
+    private final int maxRetries;
+
+    private final long baseDelayNanos;
+
+    private final long maxDelayNanos;
+
+    public JitteredExponentialBackoff(int maxRetries, Duration baseDelay, Duration maxDelay) {
+        if (maxRetries < 0 || baseDelay.isNegative() || baseDelay.isZero() || maxDelay.compareTo(baseDelay) < 0) {
+            throw new IllegalArgumentException(
+                String.format("Invalid retry configuration. [maxRetries=%d, baseDelay=%s, maxDelay=%s]", maxRetries, baseDelay, maxDelay)
+            );
+        }
+
+        this.maxRetries = maxRetries;
+        this.baseDelayNanos = baseDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+    }
+
+    @Override
+    public int getMaxRetries() {
+        return this.maxRetries;
+    }
+
+    @Override
+    public boolean shouldRetryException(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || isTimeout(cause)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * @param throwable error of a request
+     * @return whether the error is a timeout of the HTTP client: the ones of the JDK client are {@link IOException}s,
+     *     the ones of Netty are not
+     */
+    public static boolean isTimeout(Throwable throwable) {
+        return throwable instanceof TimeoutException || throwable instanceof io.netty.handler.timeout.TimeoutException;
+    }
+
+    @Override
+    public Duration calculateRetryDelay(int retryAttempts) {
+        // Capped before shifting, so large attempt numbers can not overflow
+        long delay = this.baseDelayNanos << Math.min(retryAttempts, 30);
+        if (delay <= 0 || delay > this.maxDelayNanos) {
+            delay = this.maxDelayNanos;
+        }
+
+        return Duration.ofNanos(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+}
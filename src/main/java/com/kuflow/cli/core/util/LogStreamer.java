@@ -0,0 +1,211 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.kuflow.rest.model.Log;
+import com.kuflow.rest.model.LogLevel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Ship log lines to KuFlow in the background. Consecutive lines with the same level are joined in a single log,
+ * that is sent when it reaches the batch size or when the flush interval elapses. The lines waiting to be sent are
+ * kept in a bounded buffer, and lines offered while it is full are dropped so the producer is never blocked.
+ */
+public class LogStreamer implements AutoCloseable {
+
+    private static final Logger LOGGER = LogManager.getLogger(LogStreamer.class);
+
+    /**
+     * Maximum length of the message of a log, longer lines are truncated.
+     */
+    public static final int MAX_MESSAGE_LENGTH = 4_000;
+
+    private static final Log END_OF_STREAM = new Log();
+
+    private final Consumer<Log> sender;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private final BlockingQueue<Log> queue;
+
+    private final Thread worker;
+
+    private final AtomicLong droppedLines = new AtomicLong();
+
+    private final AtomicLong failedLines = new AtomicLong();
+
+    private long offeredLines;
+
+    /**
+     * Create a streamer and start its background sender.
+     *
+     * @param sender function sending a log to KuFlow
+     * @param bufferSize maximum number of lines waiting to be sent
+     * @param batchSize maximum number of lines joined in a single log
+     * @param flushInterval maximum time a line waits before being sent
+     */
+    public LogStreamer(Consumer<Log> sender, int bufferSize, int batchSize, Duration flushInterval) {
+        if (bufferSize < 1 || batchSize < 1 || flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Buffer size, batch size and flush interval must be greater than zero");
+        }
+
+        this.sender = sender;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.queue = new ArrayBlockingQueue<>(bufferSize + 1);
+        this.worker = new Thread(this::sendLogs, "kuflowctl-log-streamer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queue a line to be sent, without blocking.
+     *
+     * @param level level of the line
+     * @param line line to send
+     * @return false if the buffer is full and the line was dropped
+     */
+    public boolean offer(LogLevel level, String line) {
+        Log log = new Log();
+        log.setLevel(level);
+        log.setMessage(line.length() > MAX_MESSAGE_LENGTH ? line.substring(0, MAX_MESSAGE_LENGTH) : line);
+
+        this.offeredLines++;
+        // One slot is kept for the end of stream mark
+        if (this.queue.remainingCapacity() <= 1 || !this.queue.offer(log)) {
+            this.droppedLines.incrementAndGet();
+
+            return false;
+        }
+
+        return true;
+    }
+
+    public long getOfferedLines() {
+        return this.offeredLines;
+    }
+
+    public long getDroppedLines() {
+        return this.droppedLines.get();
+    }
+
+    public long getFailedLines() {
+        return this.failedLines.get();
+    }
+
+    /**
+     * Send the pending lines and wait for the background sender to finish. A warning is sent if lines were dropped.
+     */
+    @Override
+    public void close() {
+        try {
+            this.queue.put(END_OF_STREAM);
+            this.worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            return;
+        }
+
+        if (this.droppedLines.get() > 0) {
+            Log log = new Log();
+            log.setLevel(LogLevel.WARN);
+            log.setMessage(String.format("%d log lines were dropped because they were produced faster than sent", this.droppedLines.get()));
+            this.send(log, 0);
+        }
+    }
+
+    private void sendLogs() {
+        List<Log> batch = new ArrayList<>();
+        int batchLength = 0;
+        long deadline = 0;
+
+        try {
+            while (true) {
+                long timeout = batch.isEmpty() ? this.flushIntervalNanos : deadline - System.nanoTime();
+                Log log = this.queue.poll(Math.max(timeout, 0), TimeUnit.NANOSECONDS);
+
+                if (log == null || log == END_OF_STREAM) {
+                    this.flush(batch);
+                    batchLength = 0;
+                    if (log == END_OF_STREAM) {
+                        return;
+                    }
+                    continue;
+                }
+
+                boolean fits = batchLength + log.getMessage().length() + 1 <= MAX_MESSAGE_LENGTH;
+                if (!batch.isEmpty() && (batch.get(0).getLevel() != log.getLevel() || !fits)) {
+                    this.flush(batch);
+                    batchLength = 0;
+                }
+
+                if (batch.isEmpty()) {
+                    deadline = System.nanoTime() + this.flushIntervalNanos;
+                }
+                batch.add(log);
+                batchLength += log.getMessage().length() + 1;
+
+                if (batch.size() >= this.batchSize) {
+                    this.flush(batch);
+                    batchLength = 0;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush(List<Log> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Log log = new Log();
+        log.setLevel(batch.get(0).getLevel());
+        log.setMessage(batch.stream().map(Log::getMessage).collect(Collectors.joining("\n")));
+        this.send(log, batch.size());
+        batch.clear();
+    }
+
+    private void send(Log log, int lines) {
+        try {
+            this.sender.accept(log);
+        } catch (RuntimeException e) {
+            this.failedLines.addAndGet(lines);
+            LOGGER.warn("Unable to send {} log lines: {}", lines, e.getMessage());
+        }
+    }
+}
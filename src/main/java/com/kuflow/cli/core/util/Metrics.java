@@ -0,0 +1,385 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.azure.core.util.serializer.JacksonAdapter;
+import com.azure.core.util.serializer.SerializerEncoding;
+import com.kuflow.cli.core.enumeration.MetricsFormat;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Timing of the phases of an invocation, and of the HTTP requests it makes, exported with {@code --metrics}.
+ * <p>
+ *   Timestamps are monotonic, in milliseconds since the process started. Phases and HTTP requests, recorded by
+ *   {@link MetricsPolicy}, are only kept once metrics are enabled, except the first phases, that happen before the
+ *   command line is parsed.
+ * </p>
+ */
+public class Metrics {
+
+    public static final String PHASE_JVM_STARTUP = "jvm_startup";
+
+    public static final String PHASE_LOGGING = "logging";
+
+    public static final String PHASE_EXECUTION = "execution";
+
+    public static final String PHASE_CONFIGURATION = "configuration";
+
+    public static final String PHASE_CLIENT = "client";
+
+    public static final String PHASE_MIME_DETECTION = "mime_detection";
+
+    private static final int MAX_PHASES_BEFORE_ENABLED = 16;
+
+    private static final long ORIGIN_NANOS = System.nanoTime();
+
+    private static final Instant ORIGIN_INSTANT = Instant.now();
+
+    private static final Queue<Phase> PHASES = new ConcurrentLinkedQueue<>();
+
+    private static final Queue<Request> REQUESTS = new ConcurrentLinkedQueue<>();
+
+    private static final AtomicInteger PHASES_BEFORE_ENABLED = new AtomicInteger();
+
+    private static volatile boolean enabled = false;
+
+    private static volatile long startupNanos = -1;
+
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Time a phase, that is recorded when the action completes, even if it fails.
+     *
+     * @param name name of the phase
+     * @param action action to time
+     */
+    public static void time(String name, Runnable action) {
+        time(
+            name,
+            () -> {
+                action.run();
+                return null;
+            }
+        );
+    }
+
+    /**
+     * Time a phase, that is recorded when the action completes, even if it fails.
+     *
+     * @param name name of the phase
+     * @param action action to time
+     * @return the result of the action
+     */
+    public static <T> T time(String name, Supplier<T> action) {
+        Phase phase = new Phase(name, System.nanoTime());
+        try {
+            return action.get();
+        } finally {
+            phase.end();
+        }
+    }
+
+    static Request request(String method, String path) {
+        return new Request(method, path, System.nanoTime());
+    }
+
+    /**
+     * Write the recorded metrics. The file is replaced atomically, so a collector never reads it half written.
+     *
+     * @param file destination file
+     * @param format format of the file
+     * @param command name of the executed command
+     * @param exitCode exit code of the command
+     * @throws IOException if the file can not be written
+     */
+    public static void write(Path file, MetricsFormat format, String command, int exitCode) throws IOException {
+        long endNanos = System.nanoTime();
+        String content = format == MetricsFormat.PROMETHEUS
+            ? toPrometheus(command, exitCode, endNanos)
+            : toJson(command, exitCode, endNanos);
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporaryFile, content.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private static String toJson(String command, int exitCode, long endNanos) throws IOException {
+        List<Map<String, Object>> phases = new ArrayList<>();
+        for (Phase phase : phases()) {
+            Map<String, Object> value = new LinkedHashMap<>();
+            value.put("name", phase.name);
+            value.put("startMs", phase.getStartMillis());
+            value.put("durationMs", phase.getDurationMillis());
+            phases.add(value);
+        }
+
+        List<Map<String, Object>> requests = new ArrayList<>();
+        for (Request request : REQUESTS) {
+            Map<String, Object> value = new LinkedHashMap<>();
+            value.put("method", request.method);
+            value.put("path", request.path);
+            value.put("status", request.status);
+            value.put("startMs", request.getStartMillis());
+            value.put("durationMs", request.getDurationMillis());
+            value.put("bytesSent", request.bytesSent.get());
+            value.put("bytesReceived", request.bytesReceived.get());
+            requests.add(value);
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("command", command);
+        metrics.put("exitCode", exitCode);
+        metrics.put("timestamp", Instant.now().toString());
+        metrics.put("durationMs", toMillis(endNanos));
+        metrics.put("phases", phases);
+        metrics.put("requests", requests);
+
+        return JacksonAdapter.createDefaultSerializerAdapter().serialize(metrics, SerializerEncoding.JSON) + "\n";
+    }
+
+    /**
+     * Text format of the node_exporter textfile collector. Phases with the same name are added up, and requests are
+     * aggregated by method and status.
+     */
+    private static String toPrometheus(String command, int exitCode, long endNanos) {
+        String commandLabel = "command=\"" + escapeLabel(command) + "\"";
+
+        Map<String, double[]> phases = new TreeMap<>();
+        for (Phase phase : phases()) {
+            String labels = String.format("%s,phase=\"%s\"", commandLabel, escapeLabel(phase.name));
+            double[] value = phases.computeIfAbsent(labels, key -> new double[2]);
+            value[0] += phase.getDurationMillis() / 1000;
+            value[1]++;
+        }
+
+        Map<String, double[]> requests = new TreeMap<>();
+        for (Request request : REQUESTS) {
+            String labels = String.format("%s,method=\"%s\",status=\"%d\"", commandLabel, escapeLabel(request.method), request.status);
+            double[] value = requests.computeIfAbsent(labels, key -> new double[5]);
+            value[0]++;
+            value[1] += request.getDurationMillis() / 1000;
+            value[2] = Math.max(value[2], request.getDurationMillis() / 1000);
+            value[3] += request.bytesSent.get();
+            value[4] += request.bytesReceived.get();
+        }
+
+        StringBuilder content = new StringBuilder();
+        appendHeader(content, "kuflowctl_duration_seconds", "Duration of the last invocation.");
+        appendSample(content, "kuflowctl_duration_seconds", commandLabel, toMillis(endNanos) / 1000);
+        appendHeader(content, "kuflowctl_exit_code", "Exit code of the last invocation.");
+        appendSample(content, "kuflowctl_exit_code", commandLabel, exitCode);
+        appendHeader(content, "kuflowctl_last_run_timestamp_seconds", "Time the last invocation finished, in seconds since the epoch.");
+        appendSample(content, "kuflowctl_last_run_timestamp_seconds", commandLabel, System.currentTimeMillis() / 1000.0);
+
+        appendHeader(content, "kuflowctl_phase_duration_seconds", "Time spent in each phase of the last invocation.");
+        phases.forEach((labels, value) -> appendSample(content, "kuflowctl_phase_duration_seconds", labels, value[0]));
+        appendHeader(content, "kuflowctl_phase_count", "Times each phase was executed in the last invocation.");
+        phases.forEach((labels, value) -> appendSample(content, "kuflowctl_phase_count", labels, value[1]));
+
+        appendHeader(content, "kuflowctl_http_requests", "HTTP requests, including retries, of the last invocation.");
+        requests.forEach((labels, value) -> appendSample(content, "kuflowctl_http_requests", labels, value[0]));
+        appendHeader(content, "kuflowctl_http_request_duration_seconds_sum", "Total time until the HTTP responses were received.");
+        requests.forEach((labels, value) -> appendSample(content, "kuflowctl_http_request_duration_seconds_sum", labels, value[1]));
+        appendHeader(content, "kuflowctl_http_request_duration_seconds_max", "Longest time until an HTTP response was received.");
+        requests.forEach((labels, value) -> appendSample(content, "kuflowctl_http_request_duration_seconds_max", labels, value[2]));
+        appendHeader(content, "kuflowctl_http_sent_bytes", "Bytes sent in HTTP request bodies.");
+        requests.forEach((labels, value) -> appendSample(content, "kuflowctl_http_sent_bytes", labels, value[3]));
+        appendHeader(content, "kuflowctl_http_received_bytes", "Bytes received in HTTP response bodies.");
+        requests.forEach((labels, value) -> appendSample(content, "kuflowctl_http_received_bytes", labels, value[4]));
+
+        return content.toString();
+    }
+
+    private static void appendHeader(StringBuilder content, String name, String help) {
+        content.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        content.append("# TYPE ").append(name).append(" gauge\n");
+    }
+
+    private static void appendSample(StringBuilder content, String name, String labels, double value) {
+        String formattedValue = value == Math.rint(value) ? String.valueOf((long) value) : String.format(Locale.ROOT, "%.6f", value);
+        content.append(name).append('{').append(labels).append("} ").append(formattedValue).append('\n');
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Recorded phases, preceded by the start of the JVM until this class was initialized when the start time of the
+     * process is known.
+     */
+    private static List<Phase> phases() {
+        List<Phase> phases = new ArrayList<>();
+        long startupNanos = getStartupNanos();
+        if (startupNanos > 0) {
+            phases.add(new Phase(PHASE_JVM_STARTUP, ORIGIN_NANOS - startupNanos, ORIGIN_NANOS));
+        }
+        phases.addAll(PHASES);
+
+        return phases;
+    }
+
+    /**
+     * Milliseconds since the process started, or since this class was initialized when the start of the process is
+     * not known.
+     */
+    private static double toMillis(long nanos) {
+        return Math.round((getStartupNanos() + nanos - ORIGIN_NANOS) / 1000.0) / 1000.0;
+    }
+
+    /**
+     * Time from the start of the process until this class was initialized, 0 if the start of the process is not known.
+     */
+    private static long getStartupNanos() {
+        if (startupNanos < 0) {
+            startupNanos =
+                ProcessHandle
+                    .current()
+                    .info()
+                    .startInstant()
+                    .map(start -> Math.max(0, Duration.between(start, ORIGIN_INSTANT).toNanos()))
+                    .orElse(0L);
+        }
+
+        return startupNanos;
+    }
+
+    private static class Phase {
+
+        private final String name;
+
+        private final long startNanos;
+
+        private long endNanos;
+
+        private Phase(String name, long startNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+
+        private Phase(String name, long startNanos, long endNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+        }
+
+        double getStartMillis() {
+            return toMillis(this.startNanos);
+        }
+
+        double getDurationMillis() {
+            return Math.round((this.endNanos - this.startNanos) / 1000.0) / 1000.0;
+        }
+
+        void end() {
+            this.endNanos = System.nanoTime();
+            if (enabled || PHASES_BEFORE_ENABLED.getAndIncrement() < MAX_PHASES_BEFORE_ENABLED) {
+                PHASES.add(this);
+            }
+        }
+    }
+
+    static class Request {
+
+        private final String method;
+
+        private final String path;
+
+        private final long startNanos;
+
+        private final AtomicLong bytesSent = new AtomicLong();
+
+        private final AtomicLong bytesReceived = new AtomicLong();
+
+        private volatile long endNanos;
+
+        private volatile int status;
+
+        private Request(String method, String path, long startNanos) {
+            this.method = method;
+            this.path = path;
+            this.startNanos = startNanos;
+        }
+
+        void addBytesSent(long bytes) {
+            this.bytesSent.addAndGet(bytes);
+        }
+
+        void addBytesReceived(long bytes) {
+            this.bytesReceived.addAndGet(bytes);
+        }
+
+        /**
+         * Record the request once its response is received, the bytes of the response body are added while it is read.
+         *
+         * @param status HTTP status, or 0 if no response was received
+         */
+        void complete(int status) {
+            this.endNanos = System.nanoTime();
+            this.status = status;
+            REQUESTS.add(this);
+        }
+
+        double getStartMillis() {
+            return toMillis(this.startNanos);
+        }
+
+        double getDurationMillis() {
+            return Math.round((this.endNanos - this.startNanos) / 1000.0) / 1000.0;
+        }
+    }
+}
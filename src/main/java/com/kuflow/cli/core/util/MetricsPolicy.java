@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpPipelineCallContext;
+import com.azure.core.http.HttpPipelineNextPolicy;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.HttpPipelinePolicy;
+import com.azure.core.util.CoreUtils;
+import com.azure.core.util.FluxUtil;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records each attempt of an HTTP request in {@link Metrics}: the status, the time until the response is received and
+ * the bytes sent and received. Bodies without a known length are counted while they stream, they are never buffered.
+ */
+public class MetricsPolicy implements HttpPipelinePolicy {
+
+    private static final String CONTENT_LENGTH = "Content-Length";
+
+    @Override
+    public Mono<HttpResponse> process(HttpPipelineCallContext context, HttpPipelineNextPolicy next) {
+        HttpRequest request = context.getHttpRequest();
+        Metrics.Request metric = Metrics.request(request.getHttpMethod().name(), request.getUrl().getPath());
+
+        long requestLength = parseContentLength(request.getHeaders().getValue(CONTENT_LENGTH));
+        if (requestLength >= 0) {
+            metric.addBytesSent(requestLength);
+        } else if (request.getBody() != null) {
+            request.setBody(request.getBody().doOnNext(buffer -> metric.addBytesSent(buffer.remaining())));
+        }
+
+        return next
+            .process()
+            .doOnError(e -> metric.complete(0))
+            .map(response -> {
+                metric.complete(response.getStatusCode());
+
+                long responseLength = parseContentLength(response.getHeaderValue(CONTENT_LENGTH));
+                if (responseLength >= 0) {
+                    metric.addBytesReceived(responseLength);
+                    return response;
+                }
+
+                return new MeteredHttpResponse(response, metric);
+            });
+    }
+
+    private static long parseContentLength(String value) {
+        if (value == null) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Response counting the bytes of its body as it is read.
+     */
+    private static class MeteredHttpResponse extends HttpResponse {
+
+        private final HttpResponse response;
+
+        private final Metrics.Request metric;
+
+        MeteredHttpResponse(HttpResponse response, Metrics.Request metric) {
+            super(response.getRequest());
+            this.response = response;
+            this.metric = metric;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return this.response.getStatusCode();
+        }
+
+        @Override
+        public String getHeaderValue(String name) {
+            return this.response.getHeaderValue(name);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.response.getHeaders();
+        }
+
+        @Override
+        public Flux<ByteBuffer> getBody() {
+            return this.response.getBody().doOnNext(buffer -> this.metric.addBytesReceived(buffer.remaining()));
+        }
+
+        @Override
+        public Mono<byte[]> getBodyAsByteArray() {
+            return FluxUtil.collectBytesInByteBufferStream(this.getBody());
+        }
+
+        @Override
+        public Mono<String> getBodyAsString() {
+            return this.getBodyAsByteArray().map(bytes -> CoreUtils.bomAwareToString(bytes, this.getHeaderValue("Content-Type")));
+        }
+
+        @Override
+        public Mono<String> getBodyAsString(Charset charset) {
+            return this.getBodyAsByteArray().map(bytes -> new String(bytes, charset));
+        }
+
+        @Override
+        public void close() {
+            this.response.close();
+        }
+    }
+}
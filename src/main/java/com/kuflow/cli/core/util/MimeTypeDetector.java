@@ -0,0 +1,318 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detect the MIME type of a content from the extension of its name or, when it is not conclusive, from its first bytes,
+ * that are read once and matched against a table of signatures.
+ * <p>
+ *   The MIME type of each extension is resolved once per process, as it may require reading the MIME database of the
+ *   operating system, so contents with a known extension are not read at all.
+ * </p>
+ */
+public class MimeTypeDetector {
+
+    public static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+
+    static final int HEADER_SIZE = 512;
+
+    private static final String NO_MIME_TYPE = "";
+
+    private static final List<Signature> SIGNATURES = new ArrayList<>();
+
+    private static final Map<String, String> MIME_TYPES_BY_EXTENSION = new ConcurrentHashMap<>();
+
+    static {
+        SIGNATURES.add(new Signature("application/pdf").at(0, "%PDF-"));
+        SIGNATURES.add(new Signature("image/png").at(0, 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'));
+        SIGNATURES.add(new Signature("image/jpeg").at(0, 0xff, 0xd8, 0xff));
+        SIGNATURES.add(new Signature("image/gif").at(0, "GIF87a"));
+        SIGNATURES.add(new Signature("image/gif").at(0, "GIF89a"));
+        SIGNATURES.add(new Signature("image/tiff").at(0, 'I', 'I', 0x2a, 0x00));
+        SIGNATURES.add(new Signature("image/tiff").at(0, 'M', 'M', 0x00, 0x2a));
+        SIGNATURES.add(new Signature("image/webp").at(0, "RIFF").at(8, "WEBP"));
+        SIGNATURES.add(new Signature("audio/wav").at(0, "RIFF").at(8, "WAVE"));
+        SIGNATURES.add(new Signature("video/x-msvideo").at(0, "RIFF").at(8, "AVI "));
+        // Reserved bytes and size of the DIB header, as text may also start with "BM"
+        for (int dibHeaderSize : new int[] { 12, 40, 52, 56, 64, 108, 124 }) {
+            SIGNATURES.add(new Signature("image/bmp").at(0, "BM").at(6, 0x00, 0x00, 0x00, 0x00).at(14, dibHeaderSize, 0x00, 0x00, 0x00));
+        }
+        SIGNATURES.add(new Signature("image/x-icon").at(0, 0x00, 0x00, 0x01, 0x00));
+        // ISO base media files, told apart by their major brand
+        for (String brand : new String[] { "heic", "heix", "heim", "heis", "hevc", "hevx" }) {
+            SIGNATURES.add(new Signature("image/heic").at(4, "ftyp").at(8, brand));
+        }
+        SIGNATURES.add(new Signature("image/heif").at(4, "ftyp").at(8, "mif1"));
+        SIGNATURES.add(new Signature("image/heif").at(4, "ftyp").at(8, "msf1"));
+        SIGNATURES.add(new Signature("image/avif").at(4, "ftyp").at(8, "avif"));
+        SIGNATURES.add(new Signature("audio/mp4").at(4, "ftyp").at(8, "M4A "));
+        SIGNATURES.add(new Signature("audio/mp4").at(4, "ftyp").at(8, "M4B "));
+        SIGNATURES.add(new Signature("video/quicktime").at(4, "ftyp").at(8, "qt  "));
+        SIGNATURES.add(new Signature("video/3gpp").at(4, "ftyp").at(8, "3gp"));
+        SIGNATURES.add(new Signature("video/3gpp2").at(4, "ftyp").at(8, "3g2"));
+        SIGNATURES.add(new Signature("video/mp4").at(4, "ftyp"));
+        // Version of the ID3 tag, as text may also start with "ID3"
+        SIGNATURES.add(new Signature("audio/mpeg").at(0, "ID3").at(4, 0x00));
+        SIGNATURES.add(new Signature("audio/ogg").at(0, "OggS"));
+        SIGNATURES.add(new Signature("audio/flac").at(0, "fLaC"));
+        SIGNATURES.add(new Signature("application/zip").at(0, 'P', 'K', 0x03, 0x04));
+        SIGNATURES.add(new Signature("application/zip").at(0, 'P', 'K', 0x05, 0x06));
+        SIGNATURES.add(new Signature("application/zip").at(0, 'P', 'K', 0x07, 0x08));
+        SIGNATURES.add(new Signature("application/x-ole-storage").at(0, 0xd0, 0xcf, 0x11, 0xe0, 0xa1, 0xb1, 0x1a, 0xe1));
+        SIGNATURES.add(new Signature("application/gzip").at(0, 0x1f, 0x8b));
+        // Magic number of the first block, or of the end of the stream when it is empty
+        SIGNATURES.add(new Signature("application/x-bzip2").at(0, "BZh").at(4, 0x31, 0x41, 0x59, 0x26, 0x53, 0x59));
+        SIGNATURES.add(new Signature("application/x-bzip2").at(0, "BZh").at(4, 0x17, 0x72, 0x45, 0x38, 0x50, 0x90));
+        SIGNATURES.add(new Signature("application/x-xz").at(0, 0xfd, '7', 'z', 'X', 'Z', 0x00));
+        SIGNATURES.add(new Signature("application/x-7z-compressed").at(0, '7', 'z', 0xbc, 0xaf, 0x27, 0x1c));
+        SIGNATURES.add(new Signature("application/vnd.rar").at(0, 'R', 'a', 'r', '!', 0x1a, 0x07));
+        SIGNATURES.add(new Signature("application/x-tar").at(257, "ustar"));
+        SIGNATURES.add(new Signature("application/vnd.sqlite3").at(0, "SQLite format 3\0"));
+        SIGNATURES.add(new Signature("application/x-executable").at(0, 0x7f, 'E', 'L', 'F'));
+        SIGNATURES.add(new Signature("application/rtf").at(0, "{\\rtf"));
+        SIGNATURES.add(new Signature("application/postscript").at(0, "%!PS"));
+        SIGNATURES.add(new Signature("font/woff").at(0, "wOFF"));
+        SIGNATURES.add(new Signature("font/woff2").at(0, "wOF2"));
+        SIGNATURES.add(new Signature("text/html").text("<!DOCTYPE html"));
+        SIGNATURES.add(new Signature("text/html").text("<html"));
+        SIGNATURES.add(new Signature("text/html").text("<head"));
+        SIGNATURES.add(new Signature("text/html").text("<body"));
+        SIGNATURES.add(new Signature("application/xml").text("<?xml"));
+    }
+
+    /**
+     * Detect the MIME type of a file. When its extension is not known, at most its first {@value #HEADER_SIZE} bytes
+     * are read.
+     *
+     * @param file file to inspect
+     * @return the MIME type
+     */
+    public static String detect(Path file) {
+        Path fileName = file.getFileName();
+        String mimeType = getMimeTypeByName(fileName != null ? fileName.toString() : null);
+        if (mimeType != null) {
+            return mimeType;
+        }
+
+        byte[] header = new byte[HEADER_SIZE];
+        int length;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            length = inputStream.readNBytes(header, 0, header.length);
+        } catch (IOException e) {
+            length = 0;
+        }
+
+        return detect(header, length);
+    }
+
+    /**
+     * Detect the MIME type of a stream, that must support {@link InputStream#mark}, without consuming it. The stream is
+     * only read when the extension of the name is not known.
+     *
+     * @param fileName name of the content, may be null
+     * @param inputStream stream supporting mark and reset
+     * @return the MIME type
+     */
+    public static String detect(String fileName, InputStream inputStream) {
+        String mimeType = getMimeTypeByName(fileName);
+        if (mimeType != null) {
+            return mimeType;
+        }
+
+        byte[] header = new byte[HEADER_SIZE];
+        int length = 0;
+        if (inputStream.markSupported()) {
+            inputStream.mark(header.length);
+            try {
+                length = inputStream.readNBytes(header, 0, header.length);
+            } catch (IOException e) {
+                length = 0;
+            } finally {
+                try {
+                    inputStream.reset();
+                } catch (IOException e) {}
+            }
+        }
+
+        return detect(header, length);
+    }
+
+    /**
+     * Detect the MIME type of a content from its first bytes.
+     *
+     * @param header first bytes of the content
+     * @param length number of valid bytes in the header
+     * @return the MIME type
+     */
+    public static String detect(byte[] header, int length) {
+        int textOffset = skipLeadingWhitespace(header, length);
+        for (Signature signature : SIGNATURES) {
+            if (signature.matches(header, length, textOffset)) {
+                return signature.mimeType;
+            }
+        }
+
+        if (length > 0 && isText(header, length)) {
+            return "text/plain";
+        }
+
+        return DEFAULT_MIME_TYPE;
+    }
+
+    private static String getMimeTypeByName(String fileName) {
+        if (fileName == null) {
+            return null;
+        }
+
+        int index = fileName.lastIndexOf('.');
+        if (index < 0 || index == fileName.length() - 1) {
+            return null;
+        }
+
+        String extension = fileName.substring(index + 1).toLowerCase(Locale.ROOT);
+        String mimeType = MIME_TYPES_BY_EXTENSION.computeIfAbsent(extension, MimeTypeDetector::probeMimeTypeByExtension);
+
+        return mimeType.equals(NO_MIME_TYPE) ? null : mimeType;
+    }
+
+    private static String probeMimeTypeByExtension(String extension) {
+        String fileName = "file." + extension;
+        String mimeType = null;
+        try {
+            mimeType = Files.probeContentType(Paths.get(fileName));
+        } catch (IOException | InvalidPathException e) {}
+
+        if (mimeType == null) {
+            mimeType = URLConnection.guessContentTypeFromName(fileName);
+        }
+
+        return mimeType != null ? mimeType : NO_MIME_TYPE;
+    }
+
+    private static int skipLeadingWhitespace(byte[] header, int length) {
+        int offset = 0;
+        if (length >= 3 && (header[0] & 0xff) == 0xef && (header[1] & 0xff) == 0xbb && (header[2] & 0xff) == 0xbf) {
+            offset = 3;
+        }
+        while (offset < length && (header[offset] == ' ' || header[offset] == '\t' || header[offset] == '\r' || header[offset] == '\n')) {
+            offset++;
+        }
+
+        return offset;
+    }
+
+    /**
+     * Whether the content looks like text: no NUL bytes and almost no control characters, other than whitespace.
+     */
+    private static boolean isText(byte[] header, int length) {
+        int controlCharacters = 0;
+        for (int i = 0; i < length; i++) {
+            int b = header[i] & 0xff;
+            if (b == 0) {
+                return false;
+            }
+            if (b < 0x20 && b != '\t' && b != '\n' && b != '\r' && b != '\f' && b != 0x1b) {
+                controlCharacters++;
+            }
+        }
+
+        return controlCharacters * 100 < length;
+    }
+
+    private static final class Signature {
+
+        private final String mimeType;
+
+        private final List<Integer> offsets = new ArrayList<>();
+
+        private final List<byte[]> patterns = new ArrayList<>();
+
+        private boolean text;
+
+        private Signature(String mimeType) {
+            this.mimeType = mimeType;
+        }
+
+        private Signature at(int offset, String pattern) {
+            this.offsets.add(offset);
+            this.patterns.add(pattern.getBytes(StandardCharsets.ISO_8859_1));
+
+            return this;
+        }
+
+        private Signature at(int offset, int... pattern) {
+            byte[] bytes = new byte[pattern.length];
+            for (int i = 0; i < pattern.length; i++) {
+                bytes[i] = (byte) pattern[i];
+            }
+            this.offsets.add(offset);
+            this.patterns.add(bytes);
+
+            return this;
+        }
+
+        /**
+         * Pattern matched ignoring case after the leading whitespace and byte order mark of the content.
+         */
+        private Signature text(String pattern) {
+            this.text = true;
+
+            return this.at(0, pattern.toLowerCase(Locale.ROOT));
+        }
+
+        private boolean matches(byte[] header, int length, int textOffset) {
+            for (int i = 0; i < this.patterns.size(); i++) {
+                int offset = this.text ? textOffset + this.offsets.get(i) : this.offsets.get(i);
+                byte[] pattern = this.patterns.get(i);
+                if (offset + pattern.length > length) {
+                    return false;
+                }
+                for (int j = 0; j < pattern.length; j++) {
+                    byte b = header[offset + j];
+                    if (this.text && b >= 'A' && b <= 'Z') {
+                        b = (byte) (b + ('a' - 'A'));
+                    }
+                    if (b != pattern[j]) {
+                        return false;
+                    }
+                }
+            }
+
+            return true;
+        }
+    }
+}
@@ -22,16 +22,44 @@
  */
 package com.kuflow.cli.core.util;
 
+import com.azure.core.http.HttpClient;
 import com.azure.core.http.policy.HttpLogDetailLevel;
 import com.azure.core.http.policy.HttpLogOptions;
+import com.azure.core.http.policy.RetryPolicy;
 import com.kuflow.cli.core.model.EnvironmentProperties;
+import com.kuflow.cli.core.model.EnvironmentProperties.CircuitBreakerProperties;
 import com.kuflow.cli.core.model.EnvironmentProperties.KuFlowProperties;
+import com.kuflow.cli.core.model.EnvironmentProperties.RetryProperties;
 import com.kuflow.rest.KuFlowRestClient;
 import com.kuflow.rest.KuFlowRestClientBuilder;
+import java.time.Duration;
+import java.util.Objects;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
 
 public class RestClientFactory {
 
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    public static final long DEFAULT_RETRY_BASE_DELAY = 800;
+
+    public static final long DEFAULT_RETRY_MAX_DELAY = 30_000;
+
+    public static final long DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION = 30_000;
+
+    public static final int DEFAULT_LOG_BODY_LIMIT = 4096;
+
     public static KuFlowRestClient kuFlowRestClient(EnvironmentProperties properties) {
+        return kuFlowRestClient(properties, true);
+    }
+
+    /**
+     * @param properties configuration of the client
+     * @param retries whether failed requests are retried, which sends their body again. Requests whose body can only
+     *     be read once, like streams, must not be retried, as the retries would send an empty or truncated body.
+     * @return the client
+     */
+    public static KuFlowRestClient kuFlowRestClient(EnvironmentProperties properties, boolean retries) {
         KuFlowRestClientBuilder builder = new KuFlowRestClientBuilder();
         KuFlowProperties kuflow = properties.getKuflow();
         builder.clientId(kuflow.getClientId());
@@ -42,10 +70,69 @@ public class RestClientFactory {
             builder.allowInsecureConnection(endpoint.startsWith("http://"));
         }
 
-        HttpLogOptions logOptions = new HttpLogOptions();
-        logOptions.setLogLevel(HttpLogDetailLevel.BODY_AND_HEADERS);
-        builder.httpLogOptions(logOptions);
+        try {
+            builder.httpLogOptions(httpLogOptions(kuflow));
+            configureResilience(builder, kuflow, retries);
+
+            HttpClient httpClient = HttpClientFactory.create(kuflow);
+            if (httpClient != null) {
+                builder.httpClient(httpClient);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        if (Metrics.isEnabled()) {
+            builder.addPolicy(new MetricsPolicy());
+        }
+
+        if (AdaptiveConcurrencyLimiter.isEnabled()) {
+            builder.addPolicy(new AdaptiveConcurrencyPolicy(AdaptiveConcurrencyLimiter.getInstance()));
+        }
 
         return builder.buildClient();
     }
+
+    /**
+     * HTTP logging follows the verbosity: nothing by default, headers with {@code -vv} and bodies with {@code -vvv}.
+     * When nothing is logged the logging policy does not read the requests nor the responses.
+     */
+    static HttpLogOptions httpLogOptions(KuFlowProperties kuflow) {
+        Level level = LogManager.getRootLogger().getLevel();
+
+        HttpLogOptions logOptions = new HttpLogOptions();
+        if (level.isLessSpecificThan(Level.TRACE)) {
+            int bodyLimit = Objects.requireNonNullElse(kuflow.getLogBodyLimit(), DEFAULT_LOG_BODY_LIMIT);
+            HttpBodyLogger bodyLogger = new HttpBodyLogger(logOptions, bodyLimit);
+            logOptions.setLogLevel(HttpLogDetailLevel.BODY_AND_HEADERS);
+            logOptions.setRequestLogger(bodyLogger);
+            logOptions.setResponseLogger(bodyLogger);
+        } else if (level.isLessSpecificThan(Level.DEBUG)) {
+            logOptions.setLogLevel(HttpLogDetailLevel.HEADERS);
+        } else {
+            logOptions.setLogLevel(HttpLogDetailLevel.NONE);
+        }
+
+        return logOptions;
+    }
+
+    private static void configureResilience(KuFlowRestClientBuilder builder, KuFlowProperties kuflow, boolean retries) {
+        RetryProperties retry = Objects.requireNonNullElseGet(kuflow.getRetry(), RetryProperties::new);
+        int maxRetries = retries ? Objects.requireNonNullElse(retry.getMaxRetries(), DEFAULT_MAX_RETRIES) : 0;
+        builder.retryPolicy(
+            new RetryPolicy(
+                new JitteredExponentialBackoff(
+                    maxRetries,
+                    Duration.ofMillis(Objects.requireNonNullElse(retry.getBaseDelay(), DEFAULT_RETRY_BASE_DELAY)),
+                    Duration.ofMillis(Objects.requireNonNullElse(retry.getMaxDelay(), DEFAULT_RETRY_MAX_DELAY))
+                )
+            )
+        );
+
+        CircuitBreakerProperties circuitBreaker = Objects.requireNonNullElseGet(kuflow.getCircuitBreaker(), CircuitBreakerProperties::new);
+        if (circuitBreaker.getFailureThreshold() != null && circuitBreaker.getFailureThreshold() > 0) {
+            long openDuration = Objects.requireNonNullElse(circuitBreaker.getOpenDuration(), DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION);
+            builder.addPolicy(new CircuitBreakerPolicy(circuitBreaker.getFailureThreshold(), Duration.ofMillis(openDuration)));
+        }
+    }
 }
@@ -0,0 +1,242 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Connects a thread writing a content with a thread reading it, through a bounded queue of chunks, so the content
+ * never needs to be held entirely in memory nor written to disk.
+ * <p>
+ *   The writer blocks while the queue is full, and the reader while it is empty. When the writer fails it calls
+ *   {@link #fail}, so the reader gets an error instead of a truncated content. When the reader closes its stream, the
+ *   next writes fail, so the writer does not wait forever for a reader that is gone.
+ * </p>
+ */
+public class StreamingPipe {
+
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks;
+
+    private final int chunkSize;
+
+    private final PipeOutputStream outputStream;
+
+    private final PipeInputStream inputStream;
+
+    private volatile boolean readerClosed;
+
+    private volatile Throwable failure;
+
+    /**
+     * @param chunkSize size of the chunks written to the queue
+     * @param chunks maximum number of chunks waiting to be read
+     */
+    public StreamingPipe(int chunkSize, int chunks) {
+        this.chunkSize = chunkSize;
+        this.chunks = new ArrayBlockingQueue<>(chunks);
+        this.outputStream = new PipeOutputStream();
+        this.inputStream = new PipeInputStream();
+    }
+
+    public OutputStream getOutputStream() {
+        return this.outputStream;
+    }
+
+    public InputStream getInputStream() {
+        return this.inputStream;
+    }
+
+    /**
+     * End the content with an error, that the reader gets once it has read the chunks already written. Nothing is done
+     * if the reader already closed its stream.
+     *
+     * @param failure cause of the error
+     */
+    public void fail(Throwable failure) {
+        if (this.readerClosed) {
+            return;
+        }
+
+        this.failure = failure;
+        try {
+            this.put(END);
+        } catch (IOException e) {
+            // The reader is gone, nobody waits for the end
+        }
+    }
+
+    /**
+     * @return the error the writer ended the content with, or null
+     */
+    public Throwable getFailure() {
+        return this.failure;
+    }
+
+    private void put(byte[] chunk) throws IOException {
+        if (this.readerClosed) {
+            throw new IOException("Pipe closed by the reader");
+        }
+
+        try {
+            this.chunks.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing to the pipe");
+        }
+    }
+
+    private class PipeOutputStream extends OutputStream {
+
+        private byte[] buffer = new byte[StreamingPipe.this.chunkSize];
+
+        private int count;
+
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (this.count == this.buffer.length) {
+                this.flush();
+            }
+            this.buffer[this.count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (this.count == this.buffer.length) {
+                    this.flush();
+                }
+                int length = Math.min(len, this.buffer.length - this.count);
+                System.arraycopy(b, off, this.buffer, this.count, length);
+                this.count += length;
+                off += length;
+                len -= length;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (this.closed) {
+                throw new IOException("Pipe closed by the writer");
+            }
+            if (this.count == 0) {
+                return;
+            }
+
+            // Full chunks are handed over, partial ones are copied to keep the queued memory bounded by the content
+            byte[] chunk = (this.count == this.buffer.length) ? this.buffer : Arrays.copyOf(this.buffer, this.count);
+            StreamingPipe.this.put(chunk);
+            if (chunk == this.buffer) {
+                this.buffer = new byte[StreamingPipe.this.chunkSize];
+            }
+            this.count = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.closed) {
+                return;
+            }
+
+            this.flush();
+            this.closed = true;
+            StreamingPipe.this.put(END);
+        }
+    }
+
+    private class PipeInputStream extends InputStream {
+
+        private byte[] chunk;
+
+        private int position;
+
+        @Override
+        public int read() throws IOException {
+            if (!this.nextChunk()) {
+                return -1;
+            }
+
+            return this.chunk[this.position++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!this.nextChunk()) {
+                return -1;
+            }
+
+            int length = Math.min(len, this.chunk.length - this.position);
+            System.arraycopy(this.chunk, this.position, b, off, length);
+            this.position += length;
+
+            return length;
+        }
+
+        @Override
+        public int available() {
+            return this.chunk != null && this.chunk != END ? this.chunk.length - this.position : 0;
+        }
+
+        @Override
+        public void close() {
+            StreamingPipe.this.readerClosed = true;
+            // Unblock a writer waiting for space, its next write fails
+            StreamingPipe.this.chunks.clear();
+        }
+
+        private boolean nextChunk() throws IOException {
+            while (this.chunk == null || (this.chunk != END && this.position == this.chunk.length)) {
+                try {
+                    this.chunk = StreamingPipe.this.chunks.take();
+                    this.position = 0;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while reading from the pipe");
+                }
+            }
+
+            if (this.chunk == END) {
+                Throwable failure = StreamingPipe.this.failure;
+                if (failure != null) {
+                    throw new IOException(String.format("Unable to write the content: %s", failure.getMessage()), failure);
+                }
+
+                return false;
+            }
+
+            return true;
+        }
+    }
+}
@@ -22,6 +22,9 @@
  */
 package com.kuflow.cli.core.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class StringUtils {
 
     public static boolean isEmpty(final CharSequence cs) {
@@ -44,4 +47,64 @@ public class StringUtils {
     public static int length(final CharSequence cs) {
         return cs == null ? 0 : cs.length();
     }
+
+    /**
+     * Split a line into arguments the way a POSIX shell would do for simple cases: whitespace separates arguments,
+     * single quotes preserve the literal value, and double quotes or a backslash allow to escape characters.
+     *
+     * @param line line to split
+     * @return the arguments found
+     * @throws IllegalArgumentException if a quote is not closed or the line ends with a backslash, as the argument
+     *     would continue in a following line
+     */
+    public static List<String> splitArguments(final String line) {
+        List<String> arguments = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inArgument = false;
+        char quote = 0;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quote == '\'') {
+                if (c == '\'') {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '\\' && quote == 0 && i + 1 == line.length()) {
+                throw new IllegalArgumentException(String.format("Unterminated escape in: %s", line));
+            } else if (c == '\\' && i + 1 < line.length() && (quote == 0 || "\"\\".indexOf(line.charAt(i + 1)) >= 0)) {
+                current.append(line.charAt(++i));
+                inArgument = true;
+            } else if (quote == '"') {
+                if (c == '"') {
+                    quote = 0;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+                inArgument = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inArgument) {
+                    arguments.add(current.toString());
+                    current.setLength(0);
+                    inArgument = false;
+                }
+            } else {
+                current.append(c);
+                inArgument = true;
+            }
+        }
+
+        if (quote != 0) {
+            throw new IllegalArgumentException(String.format("Unterminated quote in: %s", line));
+        }
+
+        if (inArgument) {
+            arguments.add(current.toString());
+        }
+
+        return arguments;
+    }
 }
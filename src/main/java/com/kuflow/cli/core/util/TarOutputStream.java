@@ -0,0 +1,237 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes regular files in the POSIX tar format. Names longer than the ustar header allows and sizes of 8 GiB or more
+ * are written in a pax extended header before the entry.
+ */
+public class TarOutputStream extends FilterOutputStream {
+
+    private static final int BLOCK_SIZE = 512;
+
+    private static final long MAX_OCTAL_SIZE = 077777777777L;
+
+    private static final int NAME_LENGTH = 100;
+
+    private static final int PREFIX_LENGTH = 155;
+
+    private final byte[] header = new byte[BLOCK_SIZE];
+
+    private long entryRemaining;
+
+    private long entrySize;
+
+    private boolean finished;
+
+    public TarOutputStream(OutputStream outputStream) {
+        super(outputStream);
+    }
+
+    /**
+     * Start a regular file entry, whose content of exactly {@code size} bytes must be written before the next entry.
+     *
+     * @param name path of the entry, with '/' separators
+     * @param size size of the content
+     * @param lastModifiedMillis modification time
+     * @param executable whether the file can be executed
+     * @throws IOException if the entry can not be written
+     */
+    public void putEntry(String name, long size, long lastModifiedMillis, boolean executable) throws IOException {
+        this.closeEntry();
+
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int prefixLength = findPrefixLength(nameBytes);
+        boolean fitsHeader = nameBytes.length <= NAME_LENGTH || prefixLength > 0;
+        if (!fitsHeader || size > MAX_OCTAL_SIZE) {
+            StringBuilder records = new StringBuilder();
+            if (!fitsHeader) {
+                records.append(paxRecord("path", name));
+            }
+            if (size > MAX_OCTAL_SIZE) {
+                records.append(paxRecord("size", Long.toString(size)));
+            }
+            byte[] content = records.toString().getBytes(StandardCharsets.UTF_8);
+            this.writeHeader(truncate(nameBytes, NAME_LENGTH), null, content.length, lastModifiedMillis, 0644, (byte) 'x');
+            this.out.write(content);
+            this.pad(content.length);
+        }
+
+        byte[] headerName = (prefixLength > 0) ? Arrays.copyOfRange(nameBytes, prefixLength + 1, nameBytes.length) : nameBytes;
+        byte[] headerPrefix = (prefixLength > 0) ? Arrays.copyOf(nameBytes, prefixLength) : null;
+        this.writeHeader(
+                truncate(headerName, NAME_LENGTH),
+                headerPrefix,
+                Math.min(size, MAX_OCTAL_SIZE),
+                lastModifiedMillis,
+                executable ? 0755 : 0644,
+                (byte) '0'
+            );
+
+        this.entrySize = size;
+        this.entryRemaining = size;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        this.checkRemaining(1);
+        this.out.write(b);
+        this.entryRemaining--;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        this.checkRemaining(len);
+        this.out.write(b, off, len);
+        this.entryRemaining -= len;
+    }
+
+    /**
+     * Complete the current entry, padding its content to a whole block.
+     *
+     * @throws IOException if less bytes than the size of the entry were written
+     */
+    public void closeEntry() throws IOException {
+        if (this.entryRemaining > 0) {
+            throw new IOException(String.format("Missing %d bytes of the entry", this.entryRemaining));
+        }
+        this.pad(this.entrySize);
+        this.entrySize = 0;
+    }
+
+    /**
+     * Write the end of the archive, without closing the underlying stream.
+     *
+     * @throws IOException if the archive can not be written
+     */
+    public void finish() throws IOException {
+        if (this.finished) {
+            return;
+        }
+
+        this.closeEntry();
+        this.out.write(new byte[2 * BLOCK_SIZE]);
+        this.finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.finish();
+        } finally {
+            this.out.close();
+        }
+    }
+
+    private void checkRemaining(long length) throws IOException {
+        if (length > this.entryRemaining) {
+            throw new IOException(String.format("Writing more bytes than the %d of the entry", this.entrySize));
+        }
+    }
+
+    private void pad(long length) throws IOException {
+        int remainder = (int) (length % BLOCK_SIZE);
+        if (remainder > 0) {
+            this.out.write(new byte[BLOCK_SIZE - remainder]);
+        }
+    }
+
+    private void writeHeader(byte[] name, byte[] prefix, long size, long lastModifiedMillis, int mode, byte type) throws IOException {
+        Arrays.fill(this.header, (byte) 0);
+        System.arraycopy(name, 0, this.header, 0, name.length);
+        writeOctal(this.header, 100, 8, mode);
+        writeOctal(this.header, 108, 8, 0);
+        writeOctal(this.header, 116, 8, 0);
+        writeOctal(this.header, 124, 12, size);
+        writeOctal(this.header, 136, 12, Math.max(0, lastModifiedMillis / 1000));
+        Arrays.fill(this.header, 148, 156, (byte) ' ');
+        this.header[156] = type;
+        System.arraycopy("ustar\u000000".getBytes(StandardCharsets.US_ASCII), 0, this.header, 257, 8);
+        if (prefix != null) {
+            System.arraycopy(prefix, 0, this.header, 345, prefix.length);
+        }
+
+        long checksum = 0;
+        for (byte b : this.header) {
+            checksum += b & 0xff;
+        }
+        writeOctal(this.header, 148, 7, checksum);
+
+        this.out.write(this.header);
+    }
+
+    /**
+     * Write a zero padded octal number followed by a NUL.
+     */
+    private static void writeOctal(byte[] buffer, int offset, int length, long value) {
+        String octal = Long.toOctalString(value);
+        int digits = length - 1;
+        for (int i = 0; i < digits; i++) {
+            int index = octal.length() - digits + i;
+            buffer[offset + i] = (byte) (index >= 0 ? octal.charAt(index) : '0');
+        }
+        buffer[offset + digits] = 0;
+    }
+
+    /**
+     * Find the position of a '/' splitting the name into a prefix and a name that fit the ustar header.
+     *
+     * @return the length of the prefix, or 0 if the name does not need or can not have one
+     */
+    private static int findPrefixLength(byte[] name) {
+        if (name.length <= NAME_LENGTH) {
+            return 0;
+        }
+
+        for (int i = Math.min(name.length - 2, PREFIX_LENGTH); i > 0; i--) {
+            if (name[i] == '/' && name.length - i - 1 <= NAME_LENGTH) {
+                return i;
+            }
+        }
+
+        return 0;
+    }
+
+    private static byte[] truncate(byte[] bytes, int length) {
+        return bytes.length <= length ? bytes : Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * Build a pax record, whose length includes the digits of the length itself.
+     */
+    private static String paxRecord(String key, String value) {
+        int length = key.length() + value.getBytes(StandardCharsets.UTF_8).length + 3;
+        int total = length + Integer.toString(length).length();
+        if (Integer.toString(total).length() > Integer.toString(length).length()) {
+            total++;
+        }
+
+        return String.format("%d %s=%s\n", total, key, value);
+    }
+}
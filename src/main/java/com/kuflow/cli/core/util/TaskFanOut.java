@@ -0,0 +1,147 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Apply the same operation to several tasks concurrently, keeping at most {@code parallelism} of them in flight, and
+ * collect the outcome and latency of each one. Every task is attempted, failures do not stop the others.
+ */
+public class TaskFanOut {
+
+    private final int parallelism;
+
+    public TaskFanOut(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format("Parallelism must be greater than zero, was %d", parallelism));
+        }
+
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Run the operation for each task, waiting for all of them to complete.
+     *
+     * @param taskIds tasks to apply the operation to
+     * @param operation operation applied to a task, failing with an exception
+     * @param listener notified from the worker threads as each task completes
+     * @return latencies and failures of the tasks
+     */
+    public Summary run(Iterable<UUID> taskIds, Consumer<UUID> operation, Listener listener) {
+        Summary summary = new Summary();
+        try (BoundedExecutor executor = new BoundedExecutor(this.parallelism)) {
+            for (UUID taskId : taskIds) {
+                executor.submit(() -> {
+                    long start = System.nanoTime();
+                    Throwable error = null;
+                    try {
+                        operation.accept(taskId);
+                    } catch (RuntimeException e) {
+                        error = e;
+                    }
+                    long latencyNanos = System.nanoTime() - start;
+
+                    summary.record(latencyNanos, error != null);
+                    listener.onComplete(taskId, latencyNanos, error);
+
+                    return null;
+                });
+            }
+        }
+
+        return summary;
+    }
+
+    public interface Listener {
+        /**
+         * Called once per task, concurrently for tasks completing at the same time.
+         *
+         * @param taskId task the operation was applied to
+         * @param latencyNanos time the operation took
+         * @param error failure of the operation, {@code null} if it succeeded
+         */
+        void onComplete(UUID taskId, long latencyNanos, Throwable error);
+    }
+
+    public static class Summary {
+
+        private long[] latencies = new long[16];
+
+        private int tasks;
+
+        private int failures;
+
+        private synchronized void record(long latencyNanos, boolean failed) {
+            if (this.tasks == this.latencies.length) {
+                this.latencies = Arrays.copyOf(this.latencies, this.tasks * 2);
+            }
+            this.latencies[this.tasks++] = latencyNanos;
+
+            if (failed) {
+                this.failures++;
+            }
+        }
+
+        public synchronized int getTasks() {
+            return this.tasks;
+        }
+
+        public synchronized int getFailures() {
+            return this.failures;
+        }
+
+        /**
+         * Latency below which the given percentage of the tasks completed, using the nearest rank.
+         *
+         * @param percentile percentage between 0 and 100
+         * @return the latency in milliseconds, zero if no task was run
+         */
+        public synchronized long getLatencyPercentile(double percentile) {
+            if (this.tasks == 0) {
+                return 0;
+            }
+
+            long[] sorted = Arrays.copyOf(this.latencies, this.tasks);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100 * this.tasks);
+
+            return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, Math.min(rank, this.tasks) - 1)]);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%d of %d tasks failed, latency p50 %d ms, p95 %d ms, max %d ms",
+                this.getFailures(),
+                this.getTasks(),
+                this.getLatencyPercentile(50),
+                this.getLatencyPercentile(95),
+                this.getLatencyPercentile(100)
+            );
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Journal of the documents uploaded to a task element, used to resume an interrupted upload of several files. Each
+ * completed upload is appended as a line with the SHA-256 hash of the content and the absolute path of the file.
+ * <p>
+ *   A file is completed when both its path and its content match, so copies of the same content under other names, like
+ *   the empty files of a directory, are uploaded each, and a file changed since it was uploaded is uploaded again.
+ * </p>
+ */
+public class UploadJournal {
+
+    private final Path file;
+
+    private final Set<String> completedUploads = new HashSet<>();
+
+    private UploadJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Open the journal of a task element, loading the uploads completed by previous invocations.
+     *
+     * @param taskId task identifier
+     * @param elementCode element definition code
+     * @return the journal
+     * @throws IOException if the journal can not be read
+     */
+    public static UploadJournal open(UUID taskId, String elementCode) throws IOException {
+        String fileName = String.format("%s-%s.journal", taskId, elementCode.replaceAll("[^A-Za-z0-9_-]", "_"));
+        Path directory = FileUtils.getUserDirectory().resolve(Constants.KUFLOW_JOURNAL_DIRECTORY);
+
+        UploadJournal journal = new UploadJournal(directory.resolve(fileName));
+        if (Files.exists(journal.file)) {
+            for (String line : Files.readAllLines(journal.file, StandardCharsets.UTF_8)) {
+                // A line partially written by an interrupted invocation is ignored
+                int separator = line.indexOf('\t');
+                if (separator == 64 && separator < line.length() - 1) {
+                    journal.completedUploads.add(line);
+                }
+            }
+        }
+
+        return journal;
+    }
+
+    public synchronized boolean isCompleted(String hash, Path path) {
+        return this.completedUploads.contains(toLine(hash, path));
+    }
+
+    /**
+     * Record a completed upload. The line is written before returning, so it survives the process being killed.
+     *
+     * @param hash SHA-256 hash of the uploaded content
+     * @param path path of the uploaded file
+     * @throws IOException if the journal can not be written
+     */
+    public synchronized void markCompleted(String hash, Path path) throws IOException {
+        String line = toLine(hash, path);
+        if (!this.completedUploads.add(line)) {
+            return;
+        }
+
+        FileUtils.createPrivateDirectories(this.file.getParent());
+        Files.write(
+            this.file,
+            String.format("%s%n", line).getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.DSYNC
+        );
+    }
+
+    /**
+     * Delete the journal, once all the files of an invocation are uploaded.
+     *
+     * @throws IOException if the journal can not be deleted
+     */
+    public synchronized void delete() throws IOException {
+        Files.deleteIfExists(this.file);
+        this.completedUploads.clear();
+    }
+
+    private static String toLine(String hash, Path path) {
+        return String.format("%s\t%s", hash, path.toAbsolutePath().normalize());
+    }
+}
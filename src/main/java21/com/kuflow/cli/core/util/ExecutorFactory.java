@@ -0,0 +1,54 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executors running concurrent operations, each operation runs on its own virtual thread. Java 21 version
+ * of the class, packaged in the multi-release jar.
+ */
+public class ExecutorFactory {
+
+    /**
+     * Maximum number of platform threads of an executor in the Java 11 version of the class, which this version keeps
+     * so both have the same API. Virtual threads are not limited by it.
+     */
+    public static final int MAX_PLATFORM_THREADS = 256;
+
+    public static boolean isVirtual() {
+        return true;
+    }
+
+    /**
+     * Create an executor able to run the given number of operations concurrently. Virtual threads are cheap, so the
+     * parallelism is only limited by the callers.
+     *
+     * @param parallelism maximum number of concurrent operations
+     * @return the executor
+     */
+    public static ExecutorService newExecutor(int parallelism) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("kuflowctl-worker-", 1).factory());
+    }
+}
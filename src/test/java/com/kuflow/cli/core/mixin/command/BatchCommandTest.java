@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.mixin.command;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kuflow.cli.core.enumeration.CommandType;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+class BatchCommandTest {
+
+    @TempDir
+    Path directory;
+
+    private InputStream previousStandardInput;
+
+    private final StringWriter out = new StringWriter();
+
+    private final StringWriter err = new StringWriter();
+
+    @BeforeEach
+    void setUp() {
+        this.previousStandardInput = System.in;
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setIn(this.previousStandardInput);
+    }
+
+    @Test
+    void operationsReadingTheStandardInputFailWithoutReadingIt() throws IOException {
+        byte[] standardInput = "not for the operations".getBytes(StandardCharsets.UTF_8);
+        System.setIn(new ByteArrayInputStream(standardInput));
+        Path file = Files.write(this.directory.resolve("file.txt"), "content".getBytes(StandardCharsets.UTF_8));
+        UUID taskId = UUID.randomUUID();
+
+        int exitCode = this.runBatch(
+            String.format("save-element-document -t %s -e %s --file-name stdin.txt -", taskId, FakeKuFlowHttpClient.ELEMENT_CODE),
+            String.format("append-log -t %s -lv INFO --stream", taskId),
+            String.format("save-element-document -t %s -e %s %s", taskId, FakeKuFlowHttpClient.ELEMENT_CODE, file)
+        );
+
+        assertThat(exitCode).isEqualTo(1);
+        assertThat(this.getResultLines())
+            .containsExactly(
+                "1\tERROR\tsave-element-document\tThe standard input can not be read by batch operations",
+                "2\tERROR\tappend-log\tThe standard input can not be read by batch operations",
+                "3\tOK\tsave-element-document"
+            );
+        assertThat(System.in.available()).isEqualTo(standardInput.length);
+    }
+
+    @Test
+    void resultsOfSeveralTasksAreWrittenToTheErrorOutput() throws IOException {
+        UUID firstTaskId = UUID.randomUUID();
+        UUID secondTaskId = UUID.randomUUID();
+
+        int exitCode = this.runBatch(
+            String.format("append-log -t %s,%s -lv INFO Message", firstTaskId, secondTaskId),
+            String.format("append-log -t %s -lv INFO Message", firstTaskId)
+        );
+
+        assertThat(exitCode).isEqualTo(0);
+        assertThat(this.getResultLines()).containsExactly("1\tOK\tappend-log", "2\tOK\tappend-log");
+        assertThat(this.err.toString()).contains(firstTaskId + "\tOK\t");
+        assertThat(this.err.toString()).contains(secondTaskId + "\tOK\t");
+    }
+
+    private int runBatch(String... operations) throws IOException {
+        Path operationsFile = Files.write(this.directory.resolve("operations.txt"), Arrays.asList(operations), StandardCharsets.UTF_8);
+
+        MainCommand mainCommand = new MainCommand();
+        mainCommand.setEnvironmentProperties(FakeKuFlowHttpClient.environmentProperties());
+        CommandLine commandLine = new CommandLine(mainCommand);
+        BatchCommand batchCommand = commandLine.getSubcommands().get(CommandType.Key.BATCH).getCommand();
+        batchCommand.setKuFlowRestClient(new FakeKuFlowHttpClient().kuFlowRestClient());
+        commandLine.setOut(new PrintWriter(this.out, true));
+        commandLine.setErr(new PrintWriter(this.err, true));
+
+        return commandLine.execute(CommandType.Key.BATCH, "--file", operationsFile.toString());
+    }
+
+    private List<String> getResultLines() {
+        return Arrays.asList(this.out.toString().split("\\R"));
+    }
+}
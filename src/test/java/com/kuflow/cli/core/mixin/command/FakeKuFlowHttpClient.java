@@ -0,0 +1,248 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.mixin.command;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.util.FluxUtil;
+import com.kuflow.cli.core.model.EnvironmentProperties;
+import com.kuflow.rest.KuFlowRestClient;
+import com.kuflow.rest.KuFlowRestClientBuilder;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * In memory KuFlow serving the task operations used by the commands: retrieving a task, appending logs, and saving
+ * the document values of a single element.
+ */
+class FakeKuFlowHttpClient implements HttpClient {
+
+    static final String ELEMENT_CODE = "DOCS";
+
+    private static final String ENDPOINT = "http://localhost";
+
+    private static final String CLIENT_ID = "client";
+
+    private static final String CLIENT_SECRET = "secret";
+
+    private static final Pattern TASK_PATH = Pattern.compile("/tasks/([0-9a-f-]{36})(?:/~actions/([a-z-]+))?");
+
+    private static final Pattern QUERY_PARAMETER = Pattern.compile("([^&=]+)=([^&]*)");
+
+    private static final Pattern FILE_NAME = Pattern.compile("filename=\"([^\"]*)\"");
+
+    private static final Pattern DOCUMENT_VALUE = Pattern.compile("\"valid\"\\s*:\\s*(true|false)[^}]*?\"uri\"\\s*:\\s*\"([^\"]*)\"");
+
+    private final Map<UUID, List<DocumentValue>> tasks = new ConcurrentHashMap<>();
+
+    static EnvironmentProperties environmentProperties() {
+        EnvironmentProperties environmentProperties = new EnvironmentProperties();
+        environmentProperties.getKuflow().setEndpoint(ENDPOINT);
+        environmentProperties.getKuflow().setClientId(CLIENT_ID);
+        environmentProperties.getKuflow().setClientSecret(CLIENT_SECRET);
+
+        return environmentProperties;
+    }
+
+    KuFlowRestClient kuFlowRestClient() {
+        return new KuFlowRestClientBuilder()
+            .clientId(CLIENT_ID)
+            .clientSecret(CLIENT_SECRET)
+            .endpoint(ENDPOINT)
+            .allowInsecureConnection(true)
+            .httpClient(this)
+            .buildClient();
+    }
+
+    @Override
+    public Mono<HttpResponse> send(HttpRequest request) {
+        Matcher path = TASK_PATH.matcher(request.getUrl().getPath());
+        if (!path.find()) {
+            return Mono.just(new JsonHttpResponse(request, 404, "{}"));
+        }
+
+        UUID taskId = UUID.fromString(path.group(1));
+        String action = path.group(2);
+        Mono<String> body = request.getBody() == null
+            ? Mono.just("")
+            : FluxUtil.collectBytesInByteBufferStream(request.getBody()).map(bytes -> new String(bytes, StandardCharsets.ISO_8859_1));
+
+        return body.map(content -> {
+            if (request.getHttpMethod() == HttpMethod.POST && "save-element-value-document".equals(action)) {
+                this.saveDocument(taskId, request.getUrl().getQuery(), content);
+            } else if (request.getHttpMethod() == HttpMethod.POST && "save-element".equals(action)) {
+                this.saveElement(taskId, content);
+            } else if (request.getHttpMethod() == HttpMethod.POST && "append-log".equals(action)) {
+                // Logs are not kept
+            } else if (request.getHttpMethod() != HttpMethod.GET || action != null) {
+                return new JsonHttpResponse(request, 404, "{}");
+            }
+
+            return new JsonHttpResponse(request, 200, this.toJson(taskId));
+        });
+    }
+
+    private void saveDocument(UUID taskId, String query, String content) {
+        Map<String, String> parameters = new HashMap<>();
+        Matcher parameter = QUERY_PARAMETER.matcher(query != null ? query : "");
+        while (parameter.find()) {
+            parameters.put(parameter.group(1), parameter.group(2));
+        }
+
+        String elementValueId = parameters.get("elementValueId");
+        UUID id = elementValueId != null ? UUID.fromString(elementValueId) : UUID.randomUUID();
+        Matcher fileName = FILE_NAME.matcher(content);
+        String name = fileName.find() ? fileName.group(1) : null;
+        boolean valid = !"false".equals(parameters.get("elementValueValid"));
+
+        List<DocumentValue> documentValues = this.getDocumentValues(taskId);
+        synchronized (documentValues) {
+            documentValues.removeIf(documentValue -> documentValue.id.equals(id));
+            documentValues.add(new DocumentValue(id, String.format("ku:task/%s/element-value/%s", taskId, id), name, valid));
+        }
+    }
+
+    private void saveElement(UUID taskId, String content) {
+        List<DocumentValue> saved = new ArrayList<>();
+        Matcher documentValue = DOCUMENT_VALUE.matcher(content);
+        while (documentValue.find()) {
+            saved.add(new DocumentValue(UUID.randomUUID(), documentValue.group(2), null, Boolean.parseBoolean(documentValue.group(1))));
+        }
+
+        List<DocumentValue> documentValues = this.getDocumentValues(taskId);
+        synchronized (documentValues) {
+            documentValues.clear();
+            documentValues.addAll(saved);
+        }
+    }
+
+    private String toJson(UUID taskId) {
+        List<DocumentValue> documentValues = this.getDocumentValues(taskId);
+        String values;
+        synchronized (documentValues) {
+            values = documentValues.stream().map(DocumentValue::toJson).collect(Collectors.joining(","));
+        }
+
+        return String.format("{\"objectType\":\"TASK\",\"id\":\"%s\",\"elementValues\":{\"%s\":[%s]}}", taskId, ELEMENT_CODE, values);
+    }
+
+    private List<DocumentValue> getDocumentValues(UUID taskId) {
+        return this.tasks.computeIfAbsent(taskId, key -> new ArrayList<>());
+    }
+
+    private static class DocumentValue {
+
+        private final UUID id;
+
+        private final String uri;
+
+        private final String name;
+
+        private final boolean valid;
+
+        DocumentValue(UUID id, String uri, String name, boolean valid) {
+            this.id = id;
+            this.uri = uri;
+            this.name = name;
+            this.valid = valid;
+        }
+
+        String toJson() {
+            String nameJson = this.name != null ? String.format(",\"name\":\"%s\"", this.name) : "";
+
+            return String.format(
+                "{\"type\":\"DOCUMENT\",\"valid\":%s,\"value\":{\"id\":\"%s\",\"uri\":\"%s\"%s}}",
+                this.valid,
+                this.id,
+                this.uri,
+                nameJson
+            );
+        }
+    }
+
+    private static class JsonHttpResponse extends HttpResponse {
+
+        private final int statusCode;
+
+        private final byte[] body;
+
+        private final HttpHeaders headers;
+
+        JsonHttpResponse(HttpRequest request, int statusCode, String body) {
+            super(request);
+            this.statusCode = statusCode;
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+            this.headers = new HttpHeaders().set("Content-Type", "application/json");
+        }
+
+        @Override
+        public int getStatusCode() {
+            return this.statusCode;
+        }
+
+        @Override
+        public String getHeaderValue(String name) {
+            return this.headers.getValue(name);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.headers;
+        }
+
+        @Override
+        public Flux<ByteBuffer> getBody() {
+            return Flux.defer(() -> Flux.just(ByteBuffer.wrap(this.body)));
+        }
+
+        @Override
+        public Mono<byte[]> getBodyAsByteArray() {
+            return Mono.just(this.body);
+        }
+
+        @Override
+        public Mono<String> getBodyAsString() {
+            return Mono.just(new String(this.body, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Mono<String> getBodyAsString(Charset charset) {
+            return Mono.just(new String(this.body, charset));
+        }
+    }
+}
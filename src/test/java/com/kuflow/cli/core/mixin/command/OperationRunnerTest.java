@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.mixin.command;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kuflow.cli.core.mixin.command.OperationRunner.OperationResult;
+import com.kuflow.cli.core.util.DocumentIndex;
+import com.kuflow.cli.core.util.FileUtils;
+import com.kuflow.rest.KuFlowRestClient;
+import com.kuflow.rest.model.TaskElementValue;
+import com.kuflow.rest.model.TaskElementValueDocument;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OperationRunnerTest {
+
+    private static final String REUSED_URI = "ku:task/00000000-0000-0000-0000-000000000000/element-value/reused";
+
+    @TempDir
+    Path directory;
+
+    private String previousUserHome;
+
+    private KuFlowRestClient kuFlowRestClient;
+
+    private OperationRunner operationRunner;
+
+    private Path reusedFile;
+
+    private Path uploadedFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.previousUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", this.directory.toString());
+
+        this.kuFlowRestClient = new FakeKuFlowHttpClient().kuFlowRestClient();
+        this.operationRunner = new OperationRunner(FakeKuFlowHttpClient.environmentProperties(), this.kuFlowRestClient);
+        this.operationRunner.setOutput(new PrintWriter(new StringWriter(), true), new PrintWriter(new StringWriter(), true));
+
+        this.reusedFile = Files.write(this.directory.resolve("reused.txt"), "reused".getBytes(StandardCharsets.UTF_8));
+        this.uploadedFile = Files.write(this.directory.resolve("uploaded.txt"), "uploaded".getBytes(StandardCharsets.UTF_8));
+        DocumentIndex.open(FakeKuFlowHttpClient.environmentProperties().getKuflow().getClientId())
+            .put(FileUtils.sha256(this.reusedFile), REUSED_URI);
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setProperty("user.home", this.previousUserHome);
+    }
+
+    @Test
+    void documentUploadAfterAReusedDocumentDoesNotSaveItAgain() {
+        UUID firstTaskId = UUID.randomUUID();
+        UUID secondTaskId = UUID.randomUUID();
+
+        OperationResult first = this.saveDocument(firstTaskId, this.reusedFile, "--reuse-uploads");
+        OperationResult second = this.saveDocument(secondTaskId, this.uploadedFile);
+
+        assertThat(first.getMessage()).isNull();
+        assertThat(first.isSuccess()).isTrue();
+        assertThat(second.getMessage()).isNull();
+        assertThat(second.isSuccess()).isTrue();
+        assertThat(this.getDocumentUris(firstTaskId)).containsExactly(REUSED_URI);
+        assertThat(this.getDocumentUris(secondTaskId).size()).isEqualTo(1);
+        assertThat(this.getDocumentUris(secondTaskId)).doesNotContain(REUSED_URI);
+    }
+
+    @Test
+    void reusedDocumentsAreOnlySavedToTheTaskOfTheirOperation() {
+        UUID firstTaskId = UUID.randomUUID();
+        UUID secondTaskId = UUID.randomUUID();
+
+        OperationResult first = this.saveDocument(firstTaskId, this.reusedFile, "--reuse-uploads");
+        OperationResult second = this.saveDocument(secondTaskId, this.uploadedFile, "--reuse-uploads");
+
+        assertThat(first.isSuccess()).isTrue();
+        assertThat(second.getMessage()).isNull();
+        assertThat(second.isSuccess()).isTrue();
+        assertThat(this.getDocumentUris(secondTaskId).size()).isEqualTo(1);
+        assertThat(this.getDocumentUris(secondTaskId)).doesNotContain(REUSED_URI);
+    }
+
+    private OperationResult saveDocument(UUID taskId, Path file, String... options) {
+        List<String> args = new ArrayList<>(
+            List.of("save-element-document", "-t", taskId.toString(), "-e", FakeKuFlowHttpClient.ELEMENT_CODE)
+        );
+        args.addAll(List.of(options));
+        args.add(file.toString());
+
+        return this.operationRunner.run(args);
+    }
+
+    private List<String> getDocumentUris(UUID taskId) {
+        List<TaskElementValue> elementValues =
+            this.kuFlowRestClient.getTaskOperations().retrieveTask(taskId).getElementValues().get(FakeKuFlowHttpClient.ELEMENT_CODE);
+
+        return elementValues
+            .stream()
+            .map(elementValue -> ((TaskElementValueDocument) elementValue).getValue().getUri())
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void grantsWaitingPermitsInOrderWhenReleased() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 4);
+
+        CompletableFuture<Void> first = limiter.acquireAsync();
+        CompletableFuture<Void> second = limiter.acquireAsync();
+        CompletableFuture<Void> third = limiter.acquireAsync();
+
+        assertThat(first.isDone()).isTrue();
+        assertThat(second.isDone()).isFalse();
+
+        limiter.release();
+
+        assertThat(second.isDone()).isTrue();
+        assertThat(third.isDone()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void cancelGivesBackWaitingAndGrantedPermits() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 4);
+
+        CompletableFuture<Void> granted = limiter.acquireAsync();
+        CompletableFuture<Void> waiting = limiter.acquireAsync();
+        limiter.cancel(waiting);
+        limiter.cancel(granted);
+
+        assertThat(limiter.getInFlight()).isEqualTo(0);
+        assertThat(waiting.isDone()).isFalse();
+        assertThat(limiter.acquireAsync().isDone()).isTrue();
+    }
+
+    @Test
+    void grantsWaitingPermitsWhenTheLimitIncreases() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 4);
+
+        limiter.acquireAsync();
+        CompletableFuture<Void> waiting = limiter.acquireAsync();
+        limiter.onSample(System.nanoTime(), 1_000_000, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(waiting.isDone()).isTrue();
+    }
+
+    @Test
+    void overloadHalvesTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 4, 8);
+
+        limiter.onSample(System.nanoTime(), -1, true);
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+}
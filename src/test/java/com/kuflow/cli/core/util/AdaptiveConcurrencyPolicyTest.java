@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpPipeline;
+import com.azure.core.http.HttpPipelineBuilder;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.util.Context;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class AdaptiveConcurrencyPolicyTest {
+
+    private static final int LIMIT = 2;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private final AtomicInteger sent = new AtomicInteger();
+
+    @Test
+    void limitsRequestsSentFromNestedExecutors() {
+        HttpPipeline pipeline = this.pipeline();
+
+        this.sendFromNestedExecutors(pipeline, request -> pipeline.sendSync(request, Context.NONE));
+
+        assertThat(this.sent.get()).isEqualTo(16);
+        assertThat(this.maxInFlight.get()).isEqualTo(LIMIT);
+    }
+
+    @Test
+    void limitsAsynchronousRequestsSentFromNestedExecutors() {
+        HttpPipeline pipeline = this.pipeline();
+
+        this.sendFromNestedExecutors(pipeline, request -> pipeline.send(request).block());
+
+        assertThat(this.sent.get()).isEqualTo(16);
+        assertThat(this.maxInFlight.get()).isEqualTo(LIMIT);
+    }
+
+    private HttpPipeline pipeline() {
+        HttpClient httpClient = request ->
+            Mono.fromCallable(() -> {
+                int current = this.inFlight.incrementAndGet();
+                this.maxInFlight.accumulateAndGet(current, Math::max);
+                Thread.sleep(20);
+                this.inFlight.decrementAndGet();
+                this.sent.incrementAndGet();
+
+                return new StatusHttpResponse(request, 200);
+            });
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(LIMIT, LIMIT, LIMIT);
+
+        return new HttpPipelineBuilder().httpClient(httpClient).policies(new AdaptiveConcurrencyPolicy(limiter)).build();
+    }
+
+    private void sendFromNestedExecutors(HttpPipeline pipeline, Function<HttpRequest, HttpResponse> send) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try (BoundedExecutor executor = new BoundedExecutor(4)) {
+            for (int i = 0; i < 4; i++) {
+                futures.add(
+                    executor.submit(() -> {
+                        try (BoundedExecutor nestedExecutor = new BoundedExecutor(4)) {
+                            for (int j = 0; j < 4; j++) {
+                                nestedExecutor.submit(() -> send.apply(new HttpRequest(HttpMethod.GET, "http://localhost/tasks")));
+                            }
+                        }
+
+                        return null;
+                    })
+                );
+            }
+        }
+
+        futures.forEach(CompletableFuture::join);
+    }
+}
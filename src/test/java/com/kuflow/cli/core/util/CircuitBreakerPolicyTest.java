@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpPipeline;
+import com.azure.core.http.HttpPipelineBuilder;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.util.Context;
+import com.kuflow.cli.core.util.CircuitBreakerPolicy.CircuitBreakerOpenException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+
+class CircuitBreakerPolicyTest {
+
+    private static final Duration LONG_OPEN_DURATION = Duration.ofMinutes(1);
+
+    /**
+     * Statuses of the following responses, a negative one fails the request with an I/O error.
+     */
+    private final Queue<Integer> statuses = new ArrayDeque<>();
+
+    private final AtomicInteger sentRequests = new AtomicInteger();
+
+    @Test
+    void opensAfterTheConsecutiveFailuresThreshold() {
+        HttpPipeline pipeline = this.pipeline(new CircuitBreakerPolicy(2, LONG_OPEN_DURATION), 503, 500);
+
+        assertThat(this.send(pipeline)).isEqualTo(503);
+        assertThat(this.send(pipeline)).isEqualTo(500);
+        Throwable thrown = catchThrowable(() -> this.send(pipeline));
+
+        assertThat(thrown).isInstanceOf(CircuitBreakerOpenException.class).hasMessageContaining("2 consecutive failures");
+        assertThat(this.sentRequests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void successResetsTheConsecutiveFailures() {
+        HttpPipeline pipeline = this.pipeline(new CircuitBreakerPolicy(2, LONG_OPEN_DURATION), 429, 404, 429, 200);
+
+        assertThat(this.send(pipeline)).isEqualTo(429);
+        assertThat(this.send(pipeline)).isEqualTo(404);
+        assertThat(this.send(pipeline)).isEqualTo(429);
+        assertThat(this.send(pipeline)).isEqualTo(200);
+        assertThat(this.sentRequests.get()).isEqualTo(4);
+    }
+
+    @Test
+    void errorsAreFailures() {
+        HttpPipeline pipeline = this.pipeline(new CircuitBreakerPolicy(1, LONG_OPEN_DURATION), -1);
+
+        assertThat(Exceptions.unwrap(catchThrowable(() -> this.send(pipeline)))).isInstanceOf(IOException.class);
+        assertThat(catchThrowable(() -> this.send(pipeline))).isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(this.sentRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void halfOpenTrialSuccessClosesTheCircuit() {
+        HttpPipeline pipeline = this.pipeline(new CircuitBreakerPolicy(1, Duration.ZERO), 503, 200, 503);
+
+        assertThat(this.send(pipeline)).isEqualTo(503);
+        // Once the open duration elapsed, the next request is the trial
+        assertThat(this.send(pipeline)).isEqualTo(200);
+        // Closed again, a failure counts from zero and reaches the threshold
+        assertThat(this.send(pipeline)).isEqualTo(503);
+        assertThat(this.sentRequests.get()).isEqualTo(3);
+    }
+
+    @Test
+    void halfOpenTrialFailureOpensTheCircuitAgain() throws InterruptedException {
+        Duration openDuration = Duration.ofMillis(200);
+        HttpPipeline pipeline = this.pipeline(new CircuitBreakerPolicy(1, openDuration), 503, 503);
+
+        assertThat(this.send(pipeline)).isEqualTo(503);
+        assertThat(catchThrowable(() -> this.send(pipeline))).isInstanceOf(CircuitBreakerOpenException.class);
+
+        Thread.sleep(openDuration.toMillis() + 50);
+        assertThat(this.send(pipeline)).isEqualTo(503);
+        assertThat(catchThrowable(() -> this.send(pipeline))).isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(this.sentRequests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void synchronousRequestsOpenTheCircuit() {
+        HttpPipeline pipeline = this.pipeline(new CircuitBreakerPolicy(1, LONG_OPEN_DURATION), 502);
+        HttpRequest request = new HttpRequest(HttpMethod.GET, "http://localhost/tasks");
+
+        assertThat(pipeline.sendSync(request, Context.NONE).getStatusCode()).isEqualTo(502);
+        assertThatThrownBy(() -> pipeline.sendSync(request, Context.NONE)).isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(this.sentRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidConfigurationIsRejected() {
+        assertThatThrownBy(() -> new CircuitBreakerPolicy(0, LONG_OPEN_DURATION)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CircuitBreakerPolicy(1, Duration.ofSeconds(-1))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private HttpPipeline pipeline(CircuitBreakerPolicy policy, Integer... statuses) {
+        this.statuses.addAll(Arrays.asList(statuses));
+
+        return new HttpPipelineBuilder()
+            .httpClient(request -> {
+                this.sentRequests.incrementAndGet();
+                int status = this.statuses.remove();
+                if (status < 0) {
+                    return Mono.error(new IOException("Connection reset"));
+                }
+
+                return Mono.just(new StatusHttpResponse(request, status));
+            })
+            .policies(policy)
+            .build();
+    }
+
+    private int send(HttpPipeline pipeline) {
+        HttpResponse response = pipeline.send(new HttpRequest(HttpMethod.GET, "http://localhost/tasks")).block();
+
+        return response.getStatusCode();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+    @Test
+    void byteOrderMarkAtTheStartIsSkipped() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("\uFEFFtask-id,element-code\r\n1,CODE\r\n"))) {
+            assertThat(reader.readRecord()).containsExactly("task-id", "element-code");
+            assertThat(reader.readRecord()).containsExactly("1", "CODE");
+            assertThat(reader.readRecord()).isNull();
+        }
+    }
+
+    @Test
+    void byteOrderMarkInsideTheInputIsKept() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("a,\uFEFFb\n"))) {
+            assertThat(reader.readRecord()).containsExactly("a", "\uFEFFb");
+        }
+    }
+
+    @Test
+    void quotedFieldsMayContainSeparatorsLineBreaksAndQuotes() throws IOException {
+        try (CsvReader reader = new CsvReader(new StringReader("\"a,b\",\"line\nbreak\",\"say \"\"hi\"\"\"\nlast,,\n"))) {
+            assertThat(reader.readRecord()).containsExactly("a,b", "line\nbreak", "say \"hi\"");
+            assertThat(reader.getRecordLineNumber()).isEqualTo(1);
+            assertThat(reader.readRecord()).containsExactly("last", "", "");
+            assertThat(reader.getRecordLineNumber()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void formattedRecordIsReadBack() throws IOException {
+        List<String> fields = List.of("plain", "with,comma", "with \"quotes\"", "with\nbreak", "");
+
+        try (CsvReader reader = new CsvReader(new StringReader(CsvReader.formatRecord(fields)))) {
+            assertThat(reader.readRecord()).isEqualTo(fields);
+        }
+    }
+}
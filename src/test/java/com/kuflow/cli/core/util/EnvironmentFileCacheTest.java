@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.kuflow.cli.core.enumeration.HttpClientType;
+import com.kuflow.cli.core.enumeration.HttpVersion;
+import com.kuflow.cli.core.model.EnvironmentProperties;
+import com.kuflow.cli.core.model.EnvironmentProperties.KuFlowProperties;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Properties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EnvironmentFileCacheTest {
+
+    private static final String CLIENT_SECRET = "c2VjcmV0LXZhbHVlLW5vdC10by1iZS1zdG9yZWQ";
+
+    @TempDir
+    Path directory;
+
+    private String previousUserHome;
+
+    @BeforeEach
+    void setUp() {
+        this.previousUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", this.directory.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setProperty("user.home", this.previousUserHome);
+    }
+
+    @Test
+    void propertiesAreNamedAsInEnvironmentFiles() {
+        Properties properties = EnvironmentFileCache.toProperties(fullEnvironmentProperties());
+
+        assertThat(properties.stringPropertyNames())
+            .containsExactlyInAnyOrder(
+                "kuflow.endpoint",
+                "kuflow.client-id",
+                "kuflow.client-secret",
+                "kuflow.retry.max-retries",
+                "kuflow.retry.base-delay",
+                "kuflow.retry.max-delay",
+                "kuflow.timeout",
+                "kuflow.circuit-breaker.failure-threshold",
+                "kuflow.circuit-breaker.open-duration",
+                "kuflow.log-body-limit",
+                "kuflow.http.client",
+                "kuflow.http.version",
+                "kuflow.http.max-connections",
+                "kuflow.http.connection-idle-timeout",
+                "kuflow.http.socket-buffer-size"
+            );
+    }
+
+    @Test
+    void everyPropertyIsKept() {
+        EnvironmentProperties environmentProperties = fullEnvironmentProperties();
+
+        Properties properties = EnvironmentFileCache.toProperties(environmentProperties);
+        EnvironmentProperties cached = EnvironmentFileCache.toEnvironmentProperties(properties);
+
+        assertThat(cached).usingRecursiveComparison().isEqualTo(environmentProperties);
+    }
+
+    @Test
+    void clientSecretIsReadFromTheEnvironmentFile() throws IOException {
+        Path file = this.writeEnvironmentFile("client-secret: " + CLIENT_SECRET);
+
+        EnvironmentProperties environmentProperties = EnvironmentFileCache.read(file);
+
+        assertThat(environmentProperties.getKuflow().getClientSecret()).isEqualTo(CLIENT_SECRET);
+        Path entryFile = EnvironmentFileCache.getEntryFile(file);
+        String entry = Files.readString(entryFile, StandardCharsets.ISO_8859_1);
+        assertThat(entry).contains("kuflow.client-id=client").doesNotContain(CLIENT_SECRET);
+
+        Properties storedEntry = new Properties();
+        try (Reader reader = Files.newBufferedReader(entryFile, StandardCharsets.ISO_8859_1)) {
+            storedEntry.load(reader);
+        }
+        int start = Integer.parseInt(storedEntry.getProperty("cache.client-secret.start"));
+        int end = Integer.parseInt(storedEntry.getProperty("cache.client-secret.end"));
+        assertThat(Files.readString(file).substring(start, end)).isEqualTo(CLIENT_SECRET);
+    }
+
+    @Test
+    void entryIsNotStoredWhenTheClientSecretCanNotBeFound() throws IOException {
+        Path file = this.writeEnvironmentFile("client-secret: \"" + CLIENT_SECRET + "\"");
+
+        EnvironmentProperties environmentProperties = EnvironmentFileCache.read(file);
+
+        assertThat(environmentProperties.getKuflow().getClientSecret()).isEqualTo(CLIENT_SECRET);
+        assertThat(Files.exists(EnvironmentFileCache.getEntryFile(file))).isFalse();
+    }
+
+    /**
+     * Environment file modified long enough ago to be cached.
+     */
+    private Path writeEnvironmentFile(String clientSecretLine) throws IOException {
+        Path file = this.directory.resolve(".kuflow.yml");
+        String content = String.join(
+            "\n",
+            "kuflow:",
+            "  endpoint: http://localhost:8080",
+            "  client-id: client",
+            "  " + clientSecretLine,
+            "  http:",
+            "    max-connections: 8",
+            ""
+        );
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(1, ChronoUnit.MINUTES)));
+
+        return file;
+    }
+
+    private static EnvironmentProperties fullEnvironmentProperties() {
+        EnvironmentProperties environmentProperties = new EnvironmentProperties();
+        KuFlowProperties kuflow = environmentProperties.getKuflow();
+        kuflow.setEndpoint("http://localhost:8080");
+        kuflow.setClientId("client");
+        kuflow.setClientSecret(CLIENT_SECRET);
+        kuflow.setTimeout(30000L);
+        kuflow.setLogBodyLimit(4096);
+        kuflow.getRetry().setMaxRetries(5);
+        kuflow.getRetry().setBaseDelay(200L);
+        kuflow.getRetry().setMaxDelay(10000L);
+        kuflow.getCircuitBreaker().setFailureThreshold(3);
+        kuflow.getCircuitBreaker().setOpenDuration(60000L);
+        kuflow.getHttp().setClient(HttpClientType.JDK);
+        kuflow.getHttp().setVersion(HttpVersion.HTTP_2);
+        kuflow.getHttp().setMaxConnections(8);
+        kuflow.getHttp().setConnectionIdleTimeout(90000L);
+        kuflow.getHttp().setSocketBufferSize(65536);
+
+        return environmentProperties;
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpPipeline;
+import com.azure.core.http.HttpPipelineBuilder;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.HttpLogDetailLevel;
+import com.azure.core.http.policy.HttpLogOptions;
+import com.azure.core.http.policy.HttpLoggingPolicy;
+import com.azure.core.util.FluxUtil;
+import com.kuflow.cli.core.model.EnvironmentProperties.KuFlowProperties;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.Property;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Sends bodies larger than the heap through the HTTP logging configured for {@code -vvv}. They can only be transferred
+ * if the logging streams them: buffering any of them fails with an {@link OutOfMemoryError}.
+ */
+class HttpBodyLoggerTest {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final CapturingAppender appender = new CapturingAppender();
+
+    private Level previousLevel;
+
+    private long largeBodyLength;
+
+    @BeforeEach
+    void setUp() {
+        LoggerContext context = LoggerContext.getContext(false);
+        this.previousLevel = context.getRootLogger().getLevel();
+        this.appender.start();
+        context.getConfiguration().getRootLogger().addAppender(this.appender, Level.ALL, null);
+        Configurator.setRootLevel(Level.TRACE);
+
+        this.largeBodyLength = Math.max(2 * Runtime.getRuntime().maxMemory(), 64L * 1024 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        LoggerContext context = LoggerContext.getContext(false);
+        context.getConfiguration().getRootLogger().removeAppender(this.appender.getName());
+        Configurator.setRootLevel(this.previousLevel);
+        this.appender.stop();
+    }
+
+    @Test
+    void largeMultipartRequestIsStreamedWithoutBeingLogged() {
+        ByteBuffer responseBody = ByteBuffer.wrap("{}".getBytes(StandardCharsets.UTF_8));
+        AtomicInteger subscriptions = new AtomicInteger();
+        AtomicLong bytesSent = new AtomicLong();
+        HttpClient httpClient = request ->
+            request
+                .getBody()
+                .reduce(0L, (count, buffer) -> count + buffer.remaining())
+                .map(count -> {
+                    bytesSent.set(count);
+                    return new StubHttpResponse(request, "application/json", Flux.just(responseBody));
+                });
+
+        HttpRequest request = new HttpRequest(HttpMethod.POST, "http://localhost/tasks/1/~actions/save-element-value-document");
+        request.setHeader("Content-Type", "multipart/form-data; boundary=kuflow");
+        request.setHeader("Content-Length", String.valueOf(this.largeBodyLength));
+        request.setBody(generateBody(this.largeBodyLength).doOnSubscribe(subscription -> subscriptions.incrementAndGet()));
+
+        try (HttpResponse response = this.verbosePipeline(httpClient).send(request).block()) {
+            assertThat(response.getStatusCode()).isEqualTo(200);
+        }
+
+        // Only the client read the body, the logger did not collect it
+        assertThat(subscriptions.get()).isEqualTo(1);
+        assertThat(bytesSent.get()).isEqualTo(this.largeBodyLength);
+        assertThat(this.appender.getMessages())
+            .anyMatch(message -> message.contains("(multipart/form-data; boundary=kuflow body not logged)"));
+    }
+
+    @Test
+    void largeBinaryResponseIsStreamedWithoutBeingLogged() {
+        Flux<ByteBuffer> responseBody = generateBody(this.largeBodyLength);
+        HttpClient httpClient = request -> Mono.just(new StubHttpResponse(request, "application/octet-stream", responseBody));
+
+        HttpRequest request = new HttpRequest(HttpMethod.GET, "http://localhost/files/1");
+        long bytesReceived;
+        try (HttpResponse response = this.verbosePipeline(httpClient).send(request).block()) {
+            bytesReceived = response.getBody().reduce(0L, (count, buffer) -> count + buffer.remaining()).block();
+        }
+
+        assertThat(bytesReceived).isEqualTo(this.largeBodyLength);
+        assertThat(this.appender.getMessages()).anyMatch(message -> message.contains("(application/octet-stream body not logged)"));
+    }
+
+    @Test
+    void textualResponseIsLoggedAndStillReadable() {
+        String json = "{\"id\":\"5f7f5c2d-9b4b-4a6c-8c9f-2f3e8a9d1b10\"}";
+        HttpClient httpClient = request ->
+            Mono.just(new StubHttpResponse(request, "application/json", Flux.just(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)))));
+
+        HttpRequest request = new HttpRequest(HttpMethod.GET, "http://localhost/tasks/1");
+        try (HttpResponse response = this.verbosePipeline(httpClient).send(request).block()) {
+            assertThat(response.getBodyAsString().block()).isEqualTo(json);
+        }
+
+        assertThat(this.appender.getMessages()).anyMatch(message -> message.contains(json));
+    }
+
+    private HttpPipeline verbosePipeline(HttpClient httpClient) {
+        HttpLogOptions logOptions = RestClientFactory.httpLogOptions(new KuFlowProperties());
+        assertThat(logOptions.getLogLevel()).isEqualTo(HttpLogDetailLevel.BODY_AND_HEADERS);
+
+        return new HttpPipelineBuilder().httpClient(httpClient).policies(new HttpLoggingPolicy(logOptions)).build();
+    }
+
+    /**
+     * Body made of chunks allocated as they are requested, so only the reader decides how many are kept in memory.
+     */
+    private static Flux<ByteBuffer> generateBody(long length) {
+        return Flux.generate(
+            () -> 0L,
+            (generated, sink) -> {
+                if (generated >= length) {
+                    sink.complete();
+                    return generated;
+                }
+
+                int chunkSize = (int) Math.min(CHUNK_SIZE, length - generated);
+                sink.next(ByteBuffer.allocate(chunkSize));
+                return generated + chunkSize;
+            }
+        );
+    }
+
+    private static class CapturingAppender extends AbstractAppender {
+
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+
+        CapturingAppender() {
+            super("capturing", null, null, true, Property.EMPTY_ARRAY);
+        }
+
+        @Override
+        public void append(LogEvent event) {
+            this.messages.add(event.getMessage().getFormattedMessage());
+        }
+
+        List<String> getMessages() {
+            return this.messages;
+        }
+    }
+
+    private static class StubHttpResponse extends HttpResponse {
+
+        private final HttpHeaders headers;
+
+        private final Flux<ByteBuffer> body;
+
+        StubHttpResponse(HttpRequest request, String contentType, Flux<ByteBuffer> body) {
+            super(request);
+            this.headers = new HttpHeaders().set("Content-Type", contentType);
+            this.body = body;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getHeaderValue(String name) {
+            return this.headers.getValue(name);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.headers;
+        }
+
+        @Override
+        public Flux<ByteBuffer> getBody() {
+            return this.body;
+        }
+
+        @Override
+        public Mono<byte[]> getBodyAsByteArray() {
+            return FluxUtil.collectBytesInByteBufferStream(this.body);
+        }
+
+        @Override
+        public Mono<String> getBodyAsString() {
+            return this.getBodyAsByteArray().map(bytes -> new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Mono<String> getBodyAsString(Charset charset) {
+            return this.getBodyAsByteArray().map(bytes -> new String(bytes, charset));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class JdkHttpClientTest {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(500);
+
+    private static final int CHUNK_SIZE = 1024;
+
+    private HttpServer server;
+
+    private volatile long responseDelayMillis;
+
+    private JdkHttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(Executors.newCachedThreadPool());
+        this.server.start();
+
+        this.httpClient = new JdkHttpClient(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(), TIMEOUT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.server.stop(0);
+    }
+
+    @Test
+    void uploadLongerThanTheTimeoutSucceedsWhileItMakesProgress() {
+        int chunks = 15;
+        Flux<ByteBuffer> body = Flux.interval(Duration.ofMillis(100)).take(chunks).map(i -> ByteBuffer.wrap(new byte[CHUNK_SIZE]));
+
+        try (HttpResponse response = this.httpClient.send(this.newUpload(body, chunks * CHUNK_SIZE)).block()) {
+            assertThat(response.getStatusCode()).isEqualTo(200);
+            assertThat(response.getBodyAsString().block()).isEqualTo(String.valueOf(chunks * CHUNK_SIZE));
+        }
+    }
+
+    @Test
+    void stalledUploadTimesOut() {
+        Flux<ByteBuffer> body = Flux.concat(Flux.just(ByteBuffer.wrap(new byte[CHUNK_SIZE])), Flux.never());
+
+        Throwable error = catchThrowable(() -> this.httpClient.send(this.newUpload(body, 2 * CHUNK_SIZE)).block());
+
+        assertThat(hasTimeoutCause(error)).isTrue();
+    }
+
+    @Test
+    void responseHeadersAfterTheUploadMustArriveInTime() {
+        this.responseDelayMillis = 5 * TIMEOUT.toMillis();
+        Flux<ByteBuffer> body = Flux.just(ByteBuffer.wrap(new byte[CHUNK_SIZE]));
+
+        long start = System.nanoTime();
+        Throwable error = catchThrowable(() -> this.httpClient.send(this.newUpload(body, CHUNK_SIZE)).block());
+
+        assertThat(hasTimeoutCause(error)).isTrue();
+        assertThat(Duration.ofNanos(System.nanoTime() - start).toMillis()).isLessThan(this.responseDelayMillis);
+    }
+
+    @Test
+    void responseHeadersWithoutBodyMustArriveInTime() {
+        this.responseDelayMillis = 5 * TIMEOUT.toMillis();
+        HttpRequest request = new HttpRequest(HttpMethod.GET, this.getUrl());
+
+        Throwable error = catchThrowable(() -> this.httpClient.send(request).block());
+
+        assertThat(hasTimeoutCause(error)).isTrue();
+    }
+
+    private HttpRequest newUpload(Flux<ByteBuffer> body, long length) {
+        HttpRequest request = new HttpRequest(HttpMethod.POST, this.getUrl());
+        request.setHeader("Content-Type", "application/octet-stream");
+        request.setHeader("Content-Length", String.valueOf(length));
+        request.setBody(body);
+
+        return request;
+    }
+
+    private String getUrl() {
+        return String.format("http://localhost:%d/upload", this.server.getAddress().getPort());
+    }
+
+    /**
+     * Responds with the number of bytes received, after the configured delay.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        long received;
+        try (InputStream inputStream = exchange.getRequestBody()) {
+            received = inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+
+        try {
+            Thread.sleep(this.responseDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        byte[] response = String.valueOf(received).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(response);
+        }
+    }
+
+    private static boolean hasTimeoutCause(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.azure.core.http.HttpMethod;
+import com.azure.core.http.HttpRequest;
+import io.netty.handler.timeout.ReadTimeoutException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class JitteredExponentialBackoffTest {
+
+    private static final Duration BASE_DELAY = Duration.ofMillis(100);
+
+    private static final Duration MAX_DELAY = Duration.ofSeconds(3);
+
+    private final JitteredExponentialBackoff backoff = new JitteredExponentialBackoff(3, BASE_DELAY, MAX_DELAY);
+
+    @Test
+    void delaysDoubleWithEachAttemptAndHalfOfThemIsRandom() {
+        for (int attempt = 0; attempt < 10; attempt++) {
+            Duration delay = BASE_DELAY.multipliedBy(1L << attempt);
+            Duration maxDelay = delay.compareTo(MAX_DELAY) < 0 ? delay : MAX_DELAY;
+
+            for (int i = 0; i < 200; i++) {
+                Duration retryDelay = this.backoff.calculateRetryDelay(attempt);
+                assertThat(retryDelay.compareTo(maxDelay.dividedBy(2)) >= 0).isTrue();
+                assertThat(retryDelay.compareTo(maxDelay) <= 0).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void delaysOfLargeAttemptsDoNotOverflow() {
+        for (int attempt : new int[] { 31, 63, 64, 1000, Integer.MAX_VALUE }) {
+            Duration retryDelay = this.backoff.calculateRetryDelay(attempt);
+            assertThat(retryDelay.compareTo(MAX_DELAY.dividedBy(2)) >= 0).isTrue();
+            assertThat(retryDelay.compareTo(MAX_DELAY) <= 0).isTrue();
+        }
+    }
+
+    @Test
+    void ioErrorsAndTimeoutsAreRetried() {
+        assertThat(this.backoff.shouldRetryException(new IOException("Connection reset"))).isTrue();
+        assertThat(this.backoff.shouldRetryException(new RuntimeException(new SocketTimeoutException()))).isTrue();
+        assertThat(this.backoff.shouldRetryException(new TimeoutException())).isTrue();
+        assertThat(this.backoff.shouldRetryException(ReadTimeoutException.INSTANCE)).isTrue();
+        assertThat(this.backoff.shouldRetryException(new IllegalStateException("Invalid state"))).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 408, 429, 500, 502, 503, 504 })
+    void transientStatusesAreRetried(int statusCode) {
+        assertThat(this.backoff.shouldRetry(new StatusHttpResponse(new HttpRequest(HttpMethod.GET, "http://localhost"), statusCode)))
+            .isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 200, 400, 401, 404, 501, 505 })
+    void otherStatusesAreNotRetried(int statusCode) {
+        assertThat(this.backoff.shouldRetry(new StatusHttpResponse(new HttpRequest(HttpMethod.GET, "http://localhost"), statusCode)))
+            .isFalse();
+    }
+
+    @Test
+    void invalidConfigurationIsRejected() {
+        assertThatThrownBy(() -> new JitteredExponentialBackoff(-1, BASE_DELAY, MAX_DELAY)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new JitteredExponentialBackoff(3, Duration.ZERO, MAX_DELAY)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new JitteredExponentialBackoff(3, MAX_DELAY, BASE_DELAY)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(this.backoff.getMaxRetries()).isEqualTo(3);
+    }
+}
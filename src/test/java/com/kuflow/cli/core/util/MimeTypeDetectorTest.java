@@ -0,0 +1,259 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class MimeTypeDetectorTest {
+
+    private static final byte[] PNG = bytes(0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 0x00, 0x00, 0x00, 0x0d, 'I', 'H', 'D', 'R');
+
+    @TempDir
+    Path directory;
+
+    static Stream<Arguments> signatures() {
+        return Stream.of(
+            Arguments.of("application/pdf", header(0, "%PDF-1.7\n")),
+            Arguments.of("image/png", PNG),
+            Arguments.of("image/jpeg", header(0, bytes(0xff, 0xd8, 0xff, 0xe0))),
+            Arguments.of("image/gif", header(0, "GIF87a")),
+            Arguments.of("image/gif", header(0, "GIF89a")),
+            Arguments.of("image/tiff", header(0, bytes('I', 'I', 0x2a, 0x00))),
+            Arguments.of("image/tiff", header(0, bytes('M', 'M', 0x00, 0x2a))),
+            Arguments.of("image/webp", header(0, "RIFF", 8, "WEBP")),
+            Arguments.of("audio/wav", header(0, "RIFF", 8, "WAVE")),
+            Arguments.of("video/x-msvideo", header(0, "RIFF", 8, "AVI ")),
+            Arguments.of("image/bmp", header(0, bytes('B', 'M', 0x36, 0x00, 0x0c, 0x00, 0x00, 0x00, 0x00, 0x00), 14, bytes(40, 0, 0, 0))),
+            Arguments.of("image/bmp", header(0, bytes('B', 'M', 0x1a, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00), 14, bytes(12, 0, 0, 0))),
+            Arguments.of("image/bmp", header(0, bytes('B', 'M', 0x8a, 0x00, 0x01, 0x00, 0x00, 0x00, 0x00, 0x00), 14, bytes(124, 0, 0, 0))),
+            Arguments.of("image/x-icon", header(0, bytes(0x00, 0x00, 0x01, 0x00, 0x01, 0x00))),
+            Arguments.of("image/heic", header(4, "ftypheic")),
+            Arguments.of("image/heic", header(4, "ftyphevc")),
+            Arguments.of("image/heif", header(4, "ftypmif1")),
+            Arguments.of("image/avif", header(4, "ftypavif")),
+            Arguments.of("audio/mp4", header(4, "ftypM4A ")),
+            Arguments.of("video/quicktime", header(4, "ftypqt  ")),
+            Arguments.of("video/3gpp", header(4, "ftyp3gp5")),
+            Arguments.of("video/3gpp2", header(4, "ftyp3g2a")),
+            Arguments.of("video/mp4", header(4, "ftypisom")),
+            Arguments.of("video/mp4", header(4, "ftypmp42")),
+            Arguments.of("audio/mpeg", header(0, bytes('I', 'D', '3', 0x04, 0x00, 0x00))),
+            Arguments.of("audio/ogg", header(0, "OggS")),
+            Arguments.of("audio/flac", header(0, "fLaC")),
+            Arguments.of("application/zip", header(0, bytes('P', 'K', 0x03, 0x04))),
+            Arguments.of("application/zip", header(0, bytes('P', 'K', 0x05, 0x06))),
+            Arguments.of("application/zip", header(0, bytes('P', 'K', 0x07, 0x08))),
+            Arguments.of("application/x-ole-storage", header(0, bytes(0xd0, 0xcf, 0x11, 0xe0, 0xa1, 0xb1, 0x1a, 0xe1))),
+            Arguments.of("application/gzip", header(0, bytes(0x1f, 0x8b, 0x08))),
+            Arguments.of("application/x-bzip2", header(0, "BZh9", 4, bytes(0x31, 0x41, 0x59, 0x26, 0x53, 0x59))),
+            Arguments.of("application/x-bzip2", header(0, "BZh9", 4, bytes(0x17, 0x72, 0x45, 0x38, 0x50, 0x90))),
+            Arguments.of("application/x-xz", header(0, bytes(0xfd, '7', 'z', 'X', 'Z', 0x00))),
+            Arguments.of("application/x-7z-compressed", header(0, bytes('7', 'z', 0xbc, 0xaf, 0x27, 0x1c))),
+            Arguments.of("application/vnd.rar", header(0, bytes('R', 'a', 'r', '!', 0x1a, 0x07, 0x00))),
+            Arguments.of("application/x-tar", header(0, "file.txt", 257, "ustar")),
+            Arguments.of("application/vnd.sqlite3", header(0, "SQLite format 3\0")),
+            Arguments.of("application/x-executable", header(0, bytes(0x7f, 'E', 'L', 'F', 0x02))),
+            Arguments.of("application/rtf", header(0, "{\\rtf1\\ansi")),
+            Arguments.of("application/postscript", header(0, "%!PS-Adobe-3.0\n")),
+            Arguments.of("font/woff", header(0, "wOFF")),
+            Arguments.of("font/woff2", header(0, "wOF2")),
+            Arguments.of("text/html", header(0, "<!DOCTYPE html>\n<html>")),
+            Arguments.of("text/html", header(0, "<HTML><HEAD>")),
+            Arguments.of("text/html", header(0, "<head>")),
+            Arguments.of("text/html", header(0, "<body>")),
+            Arguments.of("application/xml", header(0, "<?xml version=\"1.0\"?>"))
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("signatures")
+    void detectsSignature(String mimeType, byte[] header) {
+        assertThat(MimeTypeDetector.detect(header, header.length)).isEqualTo(mimeType);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "<!doctype html>", "  <html>", "\r\n\t<body>", "\uFEFF<html>", "\uFEFF \n<?xml version=\"1.0\"?>" })
+    void detectsMarkupAfterByteOrderMarkAndWhitespace(String content) {
+        byte[] header = content.getBytes(StandardCharsets.UTF_8);
+        String expected = content.contains("<?xml") ? "application/xml" : "text/html";
+
+        assertThat(MimeTypeDetector.detect(header, header.length)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "BMW service schedule\n", "ID3 tags are read later\n", "BZh is not a compressed file\n", "hello world\r\n" })
+    void detectsText(String content) {
+        byte[] header = content.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(MimeTypeDetector.detect(header, header.length)).isEqualTo("text/plain");
+    }
+
+    @Test
+    void detectsBinaryContent() {
+        byte[] header = bytes('d', 'a', 't', 'a', 0x00, 0x01, 0x02, 0x03);
+
+        assertThat(MimeTypeDetector.detect(header, header.length)).isEqualTo(MimeTypeDetector.DEFAULT_MIME_TYPE);
+    }
+
+    @Test
+    void detectsContentWithManyControlCharactersAsBinary() {
+        byte[] header = new byte[100];
+        for (int i = 0; i < header.length; i++) {
+            header[i] = (byte) (i % 10 == 0 ? 0x01 : 'a');
+        }
+
+        assertThat(MimeTypeDetector.detect(header, header.length)).isEqualTo(MimeTypeDetector.DEFAULT_MIME_TYPE);
+    }
+
+    @Test
+    void detectsEmptyContentAsBinary() {
+        assertThat(MimeTypeDetector.detect(new byte[0], 0)).isEqualTo(MimeTypeDetector.DEFAULT_MIME_TYPE);
+    }
+
+    @Test
+    void extensionTakesPrecedenceOverContent() throws IOException {
+        Path file = this.directory.resolve("image.txt");
+        Files.write(file, PNG);
+
+        assertThat(MimeTypeDetector.detect(file)).isEqualTo("text/plain");
+    }
+
+    @Test
+    void contentIsUsedWhenTheExtensionIsNotKnown() throws IOException {
+        Path withoutExtension = this.directory.resolve("image");
+        Files.write(withoutExtension, PNG);
+        Path unknownExtension = this.directory.resolve("image.kuflow-unknown");
+        Files.write(unknownExtension, PNG);
+
+        assertThat(MimeTypeDetector.detect(withoutExtension)).isEqualTo("image/png");
+        assertThat(MimeTypeDetector.detect(unknownExtension)).isEqualTo("image/png");
+    }
+
+    @Test
+    void streamIsResetAfterReadingItsHeader() throws IOException {
+        byte[] content = new byte[MimeTypeDetector.HEADER_SIZE * 4];
+        System.arraycopy(PNG, 0, content, 0, PNG.length);
+        InputStream inputStream = new BufferedInputStream(new ByteArrayInputStream(content));
+
+        assertThat(MimeTypeDetector.detect(null, inputStream)).isEqualTo("image/png");
+        assertThat(inputStream.readAllBytes()).isEqualTo(content);
+    }
+
+    @Test
+    void streamIsNotReadWhenTheExtensionIsKnown() throws IOException {
+        CountingInputStream inputStream = new CountingInputStream(new ByteArrayInputStream(PNG));
+
+        assertThat(MimeTypeDetector.detect("notes.txt", inputStream)).isEqualTo("text/plain");
+        assertThat(inputStream.bytesRead).isEqualTo(0);
+    }
+
+    @Test
+    void streamWithoutMarkIsNotRead() throws IOException {
+        CountingInputStream inputStream = new CountingInputStream(new ByteArrayInputStream(PNG));
+
+        assertThat(MimeTypeDetector.detect("image", inputStream)).isEqualTo(MimeTypeDetector.DEFAULT_MIME_TYPE);
+        assertThat(inputStream.bytesRead).isEqualTo(0);
+    }
+
+    /**
+     * Header with the given parts, each preceded by its offset, padded with zeros up to the last part.
+     */
+    private static byte[] header(Object... offsetsAndParts) {
+        byte[] header = new byte[0];
+        for (int i = 0; i < offsetsAndParts.length; i += 2) {
+            int offset = (Integer) offsetsAndParts[i];
+            Object part = offsetsAndParts[i + 1];
+            byte[] bytes = part instanceof String ? ((String) part).getBytes(StandardCharsets.ISO_8859_1) : (byte[]) part;
+            if (header.length < offset + bytes.length) {
+                byte[] extended = new byte[offset + bytes.length];
+                System.arraycopy(header, 0, extended, 0, header.length);
+                header = extended;
+            }
+            System.arraycopy(bytes, 0, header, offset, bytes.length);
+        }
+
+        return header;
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Stream without mark support, that counts the bytes read.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private int bytesRead;
+
+        CountingInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                this.bytesRead++;
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                this.bytesRead += count;
+            }
+
+            return count;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class StreamingPipeTest {
+
+    @Test
+    void readerGetsTheContentInOrder() throws IOException {
+        byte[] content = new byte[100_000];
+        new Random(42).nextBytes(content);
+        StreamingPipe pipe = new StreamingPipe(1024, 4);
+
+        CompletableFuture<Void> writing = CompletableFuture.runAsync(() -> {
+            try (OutputStream outputStream = pipe.getOutputStream()) {
+                outputStream.write(content, 0, 10);
+                outputStream.write(content[10]);
+                outputStream.write(content, 11, content.length - 11);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        byte[] read;
+        try (InputStream inputStream = pipe.getInputStream()) {
+            read = inputStream.readAllBytes();
+        }
+
+        writing.join();
+        assertThat(read).isEqualTo(content);
+        assertThat(pipe.getFailure()).isNull();
+    }
+
+    @Test
+    void readerGetsTheFailureOfTheWriterAfterTheContentWritten() throws IOException {
+        StreamingPipe pipe = new StreamingPipe(4, 4);
+        IOException failure = new IOException("Disk error");
+
+        CompletableFuture<Void> writing = CompletableFuture.runAsync(() -> {
+            try {
+                OutputStream outputStream = pipe.getOutputStream();
+                outputStream.write(new byte[] { 1, 2, 3, 4, 5 });
+                // Flushed chunks are read before the failure, the buffered byte is lost
+                outputStream.flush();
+                outputStream.write(6);
+                throw failure;
+            } catch (IOException e) {
+                pipe.fail(e);
+            }
+        });
+
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        Throwable thrown;
+        try (InputStream inputStream = pipe.getInputStream()) {
+            thrown = catchThrowable(() -> inputStream.transferTo(read));
+        }
+
+        writing.join();
+        assertThat(read.toByteArray()).isEqualTo(new byte[] { 1, 2, 3, 4, 5 });
+        assertThat(thrown).isInstanceOf(IOException.class).hasMessageContaining("Disk error");
+        assertThat(thrown.getCause()).isEqualTo(failure);
+        assertThat(pipe.getFailure()).isEqualTo(failure);
+    }
+
+    @Test
+    void writerFailsOnceTheReaderIsClosed() throws Exception {
+        StreamingPipe pipe = new StreamingPipe(4, 1);
+
+        CompletableFuture<Void> writing = CompletableFuture.runAsync(() -> {
+            OutputStream outputStream = pipe.getOutputStream();
+            try {
+                while (true) {
+                    outputStream.write(new byte[64]);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        InputStream inputStream = pipe.getInputStream();
+        assertThat(inputStream.read()).isEqualTo(0);
+        inputStream.close();
+
+        Throwable thrown = catchThrowable(() -> writing.get(10, TimeUnit.SECONDS));
+        assertThat(thrown.getCause()).isInstanceOf(UncheckedIOException.class);
+        assertThat(thrown.getCause()).hasMessageContaining("Pipe closed by the reader");
+
+        // A failure of the writer once the reader is gone is not reported to anyone
+        pipe.fail(new IOException("Late error"));
+        assertThat(pipe.getFailure()).isNull();
+    }
+
+    @Test
+    void writesFailOnceTheWriterIsClosed() throws IOException {
+        StreamingPipe pipe = new StreamingPipe(4, 4);
+        OutputStream outputStream = pipe.getOutputStream();
+        outputStream.write(1);
+        outputStream.close();
+        outputStream.close();
+        outputStream.write(2);
+
+        Throwable thrown = catchThrowable(outputStream::flush);
+        assertThat(thrown).isInstanceOf(IOException.class).hasMessageContaining("Pipe closed by the writer");
+
+        try (InputStream inputStream = pipe.getInputStream()) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(new byte[] { 1 });
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class StringUtilsTest {
+
+    static Stream<Arguments> lines() {
+        return Stream.of(
+            Arguments.of("append-log -t id  -lv\tINFO", List.of("append-log", "-t", "id", "-lv", "INFO")),
+            Arguments.of("  leading and trailing  ", List.of("leading", "and", "trailing")),
+            Arguments.of("'single quoted' \"double quoted\"", List.of("single quoted", "double quoted")),
+            Arguments.of("mixed'single'\"double\"", List.of("mixedsingledouble")),
+            Arguments.of("'it''s' \"say \\\"hi\\\"\"", List.of("its", "say \"hi\"")),
+            Arguments.of("'no \\escape \"here\"'", List.of("no \\escape \"here\"")),
+            Arguments.of("\"keeps \\n and \\\\\"", List.of("keeps \\n and \\")),
+            Arguments.of("escaped\\ space \\'quote\\' \\\\", List.of("escaped space", "'quote'", "\\")),
+            Arguments.of("'' \"\" value ''", List.of("", "", "value", "")),
+            Arguments.of("a''b", List.of("ab")),
+            Arguments.of("", List.of()),
+            Arguments.of("   ", List.of())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("lines")
+    void splitsArgumentsLikeAShell(String line, List<String> expected) {
+        assertThat(StringUtils.splitArguments(line)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "append-log 'message", "append-log \"message", "'a' \"b", "\"escaped \\\"", "trailing \\" })
+    void unterminatedQuotesAndEscapesAreRejected(String line) {
+        assertThatThrownBy(() -> StringUtils.splitArguments(line)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void unterminatedQuoteErrorShowsTheLine() {
+        assertThatThrownBy(() -> StringUtils.splitArguments("append-log 'message"))
+            .hasMessageContaining("Unterminated quote in: append-log 'message");
+    }
+
+    @Test
+    void blankAndEmptyStrings() {
+        assertThat(StringUtils.isBlank(null)).isTrue();
+        assertThat(StringUtils.isBlank(" \t")).isTrue();
+        assertThat(StringUtils.isBlank(" a ")).isFalse();
+        assertThat(StringUtils.isEmpty("")).isTrue();
+        assertThat(StringUtils.isEmpty(" ")).isFalse();
+    }
+}
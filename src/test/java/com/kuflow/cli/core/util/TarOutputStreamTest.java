@@ -0,0 +1,174 @@
+/*
+ * The MIT License
+ * Copyright © 2021-present KuFlow S.L.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.kuflow.cli.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarUtils;
+import org.junit.jupiter.api.Test;
+
+class TarOutputStreamTest {
+
+    private static final int BLOCK_SIZE = 512;
+
+    private static final long LAST_MODIFIED_MILLIS = 1_666_000_000_000L;
+
+    @Test
+    void filesAreReadBackWithTheirContentAndAttributes() throws IOException {
+        byte[] text = "hello".getBytes(StandardCharsets.UTF_8);
+        byte[] script = new byte[BLOCK_SIZE + 88];
+        Arrays.fill(script, (byte) 'x');
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (TarOutputStream tarOutputStream = new TarOutputStream(archive)) {
+            tarOutputStream.putEntry("hello.txt", text.length, LAST_MODIFIED_MILLIS, false);
+            tarOutputStream.write(text);
+            tarOutputStream.putEntry("bin/run.sh", script.length, LAST_MODIFIED_MILLIS, true);
+            tarOutputStream.write(script);
+        }
+
+        try (TarArchiveInputStream tarInputStream = new TarArchiveInputStream(new ByteArrayInputStream(archive.toByteArray()))) {
+            TarArchiveEntry entry = tarInputStream.getNextTarEntry();
+            assertThat(entry.getName()).isEqualTo("hello.txt");
+            assertThat(entry.getSize()).isEqualTo((long) text.length);
+            assertThat(entry.getMode()).isEqualTo(0644);
+            assertThat(entry.isFile()).isTrue();
+            assertThat(entry.getModTime().getTime()).isEqualTo(LAST_MODIFIED_MILLIS);
+            assertThat(tarInputStream.readAllBytes()).isEqualTo(text);
+
+            entry = tarInputStream.getNextTarEntry();
+            assertThat(entry.getName()).isEqualTo("bin/run.sh");
+            assertThat(entry.getMode()).isEqualTo(0755);
+            assertThat(tarInputStream.readAllBytes()).isEqualTo(script);
+
+            assertThat(tarInputStream.getNextTarEntry()).isNull();
+        }
+    }
+
+    @Test
+    void headersHaveAValidChecksum() throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (TarOutputStream tarOutputStream = new TarOutputStream(archive)) {
+            tarOutputStream.putEntry("dir/ñandú.txt", 0, LAST_MODIFIED_MILLIS, false);
+        }
+
+        byte[] header = Arrays.copyOf(archive.toByteArray(), BLOCK_SIZE);
+        assertThat(TarUtils.verifyCheckSum(header)).isTrue();
+    }
+
+    @Test
+    void contentIsPaddedToBlocksAndTheArchiveEndsWithTwoEmptyBlocks() throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (TarOutputStream tarOutputStream = new TarOutputStream(archive)) {
+            tarOutputStream.putEntry("a", 1, LAST_MODIFIED_MILLIS, false);
+            tarOutputStream.write('a');
+            tarOutputStream.putEntry("b", BLOCK_SIZE, LAST_MODIFIED_MILLIS, false);
+            tarOutputStream.write(new byte[BLOCK_SIZE]);
+        }
+
+        byte[] bytes = archive.toByteArray();
+        // Header and padded content of each entry, and the end of the archive
+        assertThat(bytes.length).isEqualTo(6 * BLOCK_SIZE);
+        assertThat(bytes[BLOCK_SIZE]).isEqualTo((byte) 'a');
+        assertThat(isZero(bytes, BLOCK_SIZE + 1, 2 * BLOCK_SIZE)).isTrue();
+        assertThat(isZero(bytes, 4 * BLOCK_SIZE, 6 * BLOCK_SIZE)).isTrue();
+    }
+
+    @Test
+    void finishWritesTheEndOfAnEmptyArchiveOnce() throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        TarOutputStream tarOutputStream = new TarOutputStream(archive);
+        tarOutputStream.finish();
+        tarOutputStream.close();
+
+        assertThat(archive.size()).isEqualTo(2 * BLOCK_SIZE);
+        assertThat(isZero(archive.toByteArray(), 0, archive.size())).isTrue();
+    }
+
+    @Test
+    void longNamesAreReadBack() throws IOException {
+        String directory = "d".repeat(120);
+        String prefixedName = directory + "/" + "f".repeat(90) + ".txt";
+        String paxName = "n".repeat(300) + ".txt";
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (TarOutputStream tarOutputStream = new TarOutputStream(archive)) {
+            tarOutputStream.putEntry(prefixedName, 1, LAST_MODIFIED_MILLIS, false);
+            tarOutputStream.write('p');
+            tarOutputStream.putEntry(paxName, 1, LAST_MODIFIED_MILLIS, false);
+            tarOutputStream.write('x');
+        }
+
+        try (TarArchiveInputStream tarInputStream = new TarArchiveInputStream(new ByteArrayInputStream(archive.toByteArray()))) {
+            assertThat(tarInputStream.getNextTarEntry().getName()).isEqualTo(prefixedName);
+            assertThat(tarInputStream.read()).isEqualTo((int) 'p');
+            assertThat(tarInputStream.getNextTarEntry().getName()).isEqualTo(paxName);
+            assertThat(tarInputStream.read()).isEqualTo((int) 'x');
+            assertThat(tarInputStream.getNextTarEntry()).isNull();
+        }
+    }
+
+    @Test
+    void sizesAboveTheOctalLimitAreWrittenInAPaxHeader() throws IOException {
+        long size = 10L * 1024 * 1024 * 1024;
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        TarOutputStream tarOutputStream = new TarOutputStream(archive);
+        tarOutputStream.putEntry("large.bin", size, LAST_MODIFIED_MILLIS, false);
+
+        try (TarArchiveInputStream tarInputStream = new TarArchiveInputStream(new ByteArrayInputStream(archive.toByteArray()))) {
+            TarArchiveEntry entry = tarInputStream.getNextTarEntry();
+            assertThat(entry.getName()).isEqualTo("large.bin");
+            assertThat(entry.getSize()).isEqualTo(size);
+        }
+    }
+
+    @Test
+    void contentMustMatchTheSizeOfTheEntry() throws IOException {
+        TarOutputStream tarOutputStream = new TarOutputStream(new ByteArrayOutputStream());
+        tarOutputStream.putEntry("a", 2, LAST_MODIFIED_MILLIS, false);
+
+        assertThatThrownBy(() -> tarOutputStream.write(new byte[3])).isInstanceOf(IOException.class);
+
+        tarOutputStream.write('a');
+        assertThatThrownBy(tarOutputStream::finish).isInstanceOf(IOException.class).hasMessageContaining("Missing 1 bytes");
+    }
+
+    private static boolean isZero(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}